@@ -0,0 +1,85 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * JMH version of HeapBenchmarkSuite: insert, deleteMin, decreaseKey, delete, meld and kMin of FibonacciHeap,
+ * PairingHeap, the Heap (TreeSet) baseline and java.util.PriorityQueue, over sizes from 1e3 to 1e7 and the
+ * random, ascending, descending and clustered key distributions.
+ * <p>
+ * Every invocation runs one whole batch on a heap built beforehand (see HeapBenchmarkSuite.prepare): n
+ * operations for insert, deleteMin and decreaseKey, n/2 for delete, and one for meld and kMin. Building the
+ * heap needs a setup per invocation, so the mode is single shot. Divide the scores by the batch size for a
+ * time per operation.
+ * <p>
+ * The whole matrix takes hours; narrow it with -p, for example "-p size=1000,100000 -p operation=deleteMin".
+ * "-rf json -rff results.json" exports the results. Combinations that HeapBenchmarkSuite does not support
+ * (PriorityQueue's linear decreaseKey and delete above 1e4, PairingHeap's kMin) fail in their setup, and JMH
+ * moves on to the next one. The 1e7 heaps need a few GB, see -jvmArgsAppend.
+ * <p>
+ * The heaps live in the default package, which a named package cannot import, so the suite is reached by
+ * reflection once per trial and called through JDK functional interfaces.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class HeapOperations {
+    @Param({"FibonacciHeap", "PairingHeap", "Heap(TreeSet)", "PriorityQueue"})
+    public String implementation;
+
+    @Param({"insert", "deleteMin", "decreaseKey", "delete", "meld", "kMin"})
+    public String operation;
+
+    @Param({"random", "ascending", "descending", "clustered"})
+    public String distribution;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Supplier<IntSupplier> preparer;
+    private IntSupplier batch;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void trial() throws ReflectiveOperationException {
+        try {
+            preparer = (Supplier<IntSupplier>) Class.forName("HeapBenchmarkSuite")
+                    .getMethod("preparer", String.class, String.class, String.class, int.class)
+                    .invoke(null, implementation, operation, distribution, size);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();  // an unsupported combination
+            }
+            throw e;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() {
+        batch = preparer.get();
+    }
+
+    @Benchmark
+    public int run() {
+        return batch.getAsInt();
+    }
+}
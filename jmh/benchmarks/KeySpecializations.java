@@ -0,0 +1,54 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH version of HeapBenchmark.keySpecializations: sorts the same random keys through FibonacciHeap (int keys),
+ * LongFibonacciHeap, DoubleFibonacciHeap and ComparatorFibonacciHeap&lt;Long&gt;.
+ * <p>
+ * JMH runs every implementation in forks of its own, so the JIT profile of one heap never sees the others.
+ * The score is the time of one whole sort; divide it by size for a time per insert+deleteMin.
+ * <p>
+ * The heaps live in the default package, which a named package cannot import, so the sort is built by
+ * reflection once per trial (see HeapBenchmark.sorter).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(value = 2, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class KeySpecializations {
+    @Param({"FibonacciHeap(int)", "LongFibonacciHeap", "DoubleFibonacciHeap", "ComparatorFibonacciHeap<Long>"})
+    public String implementation;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private Runnable sort;
+
+    @Setup(Level.Trial)
+    public void trial() throws ReflectiveOperationException {
+        sort = (Runnable) Class.forName("HeapBenchmark")
+                .getMethod("sorter", String.class, int.class)
+                .invoke(null, implementation, size);
+    }
+
+    @Benchmark
+    public void sort() {
+        sort.run();
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * AdversarialChains
+ * <p>
+ * Builds FibonacciHeap shapes that are the worst case for cascading cuts.
+ * <p>
+ * markedChain turns an empty heap into a single tree whose root sits on top of a path of depth marked nodes,
+ * using O(depth) inserts, deleteMins and deletes. One decreaseKey of the returned node then cuts the whole
+ * path: depth + 1 cuts in a single call.
+ * <p>
+ * Every round keeps the heap a single tree of rank 2, whose root r has a leaf child (the spare) and a child on
+ * top of the chain. Four keys smaller than r's key are inserted together with an even smaller dummy, and
+ * deleting the dummy links them into a rank 2 tree rooted at the smallest of them, p, which is then linked
+ * above r. Deleting the rank 1 child of p leaves p with r and a new spare, and deleting the spare of r marks r,
+ * which is now one more marked node on the chain.
+ */
+public class AdversarialChains {
+
+    private AdversarialChains() {
+    }
+
+    /**
+     * @param heap  an empty heap that consolidates eagerly.
+     * @param depth the number of marked nodes above the returned node.
+     * @return the node whose decreaseKey (by any delta that makes it smaller than its parent) makes
+     * depth + 1 cuts.
+     */
+    public static <V> FibonacciHeap.HeapNode<V> markedChain(FibonacciHeap<V> heap, int depth) {
+        if (!heap.isEmpty() || heap.getConsolidationBudget() != 0) {
+            throw new IllegalArgumentException("markedChain needs an empty heap that consolidates eagerly");
+        }
+        if (depth < 0 || depth > (Integer.MAX_VALUE - 10) / 5) {
+            throw new IllegalArgumentException("depth out of range: " + depth);
+        }
+        int key = 0;
+        FibonacciHeap.HeapNode<V> root = rankTwoTree(heap, key);
+        FibonacciHeap.HeapNode<V> chainTop = childOfRank(root, 1);
+        for (int round = 0; round < depth; round++) {
+            key -= 5;
+            FibonacciHeap.HeapNode<V> spare = childOfRank(root, 0);
+            FibonacciHeap.HeapNode<V> p = rankTwoTree(heap, key);
+            // the two rank 2 trees were linked, p is the root now and root is its child of rank 2.
+            FibonacciHeap.HeapNode<V> rankOneChild = childOfRank(p, 1);
+            FibonacciHeap.HeapNode<V> grandChild = rankOneChild.getChild();
+            heap.delete(rankOneChild);
+            heap.delete(grandChild);
+            heap.delete(spare);  // root is not a root anymore, so losing a child marks it
+            root = p;
+        }
+        return chainTop;
+    }
+
+    /**
+     * inserts four keys below key and a smaller dummy, and deletes the dummy, so the four keys are linked
+     * into a rank 2 tree (and linked with the tree already in the heap, if any).
+     *
+     * @return the root of the heap.
+     */
+    private static <V> FibonacciHeap.HeapNode<V> rankTwoTree(FibonacciHeap<V> heap, int key) {
+        for (int i = 1; i <= 5; i++) {
+            heap.insert(key - i);
+        }
+        heap.deleteMin();
+        return heap.findMin();
+    }
+
+    private static <V> FibonacciHeap.HeapNode<V> childOfRank(FibonacciHeap.HeapNode<V> parent, int rank) {
+        FibonacciHeap.HeapNode<V> child = parent.getChild();
+        do {
+            if (child.getRank() == rank) {
+                return child;
+            }
+            child = child.getNext();
+        } while (child != parent.getChild());
+        throw new IllegalStateException("no child of rank " + rank);
+    }
+}
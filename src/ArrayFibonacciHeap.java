@@ -0,0 +1,628 @@
+import java.util.Arrays;
+
+/**
+ * ArrayFibonacciHeap
+ * <p>
+ * An object-free implementation of a Fibonacci Heap over integers.
+ * <p>
+ * Instead of allocating a HeapNode per element, every node is an int handle into a set of
+ * parallel arrays (keys, ranks, marks and the child/next/prev/parent links). The arrays grow
+ * by doubling when they are full, and handles of deleted nodes are recycled by later inserts,
+ * so a handle must not be used after the node it refers to was deleted.
+ * <p>
+ * The operations and their complexities are the same as in {@link FibonacciHeap}, except for
+ * meld which has to copy the arrays of the other heap.
+ */
+public class ArrayFibonacciHeap {
+    /**
+     * the "null" handle.
+     */
+    public static final int NIL = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] ranks;
+    private boolean[] marks;
+    private int[] child, next, prev, parent;
+    private int first = NIL;
+    private int min = NIL;
+    private int freeList = NIL;  // deleted handles, chained through next[]
+    private int allocated = 0;   // number of handles ever handed out (live + free)
+    private int size = 0;
+    private int countMarks = 0;
+    private int countHeapTrees = 0;
+    // consolidation buckets, kept between calls. bucketsLimit is the largest size they can serve.
+    private int[] buckets = new int[0];
+    private int bucketsLimit = 0;
+    private int maxBucket = -1;
+    private final HeapMetrics metrics = new HeapMetrics();
+    // links and cuts of the running operation, handed to metrics once the operation is done.
+    private int pendingLinks = 0, pendingCuts = 0;
+
+    public ArrayFibonacciHeap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * creates an empty heap whose arrays can hold initialCapacity nodes before growing.
+     *
+     * @param initialCapacity the number of nodes to reserve room for.
+     */
+    public ArrayFibonacciHeap(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        keys = new int[capacity];
+        ranks = new int[capacity];
+        marks = new boolean[capacity];
+        child = new int[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        parent = new int[capacity];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCountMarks() {
+        return countMarks;
+    }
+
+    public int getCountHeapTrees() {
+        return countHeapTrees;
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    /**
+     * @return the number of nodes the arrays can currently hold without growing.
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    public int getKey(int handle) {
+        return keys[handle];
+    }
+
+    public int getRank(int handle) {
+        return ranks[handle];
+    }
+
+    public boolean getMarked(int handle) {
+        return marks[handle];
+    }
+
+    public int getChild(int handle) {
+        return child[handle];
+    }
+
+    public int getNext(int handle) {
+        return next[handle];
+    }
+
+    public int getPrev(int handle) {
+        return prev[handle];
+    }
+
+    public int getParent(int handle) {
+        return parent[handle];
+    }
+
+    /**
+     * Public boolean isEmpty()
+     * <p>
+     * Returns true if and only if the heap is empty.
+     * complexity: O(1)
+     */
+    public boolean isEmpty() {
+        return first == NIL;
+    }
+
+    /**
+     * public int size()
+     * <p>
+     * Returns the number of elements in the heap.
+     * complexity: O(1)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * public int findMin()
+     * <p>
+     * Returns the handle of the node whose key is minimal, or NIL if the heap is empty.
+     * complexity O(1)
+     */
+    public int findMin() {
+        return min;
+    }
+
+    /**
+     * public int insert(int key)
+     * <p>
+     * Creates a node which contains the given key, and inserts it into the heap.
+     * <p>
+     * Returns the handle of the newly created node.
+     * complexity: amortized O(1) (the arrays are doubled when full)
+     */
+    public int insert(int key) {
+        long start = metrics.start();
+        int x = allocate(key);
+        countHeapTrees += 1;
+        size += 1;
+        if (isEmpty()) {
+            next[x] = x;
+            prev[x] = x;
+            first = x;
+            min = x;
+        } else {
+            addSibling(first, x);  // insert new node to the left of first
+            first = x;
+            updateMin(x);
+        }
+        metrics.insert(start);
+        return x;
+    }
+
+    /**
+     * public HeapMetrics metrics()
+     * <p>
+     * Returns the operation counters and sampled latencies of this heap (see FibonacciHeap.metrics()).
+     */
+    public HeapMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * public void deleteMin()
+     * <p>
+     * Deletes the node containing the minimum key.
+     * complexity: W.C: O(n), amortized O(logn)
+     */
+    public void deleteMin() {
+        long start = metrics.start();
+        removeMin();
+        metrics.deleteMin(start);
+    }
+
+    private void removeMin() {
+        if (size > 1) {
+            size -= 1;
+            countHeapTrees -= 1;
+            int x = min;
+            int c = child[x];
+            if (c != NIL) {
+                // splice the children of min instead of min and make them roots.
+                int rightMostChild = prev[c];
+                prev[c] = prev[x];
+                next[prev[c]] = c;
+                next[rightMostChild] = next[x];
+                prev[next[rightMostChild]] = rightMostChild;
+                int tmp = c;
+                do {
+                    parent[tmp] = NIL;
+                    countHeapTrees += 1;
+                    if (marks[tmp]) {
+                        marks[tmp] = false;
+                        countMarks -= 1;
+                    }
+                    tmp = next[tmp];
+                } while (tmp != c);
+            } else {
+                next[prev[x]] = next[x];
+                prev[next[x]] = prev[x];
+            }
+            if (first == x) {
+                first = next[first];
+            }
+            release(x);
+            int rootListLength = countHeapTrees;
+            consolidate(first);
+            metrics.consolidated(rootListLength, pendingLinks);
+            pendingLinks = 0;
+        } else if (size == 1) {
+            release(min);
+            min = NIL;
+            first = NIL;
+            size = 0;
+            countHeapTrees = 0;
+            countMarks = 0;
+        }
+    }
+
+    private void consolidate(int firstNode) {
+        toBuckets(firstNode);
+        fromBuckets();
+    }
+
+    private void toBuckets(int x) {
+        ensureBuckets(size);
+        next[prev[x]] = NIL;
+        while (x != NIL) {
+            int y = x;
+            x = next[x];
+            while (buckets[ranks[y]] != NIL) {
+                y = link(y, buckets[ranks[y]]);
+                countHeapTrees -= 1;
+                buckets[ranks[y] - 1] = NIL;
+            }
+            buckets[ranks[y]] = y;
+            maxBucket = Math.max(maxBucket, ranks[y]);
+        }
+    }
+
+    private void fromBuckets() {
+        countHeapTrees = 0;
+        first = NIL;
+        int curr = NIL;
+        for (int i = 0; i <= maxBucket; i++) {
+            int tree = buckets[i];
+            if (tree != NIL) {
+                buckets[i] = NIL;
+                countHeapTrees += 1;
+                if (first != NIL) {
+                    next[curr] = tree;
+                    prev[tree] = curr;
+                    curr = tree;
+                    updateMin(tree);
+                } else {
+                    first = tree;
+                    min = first;
+                    curr = tree;
+                }
+            }
+        }
+        maxBucket = -1;
+        if (first != NIL) {
+            prev[first] = curr;
+            next[curr] = first;
+        }
+    }
+
+    /**
+     * Makes sure there is a bucket for every rank a tree can have in a heap of n nodes
+     * (see FibonacciHeap.maxRank).
+     */
+    private void ensureBuckets(int n) {
+        if (n > bucketsLimit) {
+            int oldLength = buckets.length;
+            int length = FibonacciHeap.maxRank(n) + 1;
+            buckets = Arrays.copyOf(buckets, length);
+            Arrays.fill(buckets, oldLength, length, NIL);
+            bucketsLimit = (int) Math.min(FibonacciHeap.minSizeOfRank(length) - 1, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * public void meld (ArrayFibonacciHeap heap2)
+     * <p>
+     * Melds heap2 with the current heap. The nodes of heap2 are copied into this heap's arrays,
+     * so every handle h of heap2 becomes h + offset, where offset is the returned value.
+     * heap2 is left empty.
+     * complexity: O(number of handles allocated by heap2)
+     *
+     * @return the offset to add to handles of heap2.
+     */
+    public int meld(ArrayFibonacciHeap heap2) {
+        int offset = allocated;
+        if (heap2 == null || heap2 == this || heap2.allocated == 0) {
+            return offset;
+        }
+        int count = heap2.allocated;
+        ensureCapacity(allocated + count);
+        System.arraycopy(heap2.keys, 0, keys, offset, count);
+        System.arraycopy(heap2.ranks, 0, ranks, offset, count);
+        System.arraycopy(heap2.marks, 0, marks, offset, count);
+        shiftCopy(heap2.child, child, offset, count);
+        shiftCopy(heap2.next, next, offset, count);
+        shiftCopy(heap2.prev, prev, offset, count);
+        shiftCopy(heap2.parent, parent, offset, count);
+        allocated += count;
+        // chain heap2's free handles in front of our free list.
+        int h = heap2.freeList;
+        while (h != NIL) {
+            int nextFree = heap2.next[h];
+            next[h + offset] = freeList;
+            freeList = h + offset;
+            h = nextFree;
+        }
+        if (!heap2.isEmpty()) {
+            int heap2First = heap2.first + offset;
+            int heap2Min = heap2.min + offset;
+            if (isEmpty()) {
+                first = heap2First;
+                min = heap2Min;
+            } else {
+                int heap2Last = prev[heap2First];
+                next[heap2Last] = first;
+                next[prev[first]] = heap2First;
+                prev[heap2First] = prev[first];
+                prev[first] = heap2Last;
+                updateMin(heap2Min);
+            }
+            size += heap2.size;
+            countHeapTrees += heap2.countHeapTrees;
+            countMarks += heap2.countMarks;
+        }
+        heap2.clear();
+        return offset;
+    }
+
+    private static void shiftCopy(int[] src, int[] dest, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            dest[offset + i] = src[i] == NIL ? NIL : src[i] + offset;
+        }
+    }
+
+    private void clear() {
+        first = NIL;
+        min = NIL;
+        freeList = NIL;
+        allocated = 0;
+        size = 0;
+        countMarks = 0;
+        countHeapTrees = 0;
+    }
+
+    /**
+     * public int[] countersRep()
+     * <p>
+     * Return an array of counters. The i-th entry contains the number of trees of order i in the heap.
+     * Note: The size of the array depends on the maximum order of a tree, and an empty heap returns an empty array.
+     */
+    public int[] countersRep() {
+        if (isEmpty()) {
+            return new int[0];
+        }
+        int heapOrder = 0;
+        int x = first;
+        do {
+            heapOrder = Math.max(heapOrder, ranks[x]);
+            x = next[x];
+        } while (x != first);
+        int[] array = new int[heapOrder + 1];
+        do {
+            array[ranks[x]] += 1;
+            x = next[x];
+        } while (x != first);
+        return array;
+    }
+
+    /**
+     * public void delete(int x)
+     * <p>
+     * Deletes the node x from the heap.
+     * It is assumed that x indeed belongs to the heap.
+     * x is cut to the root list and removed as the minimum, without changing its key.
+     */
+    public void delete(int x) {
+        if (parent[x] != NIL) {
+            cascadingCut(x, parent[x]);
+        }
+        metrics.delete(pendingCuts);
+        pendingCuts = 0;
+        min = x;
+        removeMin();
+    }
+
+    /**
+     * public void decreaseKey(int x, int delta)
+     * <p>
+     * Decreases the key of the node x by a non-negative value delta. The structure of the heap is updated
+     * to reflect this change, and the cascading cuts procedure is applied if needed.
+     * complexity: amortized O(1)
+     */
+    public void decreaseKey(int x, int delta) {
+        long start = metrics.start();
+        keys[x] = keys[x] - delta;
+        updateMin(x);
+        if (parent[x] != NIL && keys[parent[x]] > keys[x]) {
+            cascadingCut(x, parent[x]);
+        }
+        metrics.decreaseKey(start, pendingCuts);
+        pendingCuts = 0;
+    }
+
+    private void cut(int x, int y) {
+        pendingCuts += 1;
+        countHeapTrees += 1;
+        parent[x] = NIL;
+        if (marks[x]) {
+            marks[x] = false;
+            countMarks -= 1;
+        }
+        ranks[y] -= 1;
+        if (next[x] == x) {
+            child[y] = NIL;
+        } else {
+            next[prev[x]] = next[x];
+            prev[next[x]] = prev[x];
+            if (child[y] == x) {
+                child[y] = next[x];
+            }
+        }
+        addSibling(first, x);
+    }
+
+    /**
+     * cuts x from its parent y, and keeps cutting marked ancestors, iteratively (see FibonacciHeap).
+     * complexity: amortized O(1). W.C O(depth of x).
+     */
+    private void cascadingCut(int x, int y) {
+        cut(x, y);
+        while (parent[y] != NIL && marks[y]) {
+            int p = parent[y];
+            cut(y, p);
+            y = p;
+        }
+        if (parent[y] != NIL) {
+            marks[y] = true;
+            countMarks += 1;
+        }
+    }
+
+    /**
+     * public int potential()
+     * <p>
+     * This function returns the current potential of the heap, which is:
+     * Potential = #trees + 2*#marked
+     */
+    public int potential() {
+        return countHeapTrees + 2 * countMarks;
+    }
+
+    /**
+     * Links the two given roots preserving heap invariant.
+     *
+     * @return the parent of the new linked tree
+     */
+    private int link(int x, int y) {
+        int c, p;
+        if (keys[x] < keys[y]) {
+            c = y;
+            p = x;
+        } else {
+            c = x;
+            p = y;
+        }
+        parent[c] = p;
+        if (child[p] == NIL) {
+            next[c] = c;
+            prev[c] = c;
+            ranks[p] += 1;
+        } else {
+            addSibling(child[p], c);
+        }
+        child[p] = c;
+        pendingLinks += 1;
+        return p;
+    }
+
+    /**
+     * public static int[] kMin(ArrayFibonacciHeap H, int k)
+     * <p>
+     * This static function returns the min(k, size) smallest elements in a Fibonacci heap, without changing H.
+     * The candidates for the next minimum (first all the roots) are kept in a binary heap of handles ordered
+     * by their keys in H.
+     * complexity: O(#trees + k*deg(H)*log(#trees + k*deg(H))).
+     */
+    public static int[] kMin(ArrayFibonacciHeap H, int k) {
+        if (H == null || H.isEmpty() || k <= 0) {
+            return new int[0];
+        }
+        int[] res = new int[Math.min(k, H.size)];
+        int[] candidates = new int[Math.max(H.countHeapTrees, DEFAULT_CAPACITY)];
+        int count = 0;
+        int root = H.first;
+        do {
+            candidates[count++] = root;
+            root = H.next[root];
+        } while (root != H.first);
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            H.siftDown(candidates, count, i);
+        }
+        for (int i = 0; i < res.length; i++) {
+            int x = candidates[0];
+            res[i] = H.keys[x];
+            candidates[0] = candidates[--count];
+            H.siftDown(candidates, count, 0);
+            int c = H.child[x];
+            if (c != NIL) {
+                int tmp = c;
+                do {
+                    if (count == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, count * 2);
+                    }
+                    candidates[count] = tmp;
+                    H.siftUp(candidates, count++);
+                    tmp = H.next[tmp];
+                } while (tmp != c);
+            }
+        }
+        return res;
+    }
+
+    private void siftUp(int[] candidates, int i) {
+        int x = candidates[i];
+        while (i > 0 && keys[candidates[(i - 1) / 2]] > keys[x]) {
+            candidates[i] = candidates[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        candidates[i] = x;
+    }
+
+    private void siftDown(int[] candidates, int count, int i) {
+        int x = candidates[i];
+        while (2 * i + 1 < count) {
+            int c = 2 * i + 1;
+            if (c + 1 < count && keys[candidates[c + 1]] < keys[candidates[c]]) {
+                c += 1;
+            }
+            if (keys[candidates[c]] >= keys[x]) {
+                break;
+            }
+            candidates[i] = candidates[c];
+            i = c;
+        }
+        candidates[i] = x;
+    }
+
+    private void updateMin(int x) {
+        if (keys[x] < keys[min]) {
+            min = x;
+        }
+    }
+
+    /**
+     * Adds s to the left of the node x (in x's sibling list).
+     * complexity: O(1);
+     */
+    private void addSibling(int x, int s) {
+        prev[s] = prev[x];
+        next[prev[x]] = s;
+        if (parent[x] != NIL) {
+            ranks[parent[x]] += 1;
+        }
+        next[s] = x;
+        prev[x] = s;
+        parent[s] = parent[x];
+    }
+
+    private int allocate(int key) {
+        int x;
+        if (freeList != NIL) {
+            x = freeList;
+            freeList = next[x];
+        } else {
+            ensureCapacity(allocated + 1);
+            x = allocated++;
+        }
+        keys[x] = key;
+        ranks[x] = 0;
+        marks[x] = false;
+        child[x] = NIL;
+        parent[x] = NIL;
+        return x;
+    }
+
+    private void release(int x) {
+        next[x] = freeList;
+        freeList = x;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int newCapacity = Math.max(capacity, keys.length * 2);
+            keys = Arrays.copyOf(keys, newCapacity);
+            ranks = Arrays.copyOf(ranks, newCapacity);
+            marks = Arrays.copyOf(marks, newCapacity);
+            child = Arrays.copyOf(child, newCapacity);
+            next = Arrays.copyOf(next, newCapacity);
+            prev = Arrays.copyOf(prev, newCapacity);
+            parent = Arrays.copyOf(parent, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * decreaseKey latency on the adversarial marked chains of AdversarialChains.
+ * <p>
+ * Run with "java CascadingCutBenchmark [maxDepth]". The JIT is warmed up on short chains first. Then, for every
+ * chain depth, many chains are built and the decreaseKey that cuts each of them is timed, on
+ * <ul>
+ * <li>a platform thread with the default stack,</li>
+ * <li>a platform thread with a 256KB stack, a quarter of the 1MB default on 64-bit Linux,</li>
+ * <li>a virtual thread, when the JDK has them (Thread.ofVirtual, looked up by reflection since the code base
+ * targets Java 17).</li>
+ * </ul>
+ * The report gives p50, p90 and max of the chains per depth, and the time per cut at the median, which shows
+ * that the cascade stays linear in the depth and never overflows the stack.
+ */
+public class CascadingCutBenchmark {
+    static final long SMALL_STACK = 256 * 1024;
+    static final int WARMUP_DEPTH = 1000;
+    static final int WARMUP_CHAINS = 2000;
+    static final long NODES_PER_DEPTH = 10_000_000;  // chains per depth = NODES_PER_DEPTH / depth
+    static final int MIN_CHAINS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Method ofVirtual = virtualThreadBuilder();
+        if (ofVirtual == null) {
+            System.out.println("virtual threads are not available on Java " + Runtime.version().feature());
+        }
+        cutChains(WARMUP_DEPTH, WARMUP_CHAINS, new long[WARMUP_CHAINS]);
+        for (int depth = 1000; depth <= maxDepth; depth *= 10) {
+            report("platform", depth, task -> startPlatform(task, 0));
+            report("platform 256KB stack", depth, task -> startPlatform(task, SMALL_STACK));
+            if (ofVirtual != null) {
+                report("virtual", depth, task -> startVirtual(ofVirtual, task));
+            }
+        }
+    }
+
+    interface Starter {
+        Thread start(Runnable task) throws Exception;
+    }
+
+    static void report(String kind, int depth, Starter starter) throws Exception {
+        int chains = (int) Math.max(MIN_CHAINS, NODES_PER_DEPTH / depth);
+        long[] nanos = new long[chains];
+        long[] cuts = new long[1];
+        Throwable[] failure = new Throwable[1];
+        Thread thread = starter.start(() -> {
+            try {
+                cuts[0] = cutChains(depth, chains, nanos);
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        });
+        thread.join();
+        if (failure[0] != null) {
+            System.out.printf(Locale.ROOT, "%-22s depth=%-8d failed: %s%n", kind, depth, failure[0]);
+            return;
+        }
+        Arrays.sort(nanos);
+        long median = nanos[chains / 2];
+        System.out.printf(Locale.ROOT,
+                "%-22s depth=%-8d chains=%-6d cuts=%-8d p50=%,dns p90=%,dns max=%,dns (%.1fns per cut)%n",
+                kind, depth, chains, cuts[0], median, nanos[(int) (chains * 0.9)], nanos[chains - 1],
+                (double) median / cuts[0]);
+    }
+
+    /**
+     * builds the given number of chains of the depth, one at a time, and times the decreaseKey that cuts each.
+     *
+     * @return the number of cuts of one chain.
+     */
+    static long cutChains(int depth, int chains, long[] nanos) {
+        long cuts = 0;
+        for (int i = 0; i < chains; i++) {
+            FibonacciHeap<Void> heap = new FibonacciHeap<>();
+            FibonacciHeap.HeapNode<Void> bottom = AdversarialChains.markedChain(heap, depth);
+            long before = heap.metrics().cuts();
+            long start = System.nanoTime();
+            heap.decreaseKey(bottom, 1 << 30);
+            nanos[i] = System.nanoTime() - start;
+            cuts = heap.metrics().cuts() - before;
+        }
+        return cuts;
+    }
+
+    static Thread startPlatform(Runnable task, long stackSize) {
+        Thread thread = new Thread(null, task, "cascading-cut", stackSize);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * @return Thread.ofVirtual, or null if this JDK has no (enabled) virtual threads.
+     */
+    static Method virtualThreadBuilder() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            ofVirtual.invoke(null);  // throws on JDKs where virtual threads are a disabled preview feature
+            return ofVirtual;
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    static Thread startVirtual(Method ofVirtual, Runnable task) throws Exception {
+        Object builder = ofVirtual.invoke(null);
+        Method start = Class.forName("java.lang.Thread$Builder").getMethod("start", Runnable.class);
+        return (Thread) start.invoke(builder, task);
+    }
+}
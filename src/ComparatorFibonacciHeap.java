@@ -0,0 +1,411 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * ComparatorFibonacciHeap
+ * <p>
+ * A Fibonacci Heap over keys of any type K ordered by a Comparator, with a value of type V per node.
+ * <p>
+ * This is the general version of {@link FibonacciHeap}, {@link LongFibonacciHeap} and
+ * {@link DoubleFibonacciHeap}. Prefer those for int, long and double keys: here every comparison
+ * is a Comparator call and primitive keys are boxed.
+ */
+public class ComparatorFibonacciHeap<K, V> {
+    private HeapNode<K, V> first;
+    private HeapNode<K, V> min;
+    private int size = 0;
+    private int countMarks = 0;
+    private int countHeapTrees = 0;
+    private HeapNode<K, V>[] buckets = newArray(0);
+    private int bucketsLimit = 0;
+    private int maxBucket = -1;
+    private final Comparator<? super K> comparator;
+
+    /**
+     * creates an empty heap ordered by the given comparator.
+     */
+    public ComparatorFibonacciHeap(Comparator<? super K> comparator) {
+        this.comparator = Objects.requireNonNull(comparator);
+    }
+
+    /**
+     * creates an empty heap ordered by the natural order of the keys.
+     */
+    public static <K extends Comparable<? super K>, V> ComparatorFibonacciHeap<K, V> naturalOrder() {
+        return new ComparatorFibonacciHeap<>(Comparator.naturalOrder());
+    }
+
+    public int getCountMarks() {
+        return countMarks;
+    }
+
+    public int getCountHeapTrees() {
+        return countHeapTrees;
+    }
+
+    public HeapNode<K, V> getFirst() {
+        return first;
+    }
+
+    /**
+     * Returns true if and only if the heap is empty.
+     * complexity: O(1)
+     */
+    public boolean isEmpty() {
+        return first == null;
+    }
+
+    /**
+     * Returns the number of elements in the heap.
+     * complexity: O(1)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the node of the heap whose key is minimal, or null if the heap is empty.
+     * complexity O(1)
+     */
+    public HeapNode<K, V> findMin() {
+        return min;
+    }
+
+    /**
+     * Returns the value of the node whose key is minimal, or null if the heap is empty.
+     * complexity O(1)
+     */
+    public V peek() {
+        return min == null ? null : min.value;
+    }
+
+    public HeapNode<K, V> insert(K key) {
+        return insert(key, null);
+    }
+
+    /**
+     * Creates a node which contains the given key and value, and inserts it into the heap.
+     *
+     * @return the newly created node, which is the handle for decreaseKey and delete.
+     * complexity: O(1)
+     */
+    public HeapNode<K, V> insert(K key, V value) {
+        HeapNode<K, V> x = new HeapNode<>(key, value);
+        countHeapTrees += 1;
+        size += 1;
+        if (isEmpty()) {
+            x.next = x;
+            x.prev = x;
+            min = x;
+        } else {
+            addSibling(first, x);
+            updateMin(x);
+        }
+        first = x;
+        return x;
+    }
+
+    /**
+     * Deletes the node containing the minimum key and returns its value.
+     * Returns null if the heap is empty.
+     * complexity: W.C: O(n), amortized O(logn)
+     */
+    public V poll() {
+        if (min == null) {
+            return null;
+        }
+        V value = min.value;
+        deleteMin();
+        return value;
+    }
+
+    /**
+     * Deletes the node containing the minimum key.
+     * complexity: W.C: O(n), amortized O(logn)
+     */
+    public void deleteMin() {
+        if (size > 1) {
+            size -= 1;
+            countHeapTrees -= 1;
+            HeapNode<K, V> c = min.child;
+            if (c != null) {
+                // splice the children of min instead of min and make them roots.
+                HeapNode<K, V> rightMostChild = c.prev;
+                c.prev = min.prev;
+                c.prev.next = c;
+                rightMostChild.next = min.next;
+                rightMostChild.next.prev = rightMostChild;
+                HeapNode<K, V> tmp = c;
+                do {
+                    tmp.parent = null;
+                    countHeapTrees += 1;
+                    if (tmp.mark) {
+                        tmp.mark = false;
+                        countMarks -= 1;
+                    }
+                    tmp = tmp.next;
+                } while (tmp != c);
+            } else {
+                min.next.prev = min.prev;
+                min.prev.next = min.next;
+            }
+            if (first == min) {
+                first = min.next;
+            }
+            consolidate(first);
+        } else {
+            min = null;
+            first = null;
+            size = 0;
+            countHeapTrees = 0;
+            countMarks = 0;
+        }
+    }
+
+    private void consolidate(HeapNode<K, V> x) {
+        if (size > bucketsLimit) {
+            buckets = Arrays.copyOf(buckets, FibonacciHeap.maxRank(size) + 1);
+            bucketsLimit = (int) Math.min(FibonacciHeap.minSizeOfRank(buckets.length) - 1, Integer.MAX_VALUE);
+        }
+        x.prev.next = null;
+        while (x != null) {
+            HeapNode<K, V> y = x;
+            x = x.next;
+            while (buckets[y.rank] != null) {
+                y = link(y, buckets[y.rank]);
+                countHeapTrees -= 1;
+                buckets[y.rank - 1] = null;
+            }
+            buckets[y.rank] = y;
+            maxBucket = Math.max(maxBucket, y.rank);
+        }
+        countHeapTrees = 0;
+        first = null;
+        HeapNode<K, V> curr = null;
+        for (int i = 0; i <= maxBucket; i++) {
+            HeapNode<K, V> tree = buckets[i];
+            if (tree != null) {
+                buckets[i] = null;
+                countHeapTrees += 1;
+                if (first != null) {
+                    curr.next = tree;
+                    tree.prev = curr;
+                    updateMin(tree);
+                } else {
+                    first = tree;
+                    min = tree;
+                }
+                curr = tree;
+            }
+        }
+        maxBucket = -1;
+        first.prev = curr;
+        curr.next = first;
+    }
+
+    /**
+     * Melds heap2 with the current heap by concatenating its root list. heap2 must not be used afterwards.
+     * complexity: O(1)
+     */
+    public void meld(ComparatorFibonacciHeap<K, V> heap2) {
+        if (heap2 == null || heap2.isEmpty()) {
+            return;
+        }
+        if (isEmpty()) {
+            first = heap2.first;
+            min = heap2.min;
+        } else {
+            HeapNode<K, V> heap2Last = heap2.first.prev;
+            heap2Last.next = first;
+            first.prev.next = heap2.first;
+            heap2.first.prev = first.prev;
+            first.prev = heap2Last;
+            updateMin(heap2.min);
+        }
+        size += heap2.size;
+        countHeapTrees += heap2.countHeapTrees;
+        countMarks += heap2.countMarks;
+    }
+
+    /**
+     * Decreases the key of the node x to newKey, which must not be greater than the current key.
+     * complexity: amortized O(1)
+     *
+     * @throws IllegalArgumentException if newKey is greater than the current key of x.
+     */
+    public void decreaseKey(HeapNode<K, V> x, K newKey) {
+        if (comparator.compare(newKey, x.key) > 0) {
+            throw new IllegalArgumentException("new key is greater than the current key");
+        }
+        x.key = newKey;
+        updateMin(x);
+        if (x.parent != null && comparator.compare(x.parent.key, x.key) > 0)
+            cascadingCut(x, x.parent);
+    }
+
+    /**
+     * Deletes the node x from the heap, which is assumed to belong to it.
+     * x is cut to the root list and removed as the minimum, without changing its key.
+     */
+    public void delete(HeapNode<K, V> x) {
+        if (x.parent != null)
+            cascadingCut(x, x.parent);
+        min = x;
+        deleteMin();
+    }
+
+    /**
+     * cuts x from its parent y, and keeps cutting marked ancestors, iteratively (see FibonacciHeap).
+     */
+    private void cascadingCut(HeapNode<K, V> x, HeapNode<K, V> y) {
+        cut(x, y);
+        while (y.parent != null && y.mark) {
+            HeapNode<K, V> parent = y.parent;
+            cut(y, parent);
+            y = parent;
+        }
+        if (y.parent != null) {
+            y.mark = true;
+            countMarks += 1;
+        }
+    }
+
+    private void cut(HeapNode<K, V> x, HeapNode<K, V> y) {
+        countHeapTrees += 1;
+        x.parent = null;
+        if (x.mark) {
+            x.mark = false;
+            countMarks -= 1;
+        }
+        y.rank -= 1;
+        if (x.next == x) {
+            y.child = null;
+        } else {
+            x.prev.next = x.next;
+            x.next.prev = x.prev;
+            if (x == y.child)
+                y.child = x.next;
+        }
+        addSibling(first, x);
+    }
+
+    private HeapNode<K, V> link(HeapNode<K, V> x, HeapNode<K, V> y) {
+        HeapNode<K, V> c, p;
+        if (comparator.compare(x.key, y.key) < 0) {
+            c = y;
+            p = x;
+        } else {
+            c = x;
+            p = y;
+        }
+        c.parent = p;
+        if (p.child == null) {
+            c.next = c;
+            c.prev = c;
+            p.rank += 1;
+        } else {
+            addSibling(p.child, c);
+        }
+        p.child = c;
+        return p;
+    }
+
+    /**
+     * Adds s to the left of x in x's sibling list.
+     */
+    private void addSibling(HeapNode<K, V> x, HeapNode<K, V> s) {
+        s.prev = x.prev;
+        x.prev.next = s;
+        if (x.parent != null) {
+            x.parent.rank += 1;
+        }
+        s.next = x;
+        x.prev = s;
+        s.parent = x.parent;
+    }
+
+    private void updateMin(HeapNode<K, V> x) {
+        if (comparator.compare(x.key, min.key) < 0) {
+            min = x;
+        }
+    }
+
+    /**
+     * Return an array of counters. The i-th entry contains the number of trees of order i in the heap.
+     */
+    public int[] countersRep() {
+        if (isEmpty()) {
+            return new int[0];
+        }
+        int heapOrder = 0;
+        HeapNode<K, V> x = first;
+        do {
+            heapOrder = Math.max(heapOrder, x.rank);
+            x = x.next;
+        } while (x != first);
+        int[] array = new int[heapOrder + 1];
+        do {
+            array[x.rank] += 1;
+            x = x.next;
+        } while (x != first);
+        return array;
+    }
+
+    /**
+     * Potential = #trees + 2*#marked
+     */
+    public int potential() {
+        return countHeapTrees + 2 * countMarks;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> HeapNode<K, V>[] newArray(int length) {
+        return (HeapNode<K, V>[]) new HeapNode<?, ?>[length];
+    }
+
+    public static class HeapNode<K, V> {
+        private K key;
+        private int rank;
+        private boolean mark;
+        private HeapNode<K, V> child, next, prev, parent;
+        private V value;
+
+        HeapNode(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public void setValue(V value) {
+            this.value = value;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        public boolean getMarked() {
+            return mark;
+        }
+
+        public HeapNode<K, V> getParent() {
+            return parent;
+        }
+
+        public HeapNode<K, V> getNext() {
+            return next;
+        }
+
+        public HeapNode<K, V> getChild() {
+            return child;
+        }
+    }
+}
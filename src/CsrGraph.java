@@ -0,0 +1,138 @@
+import java.util.Random;
+
+/**
+ * CsrGraph
+ * <p>
+ * A weighted directed graph in compressed sparse row form: the out-edges of vertex v are
+ * targets[offsets[v]] .. targets[offsets[v + 1] - 1], with the matching non-negative weights.
+ * Vertices are 0 .. n-1. An undirected graph stores every edge in both directions.
+ */
+public class CsrGraph {
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private volatile Integer[] vertices;  // boxed once, see vertices()
+
+    /**
+     * wraps ready CSR arrays (they are not copied).
+     */
+    public CsrGraph(int[] offsets, int[] targets, int[] weights) {
+        if (offsets.length == 0 || targets.length != weights.length || offsets[offsets.length - 1] != targets.length) {
+            throw new IllegalArgumentException("inconsistent CSR arrays");
+        }
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * builds the CSR arrays from an edge list with a counting sort by source vertex.
+     * complexity: O(n + m)
+     *
+     * @param undirected if true, every edge is added in both directions.
+     */
+    public static CsrGraph fromEdges(int n, int[] from, int[] to, int[] weight, boolean undirected) {
+        int m = from.length;
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            if (weight[i] < 0) {
+                throw new IllegalArgumentException("negative weight on edge " + from[i] + "->" + to[i]);
+            }
+            offsets[from[i] + 1] += 1;
+            if (undirected) {
+                offsets[to[i] + 1] += 1;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        int[] cursor = new int[n];
+        System.arraycopy(offsets, 0, cursor, 0, n);
+        for (int i = 0; i < m; i++) {
+            int e = cursor[from[i]]++;
+            targets[e] = to[i];
+            weights[e] = weight[i];
+            if (undirected) {
+                e = cursor[to[i]]++;
+                targets[e] = from[i];
+                weights[e] = weight[i];
+            }
+        }
+        return new CsrGraph(offsets, targets, weights);
+    }
+
+    /**
+     * generates a connected random graph: a random spanning path plus m - n + 1 random edges,
+     * with weights in [1, maxWeight].
+     */
+    public static CsrGraph random(int n, int m, int maxWeight, boolean undirected, long seed) {
+        Random random = new Random(seed);
+        m = Math.max(m, n - 1);
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] weight = new int[m];
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        for (int i = 0; i < m; i++) {
+            if (i < n - 1) {
+                from[i] = order[i];
+                to[i] = order[i + 1];
+            } else {
+                from[i] = random.nextInt(n);
+                to[i] = random.nextInt(n);
+            }
+            weight[i] = 1 + random.nextInt(maxWeight);
+        }
+        return fromEdges(n, from, to, weight, undirected);
+    }
+
+    public int vertexCount() {
+        return offsets.length - 1;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    public int firstEdge(int v) {
+        return offsets[v];
+    }
+
+    public int endEdge(int v) {
+        return offsets[v + 1];
+    }
+
+    public int target(int e) {
+        return targets[e];
+    }
+
+    public int weight(int e) {
+        return weights[e];
+    }
+
+    /**
+     * @return the vertices boxed as Integers, for heaps that carry the vertex of an entry as its value. The array
+     * is created on the first call and shared by every later one, so repeated searches box nothing.
+     */
+    Integer[] vertices() {
+        Integer[] boxed = vertices;
+        if (boxed == null) {
+            boxed = new Integer[vertexCount()];
+            for (int v = 0; v < boxed.length; v++) {
+                boxed[v] = v;
+            }
+            vertices = boxed;
+        }
+        return boxed;
+    }
+}
@@ -0,0 +1,466 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32C;
+
+/**
+ * DurableFibonacciHeap
+ * <p>
+ * A FibonacciHeap whose operations survive a crash: every insert, decreaseKey, delete and deleteMin appends a
+ * compact binary record to a write-ahead log in a directory, and open recovers the heap from the last
+ * checkpoint (a FibonacciHeap snapshot) plus the log written after it.
+ * <p>
+ * Entries are identified by ids, handed out by insert in increasing order, instead of HeapNode handles, since
+ * the handles do not survive a restart. The id of every entry is the value of its node.
+ * <p>
+ * Group commit: records are collected in a buffer and written with one force every groupSize operations (or
+ * on sync, checkpoint and close), as one frame of length, CRC32C and records. A crash loses at most the
+ * operations since the last force; recovery replays the complete frames and cuts the log at the first torn or
+ * corrupt one. groupSize = 1 makes every operation durable before it returns.
+ * <p>
+ * A failed write or force of the log is fatal to the instance: the operation that triggered it throws the
+ * IOException, the partly written frame is cut off the log, and every later call except close throws
+ * IllegalStateException. The operations of that frame were applied in memory but are not durable, so open the
+ * directory again to continue from what the log holds. Nothing is ever appended after a torn frame, which
+ * recovery would take for the end of the log.
+ * <p>
+ * The directory holds CHECKPOINT, a text file with the current epoch e, and snapshot.e, ids.e (the ids of
+ * snapshot.e in pre-order) and wal.e. checkpoint writes the files of epoch e + 1 and only then replaces
+ * CHECKPOINT atomically, so a crash at any point leaves one consistent epoch to recover from.
+ */
+public final class DurableFibonacciHeap implements Closeable {
+    public static final long NO_ID = -1;
+    private static final byte INSERT = 1, DECREASE_KEY = 2, DELETE = 3;
+    private static final int MAX_RECORD = 13;          // DECREASE_KEY: op, id, delta
+    private static final int FRAME_HEADER = 8;         // length and CRC32C of the records
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path dir;
+    private final int groupSize;
+    private final UnaryOperator<FileChannel> logs;  // wraps every opened log, to inject failures in tests
+    private final FibonacciHeap<Long> heap = new FibonacciHeap<>();
+    private final HashMap<Long, FibonacciHeap.HeapNode<Long>> nodes = new HashMap<>();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32C crc = new CRC32C();
+    private long epoch;
+    private long nextId;
+    private FileChannel log;
+    private int unsynced = 0;   // operations in the buffer
+    private long syncs = 0;
+    private IOException failure;  // the failed write or force of the log, after which the heap is unusable
+
+    private DurableFibonacciHeap(Path dir, int groupSize, UnaryOperator<FileChannel> logs) {
+        this.dir = dir;
+        this.groupSize = groupSize;
+        this.logs = logs;
+        buffer.position(FRAME_HEADER);
+    }
+
+    /**
+     * Opens the heap stored in dir, creating it if dir holds none, and recovers it from the last checkpoint
+     * and its log.
+     *
+     * @param groupSize the number of operations per force of the log, at least 1.
+     * complexity: O(n + #logged operations)
+     */
+    public static DurableFibonacciHeap open(Path dir, int groupSize) throws IOException {
+        return open(dir, groupSize, UnaryOperator.identity());
+    }
+
+    /**
+     * open, with every log channel passed through logs first.
+     */
+    static DurableFibonacciHeap open(Path dir, int groupSize, UnaryOperator<FileChannel> logs) throws IOException {
+        if (groupSize < 1) {
+            throw new IllegalArgumentException("groupSize must be positive: " + groupSize);
+        }
+        Files.createDirectories(dir);
+        DurableFibonacciHeap durable = new DurableFibonacciHeap(dir, groupSize, logs);
+        durable.recover();
+        return durable;
+    }
+
+    public boolean isEmpty() {
+        checkUsable();
+        return heap.isEmpty();
+    }
+
+    public int size() {
+        checkUsable();
+        return heap.size();
+    }
+
+    /**
+     * @return the id of an entry with the minimal key, or NO_ID if the heap is empty.
+     */
+    public long findMin() {
+        checkUsable();
+        return heap.isEmpty() ? NO_ID : heap.findMin().getValue();
+    }
+
+    public int getKey(long id) {
+        checkUsable();
+        return node(id).getKey();
+    }
+
+    /**
+     * @return the number of times the log was forced to disk.
+     */
+    public long syncs() {
+        return syncs;
+    }
+
+    /**
+     * inserts the key.
+     *
+     * @return the id of the new entry.
+     * complexity: O(1) amortized, plus a force every groupSize operations.
+     */
+    public long insert(int key) throws IOException {
+        checkUsable();
+        long id = applyInsert(key);
+        buffer.put(INSERT).putInt(key);
+        logged();
+        return id;
+    }
+
+    /**
+     * decreases the key of the entry by the non-negative delta.
+     *
+     * @throws IllegalArgumentException if there is no entry with the id.
+     */
+    public void decreaseKey(long id, int delta) throws IOException {
+        checkUsable();
+        heap.decreaseKey(node(id), delta);
+        buffer.put(DECREASE_KEY).putLong(id).putInt(delta);
+        logged();
+    }
+
+    /**
+     * deletes the entry.
+     *
+     * @throws IllegalArgumentException if there is no entry with the id.
+     */
+    public void delete(long id) throws IOException {
+        checkUsable();
+        heap.delete(node(id));
+        nodes.remove(id);
+        buffer.put(DELETE).putLong(id);
+        logged();
+    }
+
+    /**
+     * deletes an entry with the minimal key. It is logged as a delete of its id, so the replay deletes the same
+     * entry even when other keys tie with it.
+     *
+     * @return the id of the deleted entry, or NO_ID if the heap is empty.
+     */
+    public long deleteMin() throws IOException {
+        long id = findMin();
+        if (id != NO_ID) {
+            delete(id);
+        }
+        return id;
+    }
+
+    /**
+     * writes the buffered records as one frame and forces the log, so every operation so far is durable.
+     *
+     * @throws IOException if the log cannot be written or forced, after which the heap is unusable (see above).
+     */
+    public void sync() throws IOException {
+        checkUsable();
+        if (unsynced == 0) {
+            return;
+        }
+        int length = buffer.position() - FRAME_HEADER;
+        crc.reset();
+        ByteBuffer records = buffer.duplicate();
+        records.position(FRAME_HEADER).limit(FRAME_HEADER + length);
+        crc.update(records);
+        buffer.putInt(0, length).putInt(4, (int) crc.getValue());
+        buffer.flip();
+        long frameStart = log.position();
+        try {
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+            log.force(false);
+        } catch (IOException e) {
+            failure = e;
+            try {
+                log.truncate(frameStart);  // recovery cuts a torn frame off anyway, if this fails too
+            } catch (IOException truncateFailure) {
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+        syncs += 1;
+        buffer.clear().position(FRAME_HEADER);
+        unsynced = 0;
+    }
+
+    /**
+     * Snapshots the heap as a new epoch and starts an empty log for it, so recovery no longer replays the
+     * operations before this point. The heap moves to the new epoch as soon as CHECKPOINT names it, and only
+     * then are the files of the previous epoch deleted, best-effort: what cannot be deleted now is deleted by the
+     * next open.
+     * complexity: O(n)
+     */
+    public void checkpoint() throws IOException {
+        sync();
+        long next = epoch + 1;
+        heap.snapshot(file("snapshot", next));
+        force(file("snapshot", next));
+        writeIds(file("ids", next));
+        FileChannel nextLog = openLog(next);
+        try {
+            nextLog.truncate(0);  // left over by a checkpoint that crashed before it was committed
+            Path tmp = dir.resolve("CHECKPOINT.tmp");
+            Files.write(tmp, Long.toString(next).getBytes(StandardCharsets.US_ASCII));
+            force(tmp);
+            Files.move(tmp, dir.resolve("CHECKPOINT"), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            try {
+                nextLog.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+        forceDirectory();
+        FileChannel previousLog = log;
+        long previous = epoch;
+        log = nextLog;
+        epoch = next;
+        try {
+            previousLog.close();
+        } catch (IOException e) {
+            // the log of a committed epoch is no longer needed
+        }
+        deleteEpochQuietly(previous);
+    }
+
+    /**
+     * syncs and closes the log.
+     */
+    public void close() throws IOException {
+        try {
+            if (failure == null) {
+                sync();
+            }
+        } finally {
+            log.close();
+        }
+    }
+
+    private void checkUsable() {
+        if (failure != null) {
+            throw new IllegalStateException("the log failed, open the heap again to recover it", failure);
+        }
+    }
+
+    private void logged() throws IOException {
+        unsynced += 1;
+        if (unsynced >= groupSize || buffer.remaining() < MAX_RECORD) {
+            sync();
+        }
+    }
+
+    private long applyInsert(int key) {
+        long id = nextId++;
+        nodes.put(id, heap.insert(key, id));
+        return id;
+    }
+
+    private FibonacciHeap.HeapNode<Long> node(long id) {
+        FibonacciHeap.HeapNode<Long> node = nodes.get(id);
+        if (node == null) {
+            throw new IllegalArgumentException("no entry with id " + id);
+        }
+        return node;
+    }
+
+    private void recover() throws IOException {
+        Path checkpoint = dir.resolve("CHECKPOINT");
+        epoch = Files.exists(checkpoint)
+                ? Long.parseLong(new String(Files.readAllBytes(checkpoint), StandardCharsets.US_ASCII).trim())
+                : 0;
+        if (Files.exists(file("snapshot", epoch))) {
+            FibonacciHeap<Long> restored = FibonacciHeap.restore(file("snapshot", epoch));
+            readIds(file("ids", epoch), restored);
+            heap.meld(restored);
+        }
+        log = openLog(epoch);
+        replay();
+        if (epoch > 0) {
+            deleteEpochQuietly(epoch - 1);  // left over if the checkpoint to epoch could not delete it
+        }
+    }
+
+    /**
+     * applies the complete frames of the log and truncates it after the last one.
+     */
+    private void replay() throws IOException {
+        long size = log.size();
+        ByteBuffer frame = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        long position = 0;
+        while (position + FRAME_HEADER <= size) {
+            frame.clear().limit(FRAME_HEADER);
+            readFully(frame, position);
+            int length = frame.getInt(0), checksum = frame.getInt(4);
+            if (length <= 0 || length > BUFFER_SIZE - FRAME_HEADER || position + FRAME_HEADER + length > size) {
+                break;  // torn
+            }
+            frame.clear().limit(length);
+            readFully(frame, position + FRAME_HEADER);
+            crc.reset();
+            crc.update(frame.array(), 0, length);
+            if ((int) crc.getValue() != checksum || !applyFrame(frame, length)) {
+                break;  // corrupt
+            }
+            position += FRAME_HEADER + length;
+        }
+        log.truncate(position);
+        log.position(position);
+    }
+
+    private void readFully(ByteBuffer frame, long position) throws IOException {
+        while (frame.hasRemaining()) {
+            if (log.read(frame, position + frame.position()) < 0) {
+                throw new IOException("log ended early");
+            }
+        }
+        frame.flip();
+    }
+
+    /**
+     * @return false if the frame holds a record that does not fit the heap, which only a corrupt log can.
+     */
+    private boolean applyFrame(ByteBuffer frame, int length) {
+        frame.position(0).limit(length);
+        while (frame.hasRemaining()) {
+            byte op = frame.get();
+            if (op == INSERT && frame.remaining() >= 4) {
+                applyInsert(frame.getInt());
+            } else if (op == DECREASE_KEY && frame.remaining() >= 12) {
+                FibonacciHeap.HeapNode<Long> node = nodes.get(frame.getLong());
+                int delta = frame.getInt();
+                if (node == null) {
+                    return false;
+                }
+                heap.decreaseKey(node, delta);
+            } else if (op == DELETE && frame.remaining() >= 8) {
+                FibonacciHeap.HeapNode<Long> node = nodes.remove(frame.getLong());
+                if (node == null) {
+                    return false;
+                }
+                heap.delete(node);
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * writes nextId and the ids of the heap in pre-order, which is the order in which restore rebuilds nodes.
+     */
+    private void writeIds(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer ids = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            ids.putLong(nextId);
+            IOException[] failure = new IOException[1];
+            heap.forEachInPreOrder(node -> {
+                if (failure[0] != null) {
+                    return;
+                }
+                try {
+                    if (ids.remaining() < 8) {
+                        flush(channel, ids);
+                    }
+                    ids.putLong(node.getValue());
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            flush(channel, ids);
+            channel.force(true);
+        }
+    }
+
+    private void readIds(Path file, FibonacciHeap<Long> restored) throws IOException {
+        ByteBuffer ids = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        if (ids.remaining() != 8 + 8L * restored.size()) {
+            throw new IOException("ids do not match the snapshot: " + file);
+        }
+        nextId = ids.getLong();
+        restored.forEachInPreOrder(node -> {
+            long id = ids.getLong();
+            node.setValue(id);
+            nodes.put(id, node);
+        });
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * makes the rename of CHECKPOINT durable. Not every platform can open a directory, and where it cannot,
+     * the rename is left to the file system.
+     */
+    private void forceDirectory() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // directories cannot be forced here
+        }
+    }
+
+    private FileChannel openLog(long epoch) throws IOException {
+        return logs.apply(FileChannel.open(file("wal", epoch), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE));
+    }
+
+    /**
+     * deletes the files of an epoch that is no longer current, as many as can be deleted.
+     */
+    private void deleteEpochQuietly(long epoch) {
+        for (String name : new String[]{"snapshot", "ids", "wal"}) {
+            try {
+                Files.deleteIfExists(file(name, epoch));
+            } catch (IOException e) {
+                // recovery never reads an old epoch, so its files only take space
+            }
+        }
+    }
+
+    private Path file(String name, long epoch) {
+        return dir.resolve(name + "." + epoch);
+    }
+}
@@ -0,0 +1,152 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+/**
+ * ExternalPriorityQueue
+ * <p>
+ * A min-priority queue of ints that keeps at most memoryBudget keys in memory and spills the rest to disk.
+ * <p>
+ * The hot keys live in a FibonacciHeap. When an insert finds it full, the heap is split like in a sequence
+ * heap: pollMin takes out its smaller half, which goes back in by insertAll, and then the larger, colder half
+ * in ascending order, which is written to a SortedRun file. If the run cannot be written, the larger half goes
+ * back in as well and the insert fails with the IOException, without losing a key. The runs are never loaded
+ * back as a whole: a RunMerger keeps only their heads, read lazily through memory-mapped windows, and the
+ * minimum of the queue is the smaller of the heap's minimum and the smallest head.
+ * <p>
+ * Every key is spilled at most once, and a spill of memoryBudget/2 keys costs O(memoryBudget*log(memoryBudget)),
+ * so insert takes O(log(memoryBudget)) amortized and deleteMin O(log(memoryBudget) + log(#runs)) amortized.
+ * The keys are not handles, so there is no decreaseKey or delete.
+ */
+public class ExternalPriorityQueue implements Closeable {
+    private final Path dir;
+    private final int memoryBudget;
+    private final FibonacciHeap<Void> hot = new FibonacciHeap<>();
+    private final RunMerger runs = new RunMerger();
+    private final int[] kept;     // the half of the heap that stays in memory during a spill
+    private final int[] spilled;  // the half that is written to the run
+    private long size = 0;
+    private int spills = 0;
+
+    /**
+     * @param dir          the directory for the run files, which must exist.
+     * @param memoryBudget the largest number of keys to keep in memory, at least 2.
+     */
+    public ExternalPriorityQueue(Path dir, int memoryBudget) {
+        if (memoryBudget < 2) {
+            throw new IllegalArgumentException("memoryBudget must be at least 2: " + memoryBudget);
+        }
+        this.dir = dir;
+        this.memoryBudget = memoryBudget;
+        this.kept = new int[memoryBudget / 2];
+        this.spilled = new int[memoryBudget - memoryBudget / 2];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the number of runs spilled so far.
+     */
+    public int spills() {
+        return spills;
+    }
+
+    /**
+     * @return the number of spilled runs that still hold keys.
+     */
+    public int runCount() {
+        return runs.runCount();
+    }
+
+    /**
+     * public void insert(int key)
+     * <p>
+     * Inserts the key, spilling the larger half of the in-memory keys first if there are memoryBudget of them.
+     * complexity: amortized O(log(memoryBudget))
+     *
+     * @throws IOException if the spill fails, in which case the key is not inserted and the queue is unchanged.
+     */
+    public void insert(int key) throws IOException {
+        if (hot.size() == memoryBudget) {
+            spill();
+        }
+        hot.insert(key);
+        size += 1;
+    }
+
+    /**
+     * public int findMin()
+     * <p>
+     * Returns the minimal key.
+     * complexity: O(1)
+     *
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    public int findMin() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        if (runs.isEmpty()) {
+            return hot.findMin().getKey();
+        }
+        return hot.isEmpty() ? runs.peek() : Math.min(hot.findMin().getKey(), runs.peek());
+    }
+
+    /**
+     * public int deleteMin()
+     * <p>
+     * Deletes the minimal key and returns it.
+     * complexity: amortized O(log(memoryBudget) + log(#runs))
+     *
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    public int deleteMin() throws IOException {
+        int min = findMin();
+        if (!hot.isEmpty() && hot.findMin().getKey() == min) {
+            hot.deleteMin();
+        } else {
+            runs.poll();
+        }
+        size -= 1;
+        return min;
+    }
+
+    /**
+     * deletes the run files that still hold keys.
+     */
+    public void close() throws IOException {
+        runs.close();
+    }
+
+    private void spill() throws IOException {
+        // the file is created before any key leaves the heap, and if writing the run fails every key goes back.
+        Path file = Files.createTempFile(dir, "run", ".bin");
+        int keep = hot.pollMin(kept.length, kept);
+        int spill = hot.pollMin(hot.size(), spilled);
+        boolean written = false;
+        try {
+            try (SortedRun.Writer writer = new SortedRun.Writer(file)) {
+                for (int i = 0; i < spill; i++) {
+                    writer.add(spilled[i]);
+                }
+                runs.add(writer.finish());
+                written = true;
+            }
+        } finally {
+            hot.insertAll(kept, 0, keep);
+            if (!written) {
+                hot.insertAll(spilled, 0, spill);
+                Files.deleteIfExists(file);
+            }
+        }
+        spills += 1;
+    }
+}
@@ -0,0 +1,163 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * ExternalSort
+ * <p>
+ * Sorts a binary file of little-endian ints that does not fit in memory:
+ * <ol>
+ * <li>the input is read through a FileChannel in chunks of runSize ints, every chunk is sorted in memory with
+ * Arrays.sort and written as a SortedRun;</li>
+ * <li>the runs are merged fanIn at a time by a RunMerger, a binary heap of the run heads that advances the
+ * smallest one with a replace-top, until one merge writes the output.</li>
+ * </ol>
+ * Neither step uses FibonacciHeap. The in-memory step uses Arrays.sort, which is several times faster than
+ * draining a FibonacciHeap on the chunk sizes that fit in memory. The merge advances a run by raising its head
+ * key, which a FibonacciHeap can only do with a deleteMin and an insert (decreaseKey goes the other way), while
+ * the binary heap's replace-top does it with one sift-down and no allocation. ExternalSortBenchmark measures
+ * both choices.
+ * <p>
+ * Run with "java ExternalSort input output [runSize] [fanIn]". The runs are written next to the output.
+ * complexity: O(n log n) comparisons, and 2 * (1 + #merge passes) sequential passes over the data, where
+ * #merge passes = ceil(log_fanIn(n / runSize)).
+ */
+public class ExternalSort {
+    static final int DEFAULT_RUN_SIZE = 1 << 24;
+    static final int DEFAULT_FAN_IN = 256;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private ExternalSort() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: java ExternalSort input output [runSize] [fanIn]");
+            System.exit(2);
+        }
+        Path input = Paths.get(args[0]), output = Paths.get(args[1]);
+        int runSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_RUN_SIZE;
+        int fanIn = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_FAN_IN;
+        Path tmpDir = output.toAbsolutePath().getParent();
+        long start = System.nanoTime();
+        long count = sort(input, output, tmpDir, runSize, fanIn);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "sorted %,d ints in %.2fs, %.1f MB/s%n", count, seconds,
+                4.0 * count / 1e6 / seconds);
+    }
+
+    /**
+     * sorts the ints of input into output.
+     *
+     * @param tmpDir  the directory for the runs, which are deleted once merged.
+     * @param runSize the number of ints sorted in memory at a time, at least 1.
+     * @param fanIn   the number of runs merged at a time, at least 2.
+     * @return the number of ints sorted.
+     * @throws IOException if the length of input is not a multiple of 4, or on any I/O error.
+     */
+    public static long sort(Path input, Path output, Path tmpDir, int runSize, int fanIn) throws IOException {
+        if (runSize < 1 || fanIn < 2) {
+            throw new IllegalArgumentException("runSize=" + runSize + ", fanIn=" + fanIn);
+        }
+        ArrayDeque<SortedRun> runs = new ArrayDeque<>();
+        try {
+            long count = makeRuns(input, tmpDir, runSize, runs);
+            while (runs.size() > fanIn) {
+                // merge the oldest runs into a new one, so every pass reads every int once.
+                Path file = Files.createTempFile(tmpDir, "run", ".bin");
+                try (RunMerger merger = mergerOf(runs, fanIn); SortedRun.Writer writer = new SortedRun.Writer(file)) {
+                    while (!merger.isEmpty()) {
+                        writer.add(merger.poll());
+                    }
+                    runs.add(writer.finish());
+                }
+            }
+            try (RunMerger merger = mergerOf(runs, runs.size());
+                 FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                while (!merger.isEmpty()) {
+                    if (!buffer.hasRemaining()) {
+                        write(out, buffer);
+                    }
+                    buffer.putInt(merger.poll());
+                }
+                write(out, buffer);
+            }
+            return count;
+        } finally {
+            for (SortedRun run : runs) {
+                run.close();
+            }
+        }
+    }
+
+    /**
+     * reads input in chunks of runSize ints and appends every chunk, sorted, to runs.
+     *
+     * @return the number of ints in input.
+     */
+    private static long makeRuns(Path input, Path tmpDir, int runSize, ArrayDeque<SortedRun> runs)
+            throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            long length = in.size();
+            if (length % 4 != 0) {
+                throw new IOException("not a file of ints, length " + length + ": " + input);
+            }
+            long count = length / 4;
+            int[] chunk = new int[(int) Math.min(runSize, count)];
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip();
+            for (long read = 0; read < count; ) {
+                int n = (int) Math.min(chunk.length, count - read);
+                for (int i = 0; i < n; i++) {
+                    if (buffer.remaining() < 4) {
+                        buffer.compact();  // keeps the bytes of an int split between two reads
+                        while (buffer.position() < 4 && in.read(buffer) >= 0) {
+                            // a read may return fewer bytes than the buffer holds
+                        }
+                        buffer.flip();
+                    }
+                    chunk[i] = buffer.getInt();
+                }
+                read += n;
+                Arrays.sort(chunk, 0, n);
+                Path file = Files.createTempFile(tmpDir, "run", ".bin");
+                try (SortedRun.Writer writer = new SortedRun.Writer(file)) {
+                    for (int i = 0; i < n; i++) {
+                        writer.add(chunk[i]);
+                    }
+                    runs.add(writer.finish());
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * @return a merger of the first k runs, which are removed from runs.
+     */
+    private static RunMerger mergerOf(ArrayDeque<SortedRun> runs, int k) throws IOException {
+        RunMerger merger = new RunMerger();
+        for (int i = 0; i < k; i++) {
+            merger.add(runs.poll());
+        }
+        return merger;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,183 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Throughput of ExternalSort, and the in-memory sorts it could use for its runs.
+ * <p>
+ * Run with "java ExternalSortBenchmark [n]". A file of n random ints is written to the temporary directory and
+ * sorted with a few run sizes, reported in MB/s of input. Then Arrays.sort is compared, in keys per second, with
+ * heapsort through a FibonacciHeap (insert + deleteMin, and the batched of + drainTo) on chunk sizes that fit
+ * in memory, which is why the runs are sorted with Arrays.sort. Last, the k-way merge of RunMerger (a binary
+ * heap with replace-top) is compared with the same merge through a FibonacciHeap of the run heads
+ * (deleteMin + insert per int), in merged ints per second.
+ */
+public class ExternalSortBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 25;
+        Path dir = Files.createTempDirectory("external-sort");
+        Path input = dir.resolve("input.bin"), output = dir.resolve("output.bin");
+        try {
+            writeRandomInts(input, n, 42);
+            System.out.printf("n = %,d (%,d MB)%n", n, 4L * n >> 20);
+            for (int runSize : new int[]{1 << 18, 1 << 20, 1 << 22}) {
+                long best = Long.MAX_VALUE;
+                for (int round = 0; round < 3; round++) {
+                    long start = System.nanoTime();
+                    ExternalSort.sort(input, output, dir, runSize, ExternalSort.DEFAULT_FAN_IN);
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                System.out.printf(Locale.ROOT, "%-45s %,15.1f MB/s (%d runs)%n", "ExternalSort runSize=" + runSize,
+                        4.0 * n / 1e6 / (best / 1e9), (n + runSize - 1) / runSize);
+            }
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+            Files.delete(dir);
+        }
+        for (int size : new int[]{1 << 16, 1 << 20, 1 << 22}) {
+            int[] keys = HeapBenchmark.randomKeys(size, 7);
+            HeapBenchmark.report("Arrays.sort n=" + size, size, () -> {
+                int[] copy = keys.clone();
+                Arrays.sort(copy);
+                HeapBenchmark.sink = copy;
+            });
+            HeapBenchmark.report("FibonacciHeap insert+deleteMin n=" + size, size, () -> {
+                int[] sorted = new int[size];
+                FibonacciHeap<Void> heap = new FibonacciHeap<>();
+                for (int key : keys) {
+                    heap.insert(key);
+                }
+                for (int i = 0; i < size; i++) {
+                    sorted[i] = heap.findMin().getKey();
+                    heap.deleteMin();
+                }
+                HeapBenchmark.sink = sorted;
+            });
+            HeapBenchmark.report("FibonacciHeap of+drainTo n=" + size, size, () -> {
+                int[] sorted = new int[size];
+                int[] i = new int[1];
+                FibonacciHeap.of(keys).drainTo(key -> sorted[i[0]++] = key, size);
+                HeapBenchmark.sink = sorted;
+            });
+        }
+        Path runDir = Files.createTempDirectory("external-sort-merge");
+        try {
+            int total = Math.min(n, 1 << 22);
+            for (int k : new int[]{16, 256}) {
+                reportMerge("RunMerger merge k=" + k, runDir, total, k, ExternalSortBenchmark::mergeRunMerger);
+                reportMerge("FibonacciHeap merge k=" + k, runDir, total, k, ExternalSortBenchmark::mergeFibonacciHeap);
+            }
+        } finally {
+            Files.delete(runDir);
+        }
+    }
+
+    interface Merge {
+        /**
+         * merges the runs, and closes them.
+         *
+         * @return the last merged int.
+         */
+        int merge(SortedRun[] runs) throws IOException;
+    }
+
+    /**
+     * writes k sorted runs of total / k random ints before every round, and reports the best merge of them.
+     */
+    static void reportMerge(String name, Path dir, int total, int k, Merge merge) throws IOException {
+        Random random = new Random(11);
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < HeapBenchmark.WARMUP_ROUNDS + HeapBenchmark.MEASURED_ROUNDS; round++) {
+            SortedRun[] runs = new SortedRun[k];
+            int[] chunk = new int[total / k];
+            for (int r = 0; r < k; r++) {
+                for (int i = 0; i < chunk.length; i++) {
+                    chunk[i] = random.nextInt();
+                }
+                Arrays.sort(chunk);
+                try (SortedRun.Writer writer = new SortedRun.Writer(Files.createTempFile(dir, "run", ".bin"))) {
+                    for (int key : chunk) {
+                        writer.add(key);
+                    }
+                    runs[r] = writer.finish();
+                }
+            }
+            long start = System.nanoTime();
+            HeapBenchmark.sink = merge.merge(runs);
+            long elapsed = System.nanoTime() - start;
+            if (round >= HeapBenchmark.WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        System.out.printf(Locale.ROOT, "%-45s %,15.0f ints/s%n", name, (double) k * (total / k) * 1e9 / best);
+    }
+
+    static int mergeRunMerger(SortedRun[] runs) throws IOException {
+        int last = 0;
+        try (RunMerger merger = new RunMerger()) {
+            for (SortedRun run : runs) {
+                merger.add(run);
+            }
+            while (!merger.isEmpty()) {
+                last = merger.poll();
+            }
+        }
+        return last;
+    }
+
+    /**
+     * the merge with a FibonacciHeap keyed by the run heads: a run is advanced by deleting its entry and
+     * inserting it again with its next head, from a pool of k nodes.
+     */
+    static int mergeFibonacciHeap(SortedRun[] runs) throws IOException {
+        FibonacciHeap<SortedRun> heap = new FibonacciHeap<>(runs.length);
+        for (SortedRun run : runs) {
+            heap.insert(run.head(), run);
+        }
+        int last = 0;
+        while (!heap.isEmpty()) {
+            FibonacciHeap.HeapNode<SortedRun> min = heap.findMin();
+            SortedRun run = min.getValue();
+            last = min.getKey();
+            heap.deleteMin();
+            run.advance();
+            if (run.isEmpty()) {
+                run.close();
+            } else {
+                heap.insert(run.head(), run);
+            }
+        }
+        return last;
+    }
+
+    static void writeRandomInts(Path file, int n, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < n; i++) {
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                buffer.putInt(random.nextInt());
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
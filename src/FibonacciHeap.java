@@ -1,8 +1,29 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 /**
  * FibonacciHeap
  * <p>
  * An implementation of a Fibonacci Heap over integers.
  * <p>
+ * Every node can carry a value of type V, which is stored in the node itself, so attaching a job, vertex
+ * or timer to its priority costs no extra object.
+ * <p>
  *
  * @author Ram Elgov
  * id: 206867517
@@ -10,15 +31,60 @@
  * @author id: 213231434
  * username: orenbachar
  */
-public class FibonacciHeap {
-    private HeapNode first;
-    private HeapNode min;
+public class FibonacciHeap<V> implements IntValueQueue<FibonacciHeap.HeapNode<V>, V> {
+    // the largest rank a tree can have in a heap of at most Integer.MAX_VALUE nodes.
+    private static final int MAX_RANK = maxRank(Integer.MAX_VALUE);
+    // snapshot format, see snapshot(Path).
+    private static final int SNAPSHOT_MAGIC = 0x48424946;  // "FIBH"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER = 20;
+    private static final int SNAPSHOT_RECORD = 5;
+    private static final int SNAPSHOT_BUFFER = SNAPSHOT_RECORD << 16;
+    private static final long SNAPSHOT_WINDOW = SNAPSHOT_RECORD << 26;  // a whole number of records
+    private HeapNode<V> first;
+    private HeapNode<V> min;
     private int size = 0;
     private int countMarks = 0;
     private int countHeapTrees = 0;
-    static int countCuts = 0, countLinks = 0;
+    // number of roots of every rank, and the largest rank it counts (lowered lazily, see getMaxRootRank).
+    private final int[] rootRanks = new int[MAX_RANK + 1];
+    private int maxRootRank = -1;
+    // consolidation buckets, kept between calls. bucketsLimit is the largest size they can serve.
+    private HeapNode<V>[] buckets = newArray(0);
+    private int bucketsLimit = 0;
+    private int maxBucket = -1;
+    // incremental consolidation (see setConsolidationBudget), 0 for eager consolidation in deleteMin.
+    private int consolidationBudget = 0;
+    // first root of the settled part of the root list: at most one tree per rank, each one in its bucket.
+    private HeapNode<V> settled;
+    // binary heap of roots used by pollMin/drainTo, kept between calls.
+    private HeapNode<V>[] candidates = newArray(0);
+    // released nodes waiting to be reused by insert, chained through next (see FibonacciHeap(int)).
+    private HeapNode<V> pool;
+    private int pooled = 0;
+    private final int poolCapacity;
+    private final HeapMetrics metrics = new HeapMetrics();
+    // links and cuts of the running operation, handed to metrics once the operation is done.
+    private int pendingLinks = 0, pendingCuts = 0;
+
+    public FibonacciHeap() {
+        this(0);
+    }
+
+    /**
+     * creates an empty heap that recycles its nodes.
+     * <p>
+     * Up to poolCapacity nodes released by deleteMin/delete are kept and reused by insert instead of
+     * allocating new ones. Every release bumps the node's generation, so a handle taken before the node was
+     * recycled can be told apart from the node's new entry (see decreaseKey(HeapNode, int, int)).
+     *
+     * @param poolCapacity the maximal number of released nodes to keep, 0 disables pooling.
+     */
+    public FibonacciHeap(int poolCapacity) {
+        this.poolCapacity = poolCapacity;
+    }
 
-    public HeapNode getMin() {
+    public HeapNode<V> getMin() {
         return min;
     }
 
@@ -35,11 +101,53 @@ public class FibonacciHeap {
     }
 
     public static int getCountCuts() {
-        return countCuts;
+        return totalCuts();
     }
 
     public static int getCountLinks() {
-        return countLinks;
+        return totalLinks();
+    }
+
+    /**
+     * public HeapMetrics metrics()
+     * <p>
+     * Returns the operation counters and sampled latencies of this heap. meld does not merge the metrics of
+     * the melded heap.
+     */
+    public HeapMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * public void setConsolidationBudget(int maxLinks)
+     * <p>
+     * Switches between eager consolidation (maxLinks = 0, the default) and incremental consolidation, where
+     * insert and deleteMin link at most maxLinks trees each.
+     * <p>
+     * Eagerly, deleteMin links the whole root list, which takes O(n) after n inserts. Incrementally, the root
+     * list consists of a pending part (new roots, children of deleted minima, cut and melded trees) followed
+     * by a settled part of at most one tree per rank, kept in the buckets. Every insert and deleteMin moves
+     * pending roots into the settled part, linking at most maxLinks times, so a burst of inserts pays for its
+     * own consolidation. findMin stays exact: deleteMin compares the remaining roots, which are the O(logn)
+     * settled trees plus whatever is still pending, but links no more than maxLinks of them.
+     * <p>
+     * maxLinks should exceed the largest rank (about 1.44*log2(n)), since that many children become roots in
+     * every deleteMin. Below that, the pending roots pile up faster than they are linked, and the search for
+     * the minimum gets slower with them.
+     * complexity: O(logn)
+     */
+    public void setConsolidationBudget(int maxLinks) {
+        if (maxLinks < 0) {
+            throw new IllegalArgumentException("maxLinks must not be negative: " + maxLinks);
+        }
+        if (maxLinks == 0) {
+            clearSettled();
+        }
+        consolidationBudget = maxLinks;
+    }
+
+    public int getConsolidationBudget() {
+        return consolidationBudget;
     }
 
     /**
@@ -61,24 +169,28 @@ public class FibonacciHeap {
      * Returns the newly created node.
      * complexity: O(1)
      */
-    public HeapNode insert(int key) {
+    public HeapNode<V> insert(int key) {
         return insert(key, null);
     }
 
     /**
-     * helper insert method for kMin.
-     *
-     * @param key  to insert.
-     * @param info to insert with correspondingly given key.
-     * @return Returns the newly created node.
+     * public HeapNode insert(int key, V value)
+     * <p>
+     * Creates a node which contains the given key and carries the given value, and inserts it into the heap.
      * The added key is assumed not to already belong to the heap.
+     *
+     * @param key   to insert.
+     * @param value to insert with correspondingly given key.
+     * @return Returns the newly created node, which is the handle for decreaseKey and delete.
      * <p>
      * Complexity O(1)
      */
-    private HeapNode insert(int key, HeapNode info) {
+    public HeapNode<V> insert(int key, V value) {
+        long start = metrics.start();
         countHeapTrees += 1;
+        addRoot(0);
         size += 1;
-        HeapNode heapNode = new HeapNode(key, info);
+        HeapNode<V> heapNode = newNode(key, value);
         if (isEmpty()) {
             // empty heap
             first = heapNode;
@@ -92,10 +204,293 @@ public class FibonacciHeap {
             first = heapNode;            // update first to point the new node inserted from left.
             // maintain min
             updateMin(heapNode);
+            if (consolidationBudget > 0) {
+                consolidateIncrementally();
+            }
         }
+        metrics.insert(start);
         return heapNode;
     }
 
+    /**
+     * public void insertAll(int[] keys, int from, int to)
+     * <p>
+     * Inserts keys[from..to) at once. Instead of adding them as single-node roots that the next deleteMin has
+     * to consolidate, the keys are linked directly into binomial trees, one for every 1-bit of (to - from),
+     * so the new trees are already consolidated.
+     * The added keys are assumed not to already belong to the heap.
+     * complexity: O(to - from)
+     */
+    public void insertAll(int[] keys, int from, int to) {
+        int count = to - from;
+        if (from < 0 || to > keys.length || count < 0) {
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + keys.length);
+        }
+        if (count == 0) {
+            return;
+        }
+        HeapNode<V>[] roots = newArray(Integer.highestOneBit(count));
+        HeapNode<V> newFirst = null, newLast = null, newMin = null;
+        int i = from;
+        for (int rank = 0; (count >>> rank) != 0; rank++) {
+            if ((count & (1 << rank)) == 0) {
+                continue;
+            }
+            // build a binomial tree of the given rank from the next 2^rank keys, level by level.
+            int treeSize = 1 << rank;
+            for (int j = 0; j < treeSize; j++) {
+                roots[j] = newNode(keys[i++], null);
+            }
+            for (int step = 1; step < treeSize; step *= 2) {
+                for (int j = 0; j < treeSize; j += 2 * step) {
+                    roots[j] = link(roots[j], roots[j + step]);
+                }
+            }
+            HeapNode<V> tree = roots[0];
+            addRoot(rank);
+            if (newFirst == null) {
+                newFirst = tree;
+                newMin = tree;
+            } else {
+                newLast.next = tree;
+                tree.prev = newLast;
+                if (tree.key < newMin.key) {
+                    newMin = tree;
+                }
+            }
+            newLast = tree;
+        }
+        Arrays.fill(roots, null);
+        newFirst.prev = newLast;
+        newLast.next = newFirst;
+        if (isEmpty()) {
+            first = newFirst;
+            min = newMin;
+        } else {
+            HeapNode<V> last = first.prev;
+            last.next = newFirst;
+            newFirst.prev = last;
+            newLast.next = first;
+            first.prev = newLast;
+            updateMin(newMin);
+            if (consolidationBudget > 0) {
+                first = newFirst;  // the new trees are pending
+            }
+        }
+        size += count;
+        countHeapTrees += Integer.bitCount(count);
+        metrics.insertAll(count, pendingLinks);
+        pendingLinks = 0;
+    }
+
+    /**
+     * public static FibonacciHeap of(int[] keys)
+     * <p>
+     * Returns a new heap holding the given keys, built by insertAll.
+     * complexity: O(keys.length)
+     */
+    public static <V> FibonacciHeap<V> of(int[] keys) {
+        FibonacciHeap<V> heap = new FibonacciHeap<>();
+        heap.insertAll(keys, 0, keys.length);
+        return heap;
+    }
+
+    /**
+     * public void snapshot(Path file)
+     * <p>
+     * Writes the exact shape of the heap to file, so restore can rebuild it without replaying inserts.
+     * <p>
+     * The format is a 20 byte header (magic, version, size, #trees, #marks) followed by one 5 byte record per
+     * node in pre-order: the roots from first on, every node followed by the subtrees of its children from its
+     * child on. A record is the key and one byte of rank &lt;&lt; 1 | mark, and the rank tells restore how many
+     * subtrees follow. Integers are little-endian. Values are not written, the restored nodes carry null.
+     * <p>
+     * The traversal follows parent pointers instead of a stack, since a tree can be as deep as the heap is large.
+     * complexity: O(n)
+     */
+    public void snapshot(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(SNAPSHOT_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putInt(size).putInt(countHeapTrees)
+                    .putInt(countMarks);
+            HeapNode<V> x = first;
+            while (x != null) {
+                if (buffer.remaining() < SNAPSHOT_RECORD) {
+                    write(channel, buffer);
+                }
+                buffer.putInt(x.key).put((byte) (x.rank << 1 | (x.mark ? 1 : 0)));
+                x = nextInPreOrder(x);
+            }
+            write(channel, buffer);
+        }
+    }
+
+    /**
+     * visits every node in the pre-order of snapshot (and so of restore), so callers can write down and
+     * reattach what the snapshot does not hold, such as the values.
+     */
+    void forEachInPreOrder(Consumer<? super HeapNode<V>> action) {
+        for (HeapNode<V> x = first; x != null; x = nextInPreOrder(x)) {
+            action.accept(x);
+        }
+    }
+
+    /**
+     * @return the node after x in pre-order, or null if x is the last one.
+     */
+    private HeapNode<V> nextInPreOrder(HeapNode<V> x) {
+        if (x.child != null) {
+            return x.child;
+        }
+        // climb until a node has a next sibling, or x was in the subtree of the last root.
+        while (x != null && x.next == (x.parent == null ? first : x.parent.child)) {
+            x = x.parent;
+        }
+        return x == null ? null : x.next;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * public static FibonacciHeap restore(Path file)
+     * <p>
+     * Returns a new heap with the exact shape that snapshot wrote to file: the same trees, root list order,
+     * child order, ranks and marks, and so the same min, #trees and #marks, without any consolidation.
+     * The file is memory-mapped in windows of about 320MB, so it may exceed 2GB.
+     * The restored heap consolidates eagerly and does not pool nodes.
+     * complexity: O(n)
+     *
+     * @throws IOException if the file cannot be read or is not a snapshot, or if its records are corrupt: a rank
+     *                     above maxRank(size), a subtree with fewer than minSizeOfRank(rank) nodes, a child key
+     *                     below its parent's, or ranks that do not match the children.
+     */
+    public static <V> FibonacciHeap<V> restore(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < SNAPSHOT_HEADER) {
+                throw new IOException("not a heap snapshot: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, SNAPSHOT_HEADER)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != SNAPSHOT_MAGIC || header.getInt() != SNAPSHOT_VERSION) {
+                throw new IOException("not a heap snapshot: " + file);
+            }
+            int size = header.getInt(), trees = header.getInt(), marks = header.getInt();
+            if (size < 0 || length != SNAPSHOT_HEADER + (long) size * SNAPSHOT_RECORD) {
+                throw new IOException("truncated heap snapshot: " + file);
+            }
+            FibonacciHeap<V> heap = new FibonacciHeap<>();
+            // parents[i] still expects pending[i] more children, and has subtreeSizes[i] nodes so far, for every
+            // node on the path to the current one.
+            HeapNode<V>[] parents = newArray(MAX_RANK + 1);
+            int[] pending = new int[MAX_RANK + 1];
+            int[] subtreeSizes = new int[MAX_RANK + 1];
+            int depth = 0;
+            int maxRank = maxRank(size);
+            long[] minSizes = new long[maxRank + 1];
+            for (int rank = 0; rank <= maxRank; rank++) {
+                minSizes[rank] = minSizeOfRank(rank);
+            }
+            HeapNode<V> lastRoot = null;
+            long position = SNAPSHOT_HEADER;
+            MappedByteBuffer window = null;
+            for (int i = 0; i < size; i++) {
+                if (window == null || !window.hasRemaining()) {
+                    long windowLength = Math.min(SNAPSHOT_WINDOW, length - position);
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowLength);
+                    window.order(ByteOrder.LITTLE_ENDIAN);
+                    position += windowLength;
+                }
+                HeapNode<V> x = new HeapNode<>(window.getInt());
+                int rankAndMark = window.get() & 0xff;
+                x.rank = rankAndMark >>> 1;
+                x.mark = (rankAndMark & 1) != 0;
+                if (x.rank > maxRank || x.rank > size - 1 - i) {
+                    // no tree of that rank fits in a heap of this size, or its children are not in the file.
+                    throw new IOException("corrupt snapshot: " + file);
+                }
+                if (depth == 0) {
+                    if (x.mark) {
+                        throw new IOException("marked root in heap snapshot: " + file);
+                    }
+                    if (lastRoot == null) {
+                        heap.first = x;
+                        heap.min = x;
+                        x.next = x;
+                        x.prev = x;
+                    } else {
+                        heap.first.addSibling(x);  // to the left of first, which is after the last root
+                        heap.updateMin(x);
+                    }
+                    lastRoot = x;
+                    heap.countHeapTrees += 1;
+                    heap.addRoot(x.rank);
+                } else {
+                    HeapNode<V> parent = parents[depth - 1];
+                    if (x.key < parent.key) {
+                        throw new IOException("corrupt snapshot: " + file);
+                    }
+                    x.parent = parent;
+                    if (parent.child == null) {
+                        parent.child = x;
+                        x.next = x;
+                        x.prev = x;
+                    } else {
+                        // append after the last child, without addSibling's rank update.
+                        HeapNode<V> firstChild = parent.child;
+                        x.prev = firstChild.prev;
+                        x.next = firstChild;
+                        firstChild.prev.next = x;
+                        firstChild.prev = x;
+                    }
+                    if (x.mark) {
+                        heap.countMarks += 1;
+                    }
+                }
+                if (x.rank > 0) {
+                    if (depth == parents.length) {
+                        parents = Arrays.copyOf(parents, 2 * depth);
+                        pending = Arrays.copyOf(pending, 2 * depth);
+                        subtreeSizes = Arrays.copyOf(subtreeSizes, 2 * depth);
+                    }
+                    parents[depth] = x;
+                    pending[depth] = x.rank;
+                    subtreeSizes[depth++] = 1;
+                    continue;
+                }
+                // the leaf x completes its subtree, and with it every ancestor whose last child it is.
+                HeapNode<V> complete = x;
+                int completeSize = 1;
+                while (complete.parent != null) {
+                    subtreeSizes[depth - 1] += completeSize;
+                    if (--pending[depth - 1] > 0) {
+                        break;
+                    }
+                    depth -= 1;
+                    complete = parents[depth];
+                    completeSize = subtreeSizes[depth];
+                    if (completeSize < minSizes[complete.rank]) {
+                        // no Fibonacci heap tree of that rank is this small, and deleteMin sizes its buckets by that.
+                        throw new IOException("corrupt snapshot: " + file);
+                    }
+                }
+            }
+            if (depth != 0 || heap.countHeapTrees != trees || heap.countMarks != marks) {
+                // a rank that does not match the children that follow shifts the trees and the marks.
+                throw new IOException("corrupt snapshot: " + file);
+            }
+            heap.size = size;
+            return heap;
+        }
+    }
+
     /**
      * public void deleteMin()
      * <p>
@@ -103,16 +498,28 @@ public class FibonacciHeap {
      * complexity: W.C: O(n), amortized O(logn)
      */
     public void deleteMin() {
+        long start = metrics.start();
+        removeMin();
+        metrics.deleteMin(start);
+    }
+
+    private void removeMin() {
+        if (consolidationBudget > 0) {
+            removeMinIncrementally();
+            return;
+        }
+        HeapNode<V> deleted = min;
         // if the heap is not empty
         if (size > 1) {
             size -= 1;
             countHeapTrees -= 1;
+            rootRanks[min.rank] -= 1;
             // make the orphan children roots themselves.
-            HeapNode child = min.child;
-            HeapNode tmp;
+            HeapNode<V> child = min.child;
+            HeapNode<V> tmp;
             if (child != null) {
-                HeapNode leftMostChild = min.child;
-                HeapNode rightMostChild = leftMostChild.prev;
+                HeapNode<V> leftMostChild = min.child;
+                HeapNode<V> rightMostChild = leftMostChild.prev;
                 connectChildrenToRoots(leftMostChild, rightMostChild);
                 transformChildrenToRoots(leftMostChild);
             } else {
@@ -129,11 +536,222 @@ public class FibonacciHeap {
             first = null;
             size = 0;
             countHeapTrees = 0;
+            clearRootRanks();
+        }
+        if (deleted != null) {
+            release(deleted);
+        }
+    }
+
+    /**
+     * public V poll()
+     * <p>
+     * Deletes the node containing the minimum key and returns its value.
+     * Returns null if the heap is empty (or if the minimum carries no value).
+     * complexity: W.C: O(n), amortized O(logn)
+     */
+    public V poll() {
+        if (min == null) {
+            return null;
+        }
+        V value = min.value;
+        deleteMin();
+        return value;
+    }
+
+    /**
+     * public V peek()
+     * <p>
+     * Returns the value of the node whose key is minimal, or null if the heap is empty.
+     * complexity O(1)
+     */
+    public V peek() {
+        return min == null ? null : min.value;
+    }
+
+    /**
+     * public int pollMin(int k, int[] out)
+     * <p>
+     * Deletes the min(k, size) smallest keys and writes them to out in ascending order.
+     * <p>
+     * Calling deleteMin k times consolidates the root list k times. Instead, the roots are put in a binary heap
+     * once, every extracted node is replaced there by its children, and the remaining roots are consolidated
+     * a single time at the end.
+     * complexity: O(#trees + k*deg*log(#trees + k*deg)) plus one consolidation.
+     *
+     * @return the number of keys deleted.
+     */
+    public int pollMin(int k, int[] out) {
+        if (k > out.length) {
+            throw new IndexOutOfBoundsException("k=" + k + " but out has length " + out.length);
+        }
+        return pollBatch(k, out, null);
+    }
+
+    /**
+     * public int drainTo(IntConsumer consumer, int max)
+     * <p>
+     * Deletes the min(max, size) smallest keys and passes them to the consumer in ascending order,
+     * sharing one consolidation like pollMin. The consumer must not access this heap.
+     *
+     * @return the number of keys deleted.
+     */
+    public int drainTo(IntConsumer consumer, int max) {
+        return pollBatch(max, null, consumer);
+    }
+
+    private int pollBatch(int k, int[] out, IntConsumer consumer) {
+        clearSettled();  // the roots are consolidated eagerly below, and settled again
+        int count = rootsToCandidates();
+        int polled = 0;
+        while (polled < k && count > 0) {
+            HeapNode<V> x = candidates[0];
+            if (out != null) {
+                out[polled] = x.key;
+            } else {
+                consumer.accept(x.key);
+            }
+            polled += 1;
+            // replace x by its first child and push the other children.
+            HeapNode<V> c = x.child;
+            if (c == null) {
+                candidates[0] = candidates[--count];
+                candidates[count] = null;  // candidatesToRoots only clears [0, count)
+                siftDown(count, 0);
+            } else {
+                ensureCandidates(count + x.rank);
+                HeapNode<V> tmp = c.next;
+                makeRoot(c);
+                candidates[0] = c;
+                siftDown(count, 0);
+                while (tmp != c) {
+                    HeapNode<V> nextChild = tmp.next;
+                    makeRoot(tmp);
+                    candidates[count] = tmp;
+                    siftUp(count++);
+                    tmp = nextChild;
+                }
+            }
+            release(x);
+        }
+        size -= polled;
+        metrics.deleteMins(polled);
+        candidatesToRoots(count);
+        return polled;
+    }
+
+    private void makeRoot(HeapNode<V> x) {
+        x.parent = null;
+        if (x.mark) {
+            x.mark = false;
+            countMarks -= 1;
+        }
+    }
+
+    /**
+     * puts all roots in the candidates array and heapifies it (Floyd). complexity: O(#trees)
+     *
+     * @return the number of roots.
+     */
+    private int rootsToCandidates() {
+        if (isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        HeapNode<V> x = first;
+        do {
+            ensureCandidates(count + 1);
+            candidates[count++] = x;
+            x = x.next;
+        } while (x != first);
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(count, i);
+        }
+        return count;
+    }
+
+    /**
+     * makes the first count candidates the root list again and consolidates it.
+     */
+    private void candidatesToRoots(int count) {
+        if (count == 0) {
+            first = null;
+            min = null;
+            countHeapTrees = 0;
+            clearRootRanks();
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            HeapNode<V> x = candidates[i];
+            HeapNode<V> next = candidates[i + 1 < count ? i + 1 : 0];
+            x.next = next;
+            next.prev = x;
+        }
+        first = candidates[0];
+        Arrays.fill(candidates, 0, count, null);
+        consolidate(first);
+    }
+
+    private void ensureCandidates(int length) {
+        if (length > candidates.length) {
+            candidates = Arrays.copyOf(candidates, Math.max(length, 2 * candidates.length));
+        }
+    }
+
+    private void siftUp(int i) {
+        HeapNode<V> x = candidates[i];
+        while (i > 0 && candidates[(i - 1) / 2].key > x.key) {
+            candidates[i] = candidates[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        candidates[i] = x;
+    }
+
+    private void siftDown(int count, int i) {
+        HeapNode<V> x = candidates[i];
+        while (2 * i + 1 < count) {
+            int c = 2 * i + 1;
+            if (c + 1 < count && candidates[c + 1].key < candidates[c].key) {
+                c += 1;
+            }
+            if (candidates[c].key >= x.key) {
+                break;
+            }
+            candidates[i] = candidates[c];
+            i = c;
         }
+        candidates[i] = x;
+    }
 
+    private HeapNode<V> newNode(int key, V value) {
+        if (pool == null) {
+            return new HeapNode<>(key, value);
+        }
+        HeapNode<V> node = pool;
+        pool = node.next;
+        pooled -= 1;
+        node.reset(key, value);
+        return node;
+    }
+
+    /**
+     * Returns a node that was unlinked from the heap to the pool, if pooling is enabled and the pool is not full.
+     * complexity: O(1)
+     */
+    private void release(HeapNode<V> node) {
+        if (pooled < poolCapacity) {
+            node.child = null;
+            node.parent = null;
+            node.prev = null;
+            node.value = null;
+            node.generation += 1;  // odd while the node waits in the pool
+            node.next = pool;
+            pool = node;
+            pooled += 1;
+        }
     }
 
-    private void connectChildrenToRoots(HeapNode leftMostChild, HeapNode rightMostChild) {
+    private void connectChildrenToRoots(HeapNode<V> leftMostChild, HeapNode<V> rightMostChild) {
         // detach edges and attach them to the right
         leftMostChild.prev = min.prev;
         leftMostChild.prev.next = leftMostChild;
@@ -142,12 +760,13 @@ public class FibonacciHeap {
 
     }
 
-    private void transformChildrenToRoots(HeapNode firstChild) {
-        HeapNode tmp = firstChild;
+    private void transformChildrenToRoots(HeapNode<V> firstChild) {
+        HeapNode<V> tmp = firstChild;
         do {
             // make the current child a root.
             tmp.parent = null;
             countHeapTrees += 1;
+            addRoot(tmp.rank);
 
             if (tmp.mark) {
                 tmp.mark = false;
@@ -157,15 +776,42 @@ public class FibonacciHeap {
         } while (tmp != firstChild);
     }
 
-    private void consolidate(HeapNode firsNode) {
-        fromBuckets(toBuckets(firsNode));
+    private void consolidate(HeapNode<V> firsNode) {
+        HeapEvents.Consolidate event = new HeapEvents.Consolidate();
+        if (event.isEnabled()) {
+            event.begin();
+        }
+        int rootListLength = toBuckets(firsNode);
+        int links = pendingLinks;
+        fromBuckets();
+        if (consolidationBudget > 0) {
+            settleAll();
+        }
+        metrics.consolidated(rootListLength, links);
+        pendingLinks = 0;
+        if (event.shouldCommit()) {
+            event.rootsBefore = rootListLength;
+            event.rootsAfter = countHeapTrees;
+            event.links = links;
+            event.heapSize = size;
+            event.commit();
+        }
     }
 
-    private HeapNode[] toBuckets(HeapNode x) {
-        HeapNode y;
-        HeapNode[] buckets = new HeapNode[(int) Math.ceil(Math.log(size) / Math.log(2)) + 1];
+    /**
+     * Links the trees of the root list starting at x into the buckets, one tree per rank.
+     * The buckets are allocated only when the heap grows past what they can serve.
+     * complexity: O(#trees + #links)
+     *
+     * @return the length of the root list.
+     */
+    private int toBuckets(HeapNode<V> x) {
+        HeapNode<V> y;
+        int rootListLength = 0;
+        ensureBuckets(size);
         x.prev.next = null;
         while (x != null) {
+            rootListLength += 1;
             y = x;
             x = x.next;
             while (buckets[y.rank] != null) {
@@ -174,17 +820,27 @@ public class FibonacciHeap {
                 buckets[y.rank - 1] = null;  // empty the "used" bucket
             }
             buckets[y.rank] = y;  // move the linked tree y to its new bucket at y.rank (the new rank after linking)
+            maxBucket = Math.max(maxBucket, y.rank);
         }
-        return buckets;
+        return rootListLength;
     }
 
-    private void fromBuckets(HeapNode[] buckets) {
+    /**
+     * Collects the trees from the buckets into a new root list, emptying every bucket on the way,
+     * so the buckets are clean for the next consolidation. The rank histogram is rebuilt on the way too,
+     * so toBuckets does not have to maintain it link by link.
+     */
+    private void fromBuckets() {
         countHeapTrees = 0;
+        clearRootRanks();
         first = null;
-        HeapNode curr = null;
-        for (HeapNode tree : buckets) {
+        HeapNode<V> curr = null;
+        for (int i = 0; i <= maxBucket; i++) {
+            HeapNode<V> tree = buckets[i];
             if (tree != null) {
+                buckets[i] = null;
                 countHeapTrees += 1;
+                addRoot(i);
                 if (first != null) {
                     curr.next = tree;
                     tree.prev = curr;
@@ -197,12 +853,200 @@ public class FibonacciHeap {
                 }
             }
         }
+        maxBucket = -1;
         if (first != null) {
             first.prev = curr;
             curr.next = first;
         }
     }
 
+    /**
+     * Deletes the minimum without consolidating the whole root list: the children of the minimum become
+     * pending roots, at most consolidationBudget links are made, and the new minimum is found among the roots.
+     * complexity: O(deg + consolidationBudget + #trees)
+     */
+    private void removeMinIncrementally() {
+        HeapNode<V> deleted = min;
+        if (deleted == null) {
+            return;
+        }
+        unlinkRoot(deleted);
+        size -= 1;
+        countHeapTrees -= 1;
+        rootRanks[deleted.rank] -= 1;
+        HeapNode<V> child = deleted.child;
+        if (child != null) {
+            transformChildrenToRoots(child);
+            if (first == null) {
+                first = child;
+            } else {
+                // put the children in front of the pending roots.
+                HeapNode<V> lastChild = child.prev;
+                lastChild.next = first;
+                child.prev = first.prev;
+                first.prev.next = child;
+                first.prev = lastChild;
+                first = child;
+            }
+        }
+        consolidateIncrementally();
+        min = null;
+        if (first != null) {
+            HeapNode<V> x = first;
+            min = x;
+            do {
+                updateMin(x);
+                x = x.next;
+            } while (x != first);
+        }
+        release(deleted);
+    }
+
+    /**
+     * Moves pending roots into the settled part, starting from the last pending root, until
+     * consolidationBudget links were made or no root is pending.
+     * A pending root whose bucket is free is settled there; otherwise it is linked with the settled tree of its
+     * rank, and the linked tree takes its place as the last pending root.
+     * complexity: O(consolidationBudget + logn)
+     */
+    private void consolidateIncrementally() {
+        ensureBuckets(size);
+        int links = 0;
+        while (first != settled && links < consolidationBudget) {
+            HeapNode<V> p = settled == null ? first.prev : settled.prev;
+            HeapNode<V> s = buckets[p.rank];
+            if (s == null) {
+                buckets[p.rank] = p;
+                settled = p;
+                maxBucket = Math.max(maxBucket, p.rank);
+                continue;
+            }
+            buckets[p.rank] = null;
+            unlinkRoot(s);
+            if (!(p.key < s.key)) {
+                // s becomes the parent (see link), so it takes the place of p in the root list.
+                if (p.next == p) {
+                    s.next = s;
+                    s.prev = s;
+                } else {
+                    s.next = p.next;
+                    s.prev = p.prev;
+                    s.prev.next = s;
+                    s.next.prev = s;
+                }
+                if (first == p) {
+                    first = s;
+                }
+                if (min == p) {
+                    min = s;  // equal keys: p goes below s
+                }
+            }
+            int rank = p.rank;
+            rootRanks[rank] -= 2;
+            link(p, s);
+            countHeapTrees -= 1;
+            addRoot(rank + 1);
+            links += 1;
+        }
+        metrics.incrementalLinks(pendingLinks);
+        pendingLinks = 0;
+    }
+
+    /**
+     * Removes the root x from the root list (and from its bucket, if it is settled).
+     */
+    private void unlinkRoot(HeapNode<V> x) {
+        if (x.rank < buckets.length && buckets[x.rank] == x) {
+            buckets[x.rank] = null;
+        }
+        if (x == settled) {
+            settled = x.next == first ? null : x.next;
+        }
+        if (x == first) {
+            first = x.next == x ? null : x.next;
+        }
+        x.prev.next = x.next;
+        x.next.prev = x.prev;
+    }
+
+    /**
+     * Empties the buckets, so every root is pending (or the heap is back to eager consolidation).
+     */
+    private void clearSettled() {
+        for (int i = 0; i <= maxBucket; i++) {
+            buckets[i] = null;
+        }
+        maxBucket = -1;
+        settled = null;
+    }
+
+    /**
+     * Settles every root after an eager consolidation left at most one tree per rank.
+     */
+    private void settleAll() {
+        settled = first;
+        if (first != null) {
+            HeapNode<V> x = first;
+            do {
+                buckets[x.rank] = x;
+                maxBucket = Math.max(maxBucket, x.rank);
+                x = x.next;
+            } while (x != first);
+        }
+    }
+
+    /**
+     * Makes sure there is a bucket for every rank a tree can have in a heap of n nodes.
+     * A tree of rank r has at least F(r+2) nodes, so the largest rank is below log_phi(n) + 1.
+     */
+    private void ensureBuckets(int n) {
+        if (n > bucketsLimit) {
+            int length = maxRank(n) + 1;
+            buckets = Arrays.copyOf(buckets, length);
+            bucketsLimit = (int) Math.min(minSizeOfRank(length) - 1, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * public static HeapNode[] newHandles(int length)
+     * <p>
+     * Returns an array of length nulls for keeping handles, such as one per vertex or job, which Java cannot
+     * create for the generic HeapNode&lt;V&gt; directly.
+     * complexity: O(length)
+     */
+    public static <V> HeapNode<V>[] newHandles(int length) {
+        return newArray(length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> HeapNode<V>[] newArray(int length) {
+        return (HeapNode<V>[]) new HeapNode<?>[length];
+    }
+
+    /**
+     * @return the largest rank of a tree in a Fibonacci heap with n nodes.
+     */
+    static int maxRank(int n) {
+        int rank = 0;
+        while (minSizeOfRank(rank + 1) <= n) {
+            rank += 1;
+        }
+        return rank;
+    }
+
+    /**
+     * @return F(rank+2), the minimal number of nodes in a tree of the given rank.
+     */
+    static long minSizeOfRank(int rank) {
+        long a = 1, b = 1;  // F(1), F(2)
+        for (int i = 0; i < rank; i++) {
+            long c = a + b;
+            a = b;
+            b = c;
+        }
+        return b;
+    }
+
 
     /**
      * public HeapNode findMin()
@@ -210,7 +1054,7 @@ public class FibonacciHeap {
      * Returns the node of the heap whose key is minimal, or null if the heap is empty.
      * complexity O(1)
      */
-    public HeapNode findMin() {
+    public HeapNode<V> findMin() {
         return min;// should be replaced by student code
     }
 
@@ -218,23 +1062,65 @@ public class FibonacciHeap {
      * public void meld (FibonacciHeap heap2)
      * <p>
      * Melds heap2 with the current heap.
-     * Preforms a "lazy" meld by concatenating heap2 to the right of this heap.
-     * complexity: O(1)
+     * Preforms a "lazy" meld by concatenating heap2 to the right of this heap, and adds up the rank
+     * histograms of the two heaps.
+     * complexity: O(max rank of heap2)
      */
-    public void meld(FibonacciHeap heap2) {
+    public void meld(FibonacciHeap<V> heap2) {
         if ((heap2 != null) && !heap2.isEmpty()) {
+            HeapEvents.Meld event = new HeapEvents.Meld();
+            if (event.shouldCommit()) {
+                event.size = size;
+                event.meldedSize = heap2.size;
+                event.meldedTrees = heap2.countHeapTrees;
+                event.commit();
+            }
+            for (int rank = 0; rank <= heap2.maxRootRank; rank++) {
+                if (heap2.rootRanks[rank] != 0) {
+                    addRoot(rank, heap2.rootRanks[rank]);
+                }
+            }
             size += heap2.size;
             countHeapTrees += heap2.countHeapTrees;
             countMarks += heap2.countMarks;
-            HeapNode heap2Last = heap2.first.prev;
+            if (first == null) {
+                // this heap is empty: take over the root list of heap2.
+                first = heap2.first;
+                min = heap2.min;
+                return;
+            }
+            HeapNode<V> heap2Last = heap2.first.prev;
             heap2Last.next = first;
             first.prev.next = heap2.first;
             heap2.first.prev = first.prev;
             first.prev = heap2Last;
             updateMin(heap2.min);
+            if (consolidationBudget > 0) {
+                first = heap2.first;  // the melded roots are pending
+            }
         }
     }
 
+    /**
+     * public int getKey(HeapNode x)
+     * <p>
+     * Returns the key of x, see IntPriorityQueue.
+     * complexity: O(1)
+     */
+    public int getKey(HeapNode<V> x) {
+        return x.key;
+    }
+
+    /**
+     * public V getValue(HeapNode x)
+     * <p>
+     * Returns the value of x, see IntValueQueue.
+     * complexity: O(1)
+     */
+    public V getValue(HeapNode<V> x) {
+        return x.value;
+    }
+
     /**
      * public int size()
      * <p>
@@ -245,7 +1131,7 @@ public class FibonacciHeap {
         return size; // should be replaced by student code
     }
 
-    private void updateMin(HeapNode node) {
+    private void updateMin(HeapNode<V> node) {
         if (node.key < min.key) {
             min = node;
         }
@@ -256,51 +1142,62 @@ public class FibonacciHeap {
      * <p>
      * Return an array of counters. The i-th entry contains the number of trees of order i in the heap.
      * Note: The size of the array depends on the maximum order of a tree, and an empty heap returns an empty array.
+     * The counters are kept up to date by every operation that adds, removes or links roots, so no root is visited.
+     * complexity: O(max rank)
      */
     public int[] countersRep() {
-        int[] array;
-        // heapOrder will hold the order of the tree with maximum order in the heap.
-        if (!isEmpty()) {
-            int heapOrder = heapOrder();
-            // calculates the maximal order in the heap.
-            array = new int[heapOrder + 1];
-            fillCounters(array);
-        } else {
-            // an empty heap returns an empty array.
-            array = new int[0];
+        // an empty heap returns an empty array.
+        return Arrays.copyOf(rootRanks, getMaxRootRank() + 1);
+    }
+
+    /**
+     * public int getMaxRootRank()
+     * <p>
+     * Returns the largest rank of a root, or -1 if the heap is empty.
+     * complexity: amortized O(1)
+     */
+    public int getMaxRootRank() {
+        while (maxRootRank >= 0 && rootRanks[maxRootRank] == 0) {
+            maxRootRank -= 1;
         }
-        return array; //	 to be replaced by student code
+        return maxRootRank;
     }
 
-    private int heapOrder() {
-        int res = 0;
-        HeapNode node = this.first;
-        for (int i = 1; i <= countHeapTrees; i++) {
-            res = Math.max(node.rank, res);
-            node = node.next;
+    private void addRoot(int rank) {
+        rootRanks[rank] += 1;
+        if (rank > maxRootRank) {
+            maxRootRank = rank;
         }
-        return res;
     }
 
-    private void fillCounters(int[] array) {
-        HeapNode node = first;
-        array[node.rank] += 1;
-        while (node.next != first) {
-            node = node.next;
-            array[node.rank] += 1;
+    private void addRoot(int rank, int count) {
+        rootRanks[rank] += count;
+        if (rank > maxRootRank) {
+            maxRootRank = rank;
         }
     }
 
+    private void clearRootRanks() {
+        Arrays.fill(rootRanks, 0, maxRootRank + 1, 0);
+        maxRootRank = -1;
+    }
+
     /**
      * public void delete(HeapNode x)
      * <p>
      * Deletes the node x from the heap.
      * It is assumed that x indeed belongs to the heap.
+     * x is cut to the root list as if its key was decreased below every other key, and then removed as the
+     * minimum. The key itself is never changed, so no key arithmetic can overflow or tie with another key.
      */
-    public void delete(HeapNode x) {
-        int delta = x.key - Integer.MIN_VALUE;
-        decreaseKey(x, delta);
-        deleteMin();
+    public void delete(HeapNode<V> x) {
+        checkLive(x);
+        if (x.parent != null)
+            cutToRoots(x);
+        metrics.delete(pendingCuts);
+        pendingCuts = 0;
+        min = x;
+        removeMin();
     }
 
     /**
@@ -310,17 +1207,75 @@ public class FibonacciHeap {
      * to reflect this change (for example, the cascading cuts procedure should be applied if needed).
      * complexity: amortized O(1)
      */
-    public void decreaseKey(HeapNode x, int delta) {
+    public void decreaseKey(HeapNode<V> x, int delta) {
+        checkLive(x);
+        long start = metrics.start();
         x.key = x.key - delta;
         // check if new minNode
         updateMin(x);
 //         invariant violation check
         if (x.parent != null && x.parent.key > x.key)
-            cascadingCut(x, x.parent);
+            cutToRoots(x);
+        metrics.decreaseKey(start, pendingCuts);
+        pendingCuts = 0;
+    }
+
+    /**
+     * public void decreaseKey(HeapNode x, int generation, int delta)
+     * <p>
+     * Same as decreaseKey(x, delta), but first verifies that x was not recycled since the caller
+     * read generation from it (x.getGeneration() right after insert).
+     *
+     * @throws IllegalStateException if the handle is stale.
+     */
+    public void decreaseKey(HeapNode<V> x, int generation, int delta) {
+        checkGeneration(x, generation);
+        decreaseKey(x, delta);
+    }
+
+    /**
+     * public void delete(HeapNode x, int generation)
+     * <p>
+     * Same as delete(x), but first verifies that x was not recycled since the caller read generation from it.
+     *
+     * @throws IllegalStateException if the handle is stale.
+     */
+    public void delete(HeapNode<V> x, int generation) {
+        checkGeneration(x, generation);
+        delete(x);
+    }
+
+    private static void checkGeneration(HeapNode<?> x, int generation) {
+        if (x.generation != generation) {
+            throw new IllegalStateException("stale handle: node was recycled (generation " + generation
+                    + ", now " + x.generation + ")");
+        }
     }
 
-    private void cut(HeapNode x, HeapNode y) {
-        countCuts += 1;
+    private static void checkLive(HeapNode<?> x) {
+        if ((x.generation & 1) != 0) {
+            throw new IllegalStateException("node was deleted and is waiting in the node pool");
+        }
+    }
+
+    /**
+     * cuts x from its parent with cascadingCut, reporting the chain to the flight recorder.
+     */
+    private void cutToRoots(HeapNode<V> x) {
+        HeapEvents.CascadingCut event = new HeapEvents.CascadingCut();
+        if (event.isEnabled()) {
+            event.begin();
+        }
+        cascadingCut(x, x.parent);
+        if (event.shouldCommit()) {
+            event.depth = pendingCuts;
+            event.heapSize = size;
+            event.commit();
+        }
+    }
+
+    private void cut(HeapNode<V> x, HeapNode<V> y) {
+        pendingCuts += 1;
         countHeapTrees += 1;  // cut adds a new root to the heap
         x.parent = null;
         if (x.mark) {
@@ -328,6 +1283,11 @@ public class FibonacciHeap {
             countMarks -= 1;
         }
         y.rank -= 1;
+        addRoot(x.rank);
+        if (y.parent == null) {
+            rootRanks[y.rank + 1] -= 1;
+            rootRanks[y.rank] += 1;
+        }
         if (x.next == x) {
             // node is the only sibling
             y.child = null;
@@ -338,6 +1298,16 @@ public class FibonacciHeap {
                 y.child = x.next;
         }
         first.addSibling(x);
+        if (consolidationBudget > 0) {
+            first = x;  // x is pending
+            if (y.parent == null && y.rank + 1 < buckets.length && buckets[y.rank + 1] == y) {
+                // y lost a child, so it no longer fits its bucket: it is pending again.
+                buckets[y.rank + 1] = null;
+                unlinkRoot(y);
+                first.addSibling(y);
+                first = y;
+            }
+        }
     }
 
     /**
@@ -347,19 +1317,22 @@ public class FibonacciHeap {
      * @param x is the child to preform a cut on.
      * @param y is the parent whose child has removed as a result of the operation.
      *          <p>
-     *          the implementation is based on the pseudo code given in slide 78.
+     *          the implementation is based on the pseudo code given in slide 78, with the recursion on the
+     *          marked ancestors turned into a loop: interleaved decreaseKey/deleteMin can build a marked chain
+     *          as deep as the heap is large (see AdversarialChains), which must not cost a stack frame per cut.
      *          </p>
-     *          complexity: amortized O(1). W.C O(logn).
+     *          complexity: amortized O(1). W.C O(depth of x).
      */
-    private void cascadingCut(HeapNode x, HeapNode y) {
+    private void cascadingCut(HeapNode<V> x, HeapNode<V> y) {
         cut(x, y);
+        while (!y.isRoot() && y.mark) {
+            HeapNode<V> parent = y.parent;
+            cut(y, parent);
+            y = parent;
+        }
         if (!y.isRoot()) {
-            if (!y.mark) {
-                y.mark = true;
-                countMarks += 1;
-            } else {
-                cascadingCut(y, y.parent);
-            }
+            y.mark = true;
+            countMarks += 1;
         }
     }
 
@@ -385,7 +1358,7 @@ public class FibonacciHeap {
      * tree which has larger value in its root under the other tree.
      */
     public static int totalLinks() {
-        return countLinks; // should be replaced by student code
+        return (int) HeapMetrics.TOTAL_LINKS.sum();
     }
 
     /**
@@ -395,8 +1368,8 @@ public class FibonacciHeap {
      * @param y second node to link
      * @return the parent of the new linked tree
      */
-    private HeapNode link(HeapNode x, HeapNode y) {
-        HeapNode child, parent;
+    private HeapNode<V> link(HeapNode<V> x, HeapNode<V> y) {
+        HeapNode<V> child, parent;
         if (x.key < y.key) {
             child = y;
             parent = x;
@@ -405,7 +1378,7 @@ public class FibonacciHeap {
             parent = y;
         }
         parent.addChild(child);
-        countLinks += 1;
+        pendingLinks += 1;
         return parent;
     }
 
@@ -417,50 +1390,356 @@ public class FibonacciHeap {
      * from its parent (during decreaseKey/delete methods).
      */
     public static int totalCuts() {
-        return countCuts; // should be replaced by student code
+        return (int) HeapMetrics.TOTAL_CUTS.sum();
     }
 
     /**
      * public static int[] kMin(FibonacciHeap H, int k)
      * <p>
-     * This static function returns the k smallest elements in a Fibonacci heap that contains a single tree.
-     * The function should run in O(k*deg(H)). (deg(H) is the degree of the only tree in H.)
+     * This static function returns the min(k, size) smallest elements in a Fibonacci heap, in ascending order.
      * <p>
      * ###CRITICAL### : you are NOT allowed to change H.
-     * we are using a technic we saw at homework 4 that is based on creating a helper heap of size k.
-     * each time the next min candidates will be inserted to the helper heap. finally, using findMin on the helper heap
-     * we will be able to construct the kMin array.
-     * complexity: O(k*deg(H)).
-     */
-    public static int[] kMin(FibonacciHeap H, int k) {
-        int[] res = new int[k];
-        FibonacciHeap help = new FibonacciHeap();
-        HeapNode tmpMin, tmpMinFirstChild;
-        if (H != null && H.min != null) {
-            // initially insert the current minimum node.
-            help.insert(H.min.key, H.min);
-            for (int i = 0; i < k; i++) {
-                tmpMin = help.findMin();
-                res[i] = tmpMin.key;
-                tmpMinFirstChild = tmpMin.info.child;
-                if (tmpMinFirstChild != null)
-                    addMinCandidates(help, tmpMinFirstChild);
-                help.deleteMin();
-            }
-            return res; // should be replaced by student code
-        }
-        return new int[0];
-    }
-
-    private static void addMinCandidates(FibonacciHeap help, HeapNode first) {
-        HeapNode cur = first;
-        do {
-            help.insert(cur.getKey(), cur);
-            cur = cur.getNext();
-        } while (cur != first);
+     * The candidates for the next minimum (first all the roots, then the children of every returned node)
+     * are kept in a binary heap, see sortedView.
+     * complexity: O(#trees + k*deg(H)*log(#trees + k*deg(H))), O(k*deg(H)*log(k*deg(H))) for a single tree.
+     */
+    public static int[] kMin(FibonacciHeap<?> H, int k) {
+        if (H == null || H.isEmpty() || k <= 0) {
+            return new int[0];
+        }
+        int[] res = new int[Math.min(k, H.size)];
+        PrimitiveIterator.OfInt view = H.sortedView();
+        for (int i = 0; i < res.length; i++) {
+            res[i] = view.nextInt();
+        }
+        return res;
+    }
+
+    /**
+     * public PrimitiveIterator.OfInt sortedView()
+     * <p>
+     * Returns an iterator over the keys of the heap in ascending order, without changing the heap.
+     * Every step pops the smallest candidate and pushes its children, so stopping after a few keys costs only
+     * those few steps. The heap must not be changed while the iterator is in use.
+     * complexity: O(#trees) to create, O(deg*log(#candidates)) per key.
+     */
+    public PrimitiveIterator.OfInt sortedView() {
+        return new SortedView(first, countHeapTrees);
+    }
+
+    /**
+     * A binary heap of the nodes that may hold the next smallest key: a node is a candidate once its parent
+     * was returned (or it is a root).
+     */
+    private static final class SortedView implements PrimitiveIterator.OfInt {
+        private HeapNode<?>[] candidates;
+        private int count = 0;
+
+        SortedView(HeapNode<?> first, int trees) {
+            candidates = new HeapNode<?>[Math.max(trees, 8)];
+            if (first != null) {
+                HeapNode<?> x = first;
+                do {
+                    if (count == candidates.length) {
+                        candidates = Arrays.copyOf(candidates, 2 * count);
+                    }
+                    candidates[count++] = x;
+                    x = x.next;
+                } while (x != first);
+                for (int i = count / 2 - 1; i >= 0; i--) {
+                    siftDown(i);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return count > 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (count == 0) {
+                throw new NoSuchElementException();
+            }
+            HeapNode<?> x = candidates[0];
+            candidates[0] = candidates[--count];
+            candidates[count] = null;
+            siftDown(0);
+            if (x.child != null) {
+                HeapNode<?> c = x.child;
+                do {
+                    push(c);
+                    c = c.next;
+                } while (c != x.child);
+            }
+            return x.key;
+        }
+
+        private void push(HeapNode<?> x) {
+            if (count == candidates.length) {
+                candidates = Arrays.copyOf(candidates, 2 * count);
+            }
+            int i = count++;
+            while (i > 0 && candidates[(i - 1) / 2].key > x.key) {
+                candidates[i] = candidates[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            candidates[i] = x;
+        }
+
+        private void siftDown(int i) {
+            if (count == 0) {
+                return;
+            }
+            HeapNode<?> x = candidates[i];
+            while (2 * i + 1 < count) {
+                int c = 2 * i + 1;
+                if (c + 1 < count && candidates[c + 1].key < candidates[c].key) {
+                    c += 1;
+                }
+                if (candidates[c].key >= x.key) {
+                    break;
+                }
+                candidates[i] = candidates[c];
+                i = c;
+            }
+            candidates[i] = x;
+        }
+    }
+
+    /**
+     * public IntStream drainingStream()
+     * <p>
+     * Returns a lazy stream of the keys in ascending order that deletes every key it passes on, so a
+     * short-circuiting pipeline such as drainingStream().limit(k) deletes only the k smallest keys.
+     * Traversing the rest of the stream drains it like drainTo, and a parallel stream splits off ascending
+     * prefixes deleted by pollMin. The heap must not be changed in any other way while the stream is in use.
+     * complexity: amortized O(log(n)) per key.
+     */
+    public IntStream drainingStream() {
+        return StreamSupport.intStream(new DrainingSpliterator(this), false);
     }
 
-    public HeapNode getFirst() {
+    /**
+     * Pops the minima of a heap on demand. It is not SIZED even though the size of the heap is known: a SIZED
+     * stream may answer count() without traversing it, and so without deleting anything.
+     */
+    private static final class DrainingSpliterator implements Spliterator.OfInt {
+        private static final int MAX_BATCH = 1 << 20;
+        private final FibonacciHeap<?> heap;
+        private int batch = 1 << 10;  // the size of the next prefix split off, doubled every time
+
+        DrainingSpliterator(FibonacciHeap<?> heap) {
+            this.heap = heap;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (heap.isEmpty()) {
+                return false;
+            }
+            int key = heap.findMin().key;
+            heap.deleteMin();
+            action.accept(key);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            heap.drainTo(action, heap.size);
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int n = Math.min(batch, heap.size);
+            if (n == 0) {
+                return null;
+            }
+            int[] prefix = new int[n];
+            heap.pollMin(n, prefix);
+            batch = Math.min(2 * batch, MAX_BATCH);
+            return Spliterators.spliterator(prefix, 0, n, characteristics());
+        }
+
+        @Override
+        public long estimateSize() {
+            return heap.size;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | NONNULL;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null;  // natural order
+        }
+    }
+
+    /**
+     * public Spliterator<HeapNode<V>> nodes()
+     * <p>
+     * Returns a spliterator over all the nodes of the heap in no particular order, without changing the heap.
+     * It is SIZED until it is split. trySplit hands over subtrees holding about half of the nodes left, weighing a
+     * tree of rank r as 2^r nodes, and a subtree too large for that is first replaced by its children while
+     * its root stays behind, so a parallel stream fans out evenly even over a single tree.
+     * The heap must not be changed while the spliterator is in use.
+     * complexity: O(#trees) to create, O(1) amortized per node, O(log(n) * #subtrees left) per split.
+     */
+    public Spliterator<HeapNode<V>> nodes() {
+        NodeSpliterator<V> nodes = new NodeSpliterator<>(newArray(Math.max(countHeapTrees, 8)), 0, size, true);
+        if (first != null) {
+            HeapNode<V> x = first;
+            do {
+                nodes.push(x);
+                x = x.next;
+            } while (x != first);
+        }
+        return nodes;
+    }
+
+    /**
+     * A stack of subtrees traversed in pre-order, and the roots that a split separated from their children.
+     */
+    private static final class NodeSpliterator<V> implements Spliterator<HeapNode<V>> {
+        private HeapNode<V>[] subtrees;  // subtrees[0..count) are traversed whole
+        private int count;
+        private HeapNode<V>[] roots = newArray(0);  // roots[0..rootCount) are visited without their children
+        private int rootCount = 0;
+        private long estimate;  // exact while sized
+        private boolean sized;
+
+        NodeSpliterator(HeapNode<V>[] subtrees, int count, long estimate, boolean sized) {
+            this.subtrees = subtrees;
+            this.count = count;
+            this.estimate = estimate;
+            this.sized = sized;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super HeapNode<V>> action) {
+            HeapNode<V> x;
+            if (rootCount > 0) {
+                x = roots[--rootCount];
+                roots[rootCount] = null;
+            } else if (count > 0) {
+                x = subtrees[--count];
+                subtrees[count] = null;
+                pushChildren(x);
+            } else {
+                return false;
+            }
+            if (estimate > 0) {
+                estimate -= 1;
+            }
+            action.accept(x);
+            return true;
+        }
+
+        @Override
+        public Spliterator<HeapNode<V>> trySplit() {
+            long total = weight();
+            int largest = largest();
+            while (count > 0 && 2 * weight(subtrees[largest]) > total && subtrees[largest].child != null) {
+                // a subtree holds most of the nodes: keep its root and split its children instead.
+                HeapNode<V> x = subtrees[largest];
+                subtrees[largest] = subtrees[--count];
+                subtrees[count] = null;
+                if (rootCount == roots.length) {
+                    roots = Arrays.copyOf(roots, Math.max(2 * rootCount, 8));
+                }
+                roots[rootCount++] = x;
+                pushChildren(x);
+                total = weight();
+                largest = largest();
+            }
+            // hand over subtrees up to half of the weight, and keep the others.
+            HeapNode<V>[] split = newArray(count);
+            int splitCount = 0, kept = 0;
+            long splitWeight = 0;
+            for (int i = 0; i < count; i++) {
+                HeapNode<V> x = subtrees[i];
+                if (2 * (splitWeight + weight(x)) <= total) {
+                    split[splitCount++] = x;
+                    splitWeight += weight(x);
+                } else {
+                    subtrees[kept++] = x;
+                }
+            }
+            if (splitCount == 0) {
+                return null;
+            }
+            Arrays.fill(subtrees, kept, count, null);
+            count = kept;
+            long splitEstimate = (long) ((double) estimate * splitWeight / total);
+            estimate -= splitEstimate;
+            sized = false;
+            return new NodeSpliterator<>(split, splitCount, splitEstimate, false);
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return DISTINCT | NONNULL | (sized ? SIZED : 0);
+        }
+
+        /**
+         * @return the weight of the subtrees left, see weight(HeapNode).
+         */
+        private long weight() {
+            long total = 0;
+            for (int i = 0; i < count; i++) {
+                total += weight(subtrees[i]);
+            }
+            return total;
+        }
+
+        /**
+         * @return the size of a tree of the rank of x that was linked and never cut, which is what trees
+         * are after a consolidation, so splits by weight are close to splits by size.
+         */
+        private static long weight(HeapNode<?> x) {
+            return 1L << x.rank;
+        }
+
+        /**
+         * @return the index of the subtree of the largest rank, or -1 if there are none.
+         */
+        private int largest() {
+            int largest = -1;
+            for (int i = 0; i < count; i++) {
+                if (largest < 0 || subtrees[i].rank > subtrees[largest].rank) {
+                    largest = i;
+                }
+            }
+            return largest;
+        }
+
+        private void pushChildren(HeapNode<V> x) {
+            HeapNode<V> c = x.child;
+            if (c != null) {
+                do {
+                    push(c);
+                    c = c.next;
+                } while (c != x.child);
+            }
+        }
+
+        private void push(HeapNode<V> x) {
+            if (count == subtrees.length) {
+                subtrees = Arrays.copyOf(subtrees, Math.max(2 * count, 8));
+            }
+            subtrees[count++] = x;
+        }
+    }
+
+    public HeapNode<V> getFirst() {
         return first;
     }
 
@@ -470,11 +1749,13 @@ public class FibonacciHeap {
      * If you wish to implement classes other than FibonacciHeap
      * (for example HeapNode), do it in this file, not in another file.
      */
-    public static class HeapNode {
+    public static class HeapNode<V> {
         private int key;
         private int rank;
         private boolean mark;
-        private HeapNode child, next, prev, parent, info;
+        private int generation;  // bumped whenever a pooled heap releases or reuses the node
+        private HeapNode<V> child, next, prev, parent;
+        private V value;
 
 
         /**
@@ -489,15 +1770,42 @@ public class FibonacciHeap {
             // pointers will initialized to default (null)
         }
 
-        public HeapNode(int key, HeapNode info) {
+        public HeapNode(int key, V value) {
             this(key);
-            this.info = info;
+            this.value = value;
         }
 
         public int getKey() {
             return this.key;
         }
 
+        public V getValue() {
+            return this.value;
+        }
+
+        public void setValue(V value) {
+            this.value = value;
+        }
+
+        /**
+         * @return the generation of this node. It changes every time a pooling heap recycles the node,
+         * so (node, generation) identifies a single entry of the heap.
+         */
+        public int getGeneration() {
+            return generation;
+        }
+
+        /**
+         * prepares a pooled node to be inserted again with a new key.
+         */
+        private void reset(int key, V value) {
+            this.key = key;
+            this.value = value;
+            this.rank = 0;
+            this.mark = false;
+            this.generation += 1;  // even again: the node is live
+        }
+
         public boolean isRoot() {
             return this.parent == null;
         }
@@ -511,7 +1819,7 @@ public class FibonacciHeap {
          * @pre s.mark == false
          * </p>
          */
-        public void addSibling(HeapNode s) {
+        public void addSibling(HeapNode<V> s) {
             s.prev = prev;
             prev.next = s;
             if (!isRoot()) {
@@ -554,7 +1862,7 @@ public class FibonacciHeap {
          *
          * @param c this node's new child.
          */
-        public void addChild(HeapNode c) {
+        public void addChild(HeapNode<V> c) {
             c.parent = this;
             if (child == null) {
                 // this node has no children (i.e a leaf or rank 0)
@@ -577,19 +1885,19 @@ public class FibonacciHeap {
             return mark;
         }
 
-        public HeapNode getParent() {
+        public HeapNode<V> getParent() {
             return parent;
         }
 
-        public HeapNode getNext() {
+        public HeapNode<V> getNext() {
             return next;
         }
 
-        public HeapNode getPrev() {
+        public HeapNode<V> getPrev() {
             return prev;
         }
 
-        public HeapNode getChild() {
+        public HeapNode<V> getChild() {
             return child;
         }
     }
@@ -4,14 +4,14 @@ import java.util.Collections;
 public class FibonacciHeapTester {
 
     static Heap heap;
-    static FibonacciHeap fibonacciHeap;
+    static FibonacciHeap<Void> fibonacciHeap;
     static double grade;
     static double testScore;
 
     public static void main(String[] args) {
 
         if (false){
-            fibonacciHeap = new FibonacciHeap();
+            fibonacciHeap = new FibonacciHeap<>();
 
             ArrayList<Integer> numbers = new ArrayList<>();
 
@@ -181,7 +181,7 @@ public class FibonacciHeapTester {
 
     static void test0() {
         String test = "test0";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
         ArrayList<Integer> numbers = new ArrayList<>();
 
@@ -207,7 +207,7 @@ public class FibonacciHeapTester {
     static void test1() {
         String test = "test1";
         heap = new Heap();
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
         addKeys(0);
         while (!heap.isEmpty()) {
             if (heap.findMin() != fibonacciHeap.findMin().getKey() || heap.size() != fibonacciHeap.size()) {
@@ -224,7 +224,7 @@ public class FibonacciHeapTester {
     static void test2() {
         String test = "test2";
         heap = new Heap();
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
         addKeysReverse(0);
         while (!heap.isEmpty()) {
             if (heap.findMin() != fibonacciHeap.findMin().getKey() || heap.size() != fibonacciHeap.size()) {
@@ -241,7 +241,7 @@ public class FibonacciHeapTester {
     static void test3() {
         String test = "test3";
         heap = new Heap();
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
         addKeys(0);
         addKeysReverse(4000);
         addKeys(2000);
@@ -260,7 +260,7 @@ public class FibonacciHeapTester {
     static void test4() {
         String test = "test4";
         heap = new Heap();
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
         addKeys(0);
         addKeysReverse(4000);
         addKeys(2000);
@@ -292,7 +292,7 @@ public class FibonacciHeapTester {
 
     static void test5() {
         String test = "test5";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
         addKeys(0);
         addKeys(0);
         addKeys(0);
@@ -312,7 +312,7 @@ public class FibonacciHeapTester {
 
     static void test6() {
         String test = "test6";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
         addKeysReverse(1000);
         addKeysReverse(1000);
         addKeys(0);
@@ -338,11 +338,11 @@ public class FibonacciHeapTester {
     static void test7() {
         String test = "test7";
         heap = new Heap();
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
         addKeys(1000); // adds 1000 up to 1999
         addKeysReverse(3000);  // adds 3999 down to 3000
         // 2000
-        ArrayList<FibonacciHeap.HeapNode> nodes = new ArrayList<>();
+        ArrayList<FibonacciHeap.HeapNode<Void>> nodes = new ArrayList<>();
 
         for (int i = 2000; i < 3000; i++) {
             // add to both 2000 up to 2999
@@ -377,11 +377,11 @@ public class FibonacciHeapTester {
     static void test8() {
         String test = "test8";
         heap = new Heap();
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
         addKeys(7000);
         addKeysReverse(9000);
 
-        ArrayList<FibonacciHeap.HeapNode> nodes = new ArrayList<>();
+        ArrayList<FibonacciHeap.HeapNode<Void>> nodes = new ArrayList<>();
 
         for (int i = 2000; i < 3000; i++) {
             heap.insert(i);
@@ -412,11 +412,11 @@ public class FibonacciHeapTester {
     static void test9() {
         String test = "test9";
         heap = new Heap();
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
         addKeys(7000);
         addKeysReverse(9000);
 
-        ArrayList<FibonacciHeap.HeapNode> nodes = new ArrayList<>();
+        ArrayList<FibonacciHeap.HeapNode<Void>> nodes = new ArrayList<>();
 
         for (int i = 2000; i < 3000; i++) {
             heap.insert(i);
@@ -447,11 +447,11 @@ public class FibonacciHeapTester {
     static void test10() {
         String test = "test10";
         heap = new Heap();
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
         addKeys(7000);
         addKeysReverse(9000);
 
-        ArrayList<FibonacciHeap.HeapNode> nodes = new ArrayList<>();
+        ArrayList<FibonacciHeap.HeapNode<Void>> nodes = new ArrayList<>();
 
         for (int i = 2000; i < 3000; i++) {
             heap.insert(i);
@@ -484,9 +484,9 @@ public class FibonacciHeapTester {
 
     static void test11() {
         String test = "test11";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
         addKeys(1000);
-        FibonacciHeap.HeapNode h = fibonacciHeap.insert(9999);
+        FibonacciHeap.HeapNode<Void> h = fibonacciHeap.insert(9999);
         fibonacciHeap.decreaseKey(h, 9999);
 
         if (0 != fibonacciHeap.findMin().getKey()) {
@@ -509,9 +509,9 @@ public class FibonacciHeapTester {
 
     static void test12() {
         String test = "test12";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
         addKeys(1000);
-        FibonacciHeap.HeapNode h = fibonacciHeap.insert(5000);
+        FibonacciHeap.HeapNode<Void> h = fibonacciHeap.insert(5000);
         fibonacciHeap.decreaseKey(h, 4000);
 
 
@@ -537,9 +537,9 @@ public class FibonacciHeapTester {
 
     static void test13() {
         String test = "test13";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
         addKeys(1000);
-        FibonacciHeap.HeapNode h = fibonacciHeap.insert(9000);
+        FibonacciHeap.HeapNode<Void> h = fibonacciHeap.insert(9000);
         fibonacciHeap.decreaseKey(h, 4000);
 
         for (int i = 1000; i < 2000; i++) {
@@ -561,10 +561,10 @@ public class FibonacciHeapTester {
 
     static void test14() {
         String test = "test14";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
         addKeys(1000);
         addKeysReverse(7000);
-        FibonacciHeap.HeapNode h = fibonacciHeap.insert(9000);
+        FibonacciHeap.HeapNode<Void> h = fibonacciHeap.insert(9000);
         fibonacciHeap.decreaseKey(h, 4000);
 
         for (int i = 1000; i < 2000; i++) {
@@ -595,7 +595,7 @@ public class FibonacciHeapTester {
 
     static void test15() {
         String test = "test15";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
         for (int i = 1000; i < 10000; i += 1000) {
             addKeys(i);
@@ -603,7 +603,7 @@ public class FibonacciHeapTester {
 
         fibonacciHeap.deleteMin();
 
-        FibonacciHeap.HeapNode h = fibonacciHeap.insert(99999);
+        FibonacciHeap.HeapNode<Void> h = fibonacciHeap.insert(99999);
         fibonacciHeap.decreaseKey(h, 99999);
 
         if (0 != fibonacciHeap.findMin().getKey()) {
@@ -626,7 +626,7 @@ public class FibonacciHeapTester {
 
     static void test16() {
         String test = "test16";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
         int cuts = FibonacciHeap.totalCuts();
         int links = FibonacciHeap.totalLinks();
@@ -644,7 +644,7 @@ public class FibonacciHeapTester {
 
     static void test17() {
         String test = "test17";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
         int cuts = FibonacciHeap.totalCuts();
         int links = FibonacciHeap.totalLinks();
@@ -664,7 +664,7 @@ public class FibonacciHeapTester {
 
     static void test18() {
         String test = "test18";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
         int cuts = FibonacciHeap.totalCuts();
         int links = FibonacciHeap.totalLinks();
@@ -693,14 +693,14 @@ public class FibonacciHeapTester {
 
     static void test19() {
         String test = "test19";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
         int cuts = FibonacciHeap.totalCuts();
         int links = FibonacciHeap.totalLinks();
 
         fibonacciHeap.insert(4);
         fibonacciHeap.insert(5);
-        FibonacciHeap.HeapNode node = fibonacciHeap.insert(6);
+        FibonacciHeap.HeapNode<Void> node = fibonacciHeap.insert(6);
         fibonacciHeap.deleteMin();
 
         fibonacciHeap.insert(1);
@@ -721,13 +721,13 @@ public class FibonacciHeapTester {
 
     static void test20() {
         String test = "test20";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
 
 
         fibonacciHeap.insert(4);
-        FibonacciHeap.HeapNode node5 = fibonacciHeap.insert(5);
-        FibonacciHeap.HeapNode node6 = fibonacciHeap.insert(6);
+        FibonacciHeap.HeapNode<Void> node5 = fibonacciHeap.insert(5);
+        FibonacciHeap.HeapNode<Void> node6 = fibonacciHeap.insert(6);
         fibonacciHeap.deleteMin();
 
         fibonacciHeap.insert(1);
@@ -752,13 +752,13 @@ public class FibonacciHeapTester {
 
     static void test21() {
         String test = "test21";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
         int treeSize = 32768;
         int sizeToDelete = 1000;
 
 
-        ArrayList<FibonacciHeap.HeapNode> nodes = new ArrayList<>();
+        ArrayList<FibonacciHeap.HeapNode<Void>> nodes = new ArrayList<>();
 
         for (int i = treeSize; i < treeSize * 2; i++) {
             nodes.add(fibonacciHeap.insert(i));
@@ -778,12 +778,12 @@ public class FibonacciHeapTester {
 
     static void test22() {
         String test = "test22";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
         int treeSize = 32768;
         int sizeToDelete = 1000;
 
-        ArrayList<FibonacciHeap.HeapNode> nodes = new ArrayList<>();
+        ArrayList<FibonacciHeap.HeapNode<Void>> nodes = new ArrayList<>();
 
         for (int i = treeSize; i < treeSize * 2; i++) {
             nodes.add(fibonacciHeap.insert(i));
@@ -828,7 +828,7 @@ public class FibonacciHeapTester {
 
     static void test23() {
         String test = "test23";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
         int size = 1000;
         int totalCuts = FibonacciHeap.totalCuts();
@@ -846,7 +846,7 @@ public class FibonacciHeapTester {
 
     static void test24() {
         String test = "test24";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
         int size = 2000;
         int totalCuts = FibonacciHeap.totalCuts();
@@ -864,7 +864,7 @@ public class FibonacciHeapTester {
 
     static void test25() {
         String test = "test25";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
         int size = 3000;
         int totalCuts = FibonacciHeap.totalCuts();
@@ -882,7 +882,7 @@ public class FibonacciHeapTester {
 
     static void test26() {
         String test = "test26";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
         int size = 1000;
         int totalCuts = FibonacciHeap.totalCuts();
@@ -908,7 +908,7 @@ public class FibonacciHeapTester {
 
     static void test27() {
         String test = "test27";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
         int size = 2000;
         int totalCuts = FibonacciHeap.totalCuts();
@@ -934,7 +934,7 @@ public class FibonacciHeapTester {
 
     static void test28() {
         String test = "test28";
-        fibonacciHeap = new FibonacciHeap();
+        fibonacciHeap = new FibonacciHeap<>();
 
         int size = 3000;
         int totalCuts = FibonacciHeap.totalCuts();
@@ -0,0 +1,2082 @@
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Tests for the extensions of FibonacciHeap and the heap variants that live next to it.
+ * The randomized tests replay the same workload on the heap and on java.util.PriorityQueue
+ * and compare their minimums.
+ */
+public class FibonacciHeapVariantsTester {
+
+    static final int size = 10000;
+    static int bugs = 0;
+    static Random random = new Random(206867517);
+
+    public static void main(String[] args) {
+        try {
+            testArrayHeapSorts();
+        } catch (Exception e) {
+            bugFound("testArrayHeapSorts");
+        }
+        try {
+            testArrayHeapRandomOps();
+        } catch (Exception e) {
+            bugFound("testArrayHeapRandomOps");
+        }
+        try {
+            testArrayHeapMeldAndKMin();
+        } catch (Exception e) {
+            bugFound("testArrayHeapMeldAndKMin");
+        }
+        try {
+            testDeleteMinAllocationFree();
+        } catch (Exception e) {
+            bugFound("testDeleteMinAllocationFree");
+        }
+        try {
+            testNodePool();
+        } catch (Exception e) {
+            bugFound("testNodePool");
+        }
+        try {
+            testValues();
+        } catch (Exception e) {
+            bugFound("testValues");
+        }
+        try {
+            testKeySpecializations();
+        } catch (Exception e) {
+            bugFound("testKeySpecializations");
+        }
+        try {
+            testDeleteWithExtremeKeys();
+        } catch (Exception e) {
+            bugFound("testDeleteWithExtremeKeys");
+        }
+        try {
+            testGraphEngines();
+        } catch (Exception e) {
+            bugFound("testGraphEngines");
+        }
+        try {
+            testMultiQueue();
+        } catch (Exception e) {
+            bugFound("testMultiQueue");
+        }
+        try {
+            testInsertAll();
+        } catch (Exception e) {
+            bugFound("testInsertAll");
+        }
+        try {
+            testPollMin();
+        } catch (Exception e) {
+            bugFound("testPollMin");
+        }
+        try {
+            testKMinForest();
+        } catch (Exception e) {
+            bugFound("testKMinForest");
+        }
+        try {
+            testMetrics();
+        } catch (Exception e) {
+            bugFound("testMetrics");
+        }
+        try {
+            testFlightRecorderEvents();
+        } catch (Exception e) {
+            bugFound("testFlightRecorderEvents");
+        }
+        try {
+            testIncrementalConsolidation();
+        } catch (Exception e) {
+            bugFound("testIncrementalConsolidation");
+        }
+        try {
+            testDeepCascadingCut();
+        } catch (Exception e) {
+            bugFound("testDeepCascadingCut");
+        }
+        try {
+            testIntPriorityQueues();
+        } catch (Exception e) {
+            bugFound("testIntPriorityQueues");
+        }
+        try {
+            testStrictFibonacciHeap();
+        } catch (Exception e) {
+            bugFound("testStrictFibonacciHeap");
+        }
+        try {
+            testIndexedDaryHeap();
+        } catch (Exception e) {
+            bugFound("testIndexedDaryHeap");
+        }
+        try {
+            testRadixHeap();
+        } catch (Exception e) {
+            bugFound("testRadixHeap");
+        }
+        try {
+            testRankHistogram();
+        } catch (Exception e) {
+            bugFound("testRankHistogram");
+        }
+        try {
+            testSnapshot();
+        } catch (Exception e) {
+            bugFound("testSnapshot");
+        }
+        try {
+            testDurableHeap();
+        } catch (Exception e) {
+            bugFound("testDurableHeap");
+        }
+        try {
+            testDurableHeapWriteFailure();
+        } catch (Exception e) {
+            bugFound("testDurableHeapWriteFailure");
+        }
+        try {
+            testDurableHeapCheckpointCleanupFailure();
+        } catch (Exception e) {
+            bugFound("testDurableHeapCheckpointCleanupFailure");
+        }
+        try {
+            testExternalPriorityQueue();
+        } catch (Exception e) {
+            bugFound("testExternalPriorityQueue");
+        }
+        try {
+            testExternalSort();
+        } catch (Exception e) {
+            bugFound("testExternalSort");
+        }
+        try {
+            testStreams();
+        } catch (Exception e) {
+            bugFound("testStreams");
+        }
+
+        System.out.println(bugs == 0 ? "all variant tests passed" : bugs + " variant tests failed");
+    }
+
+    static void testArrayHeapSorts() {
+        String test = "testArrayHeapSorts";
+        ArrayFibonacciHeap arrayHeap = new ArrayFibonacciHeap();
+        ArrayList<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            numbers.add(i);
+        }
+        Collections.shuffle(numbers, random);
+        for (int i = 0; i < size; i++) {
+            arrayHeap.insert(numbers.get(i));
+        }
+        for (int i = 0; i < size; i++) {
+            if (arrayHeap.getKey(arrayHeap.findMin()) != i || arrayHeap.size() != size - i) {
+                bugFound(test);
+                return;
+            }
+            arrayHeap.deleteMin();
+        }
+        if (!arrayHeap.isEmpty() || arrayHeap.findMin() != ArrayFibonacciHeap.NIL)
+            bugFound(test);
+    }
+
+    static void testArrayHeapRandomOps() {
+        String test = "testArrayHeapRandomOps";
+        ArrayFibonacciHeap arrayHeap = new ArrayFibonacciHeap(4);
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        ArrayList<Integer> handles = new ArrayList<>();
+        for (int i = 0; i < 5 * size; i++) {
+            int op = random.nextInt(10);
+            if (op < 5 || handles.isEmpty()) {
+                int key = random.nextInt(1 << 20);
+                handles.add(arrayHeap.insert(key));
+                expected.add(key);
+            } else if (op < 7) {
+                int h = handles.get(random.nextInt(handles.size()));
+                int key = arrayHeap.getKey(h);
+                int delta = random.nextInt(1000);
+                expected.remove(key);
+                expected.add(key - delta);
+                arrayHeap.decreaseKey(h, delta);
+            } else if (op < 8) {
+                int index = random.nextInt(handles.size());
+                int h = handles.get(index);
+                expected.remove(arrayHeap.getKey(h));
+                arrayHeap.delete(h);
+                handles.set(index, handles.get(handles.size() - 1));
+                handles.remove(handles.size() - 1);
+            } else {
+                int h = arrayHeap.findMin();
+                expected.poll();
+                arrayHeap.deleteMin();
+                handles.remove((Integer) h);
+            }
+            if (arrayHeap.size() != expected.size() ||
+                    (!expected.isEmpty() && arrayHeap.getKey(arrayHeap.findMin()) != expected.peek())) {
+                bugFound(test);
+                return;
+            }
+        }
+        // the counters belong to the heap: another heap's operations do not show up in them.
+        HeapMetrics metrics = arrayHeap.metrics();
+        long links = metrics.links(), cuts = metrics.cuts();
+        ArrayFibonacciHeap other = new ArrayFibonacciHeap();
+        for (int i = 0; i < 100; i++) {
+            other.insert(i);
+        }
+        other.deleteMin();
+        if (links == 0 || cuts == 0 || metrics.links() != links || metrics.cuts() != cuts ||
+                other.metrics().links() == 0 || other.metrics().inserts() != 100 || other.metrics().deleteMins() != 1)
+            bugFound(test);
+    }
+
+    static void testArrayHeapMeldAndKMin() {
+        String test = "testArrayHeapMeldAndKMin";
+        ArrayFibonacciHeap h1 = new ArrayFibonacciHeap();
+        ArrayFibonacciHeap h2 = new ArrayFibonacciHeap();
+        for (int i = 0; i < 1000; i++) {
+            h1.insert(2 * i);
+            h2.insert(2 * i + 1);
+        }
+        int h2Max = h2.insert(5000);
+        h1.deleteMin();
+        h2.deleteMin();
+        int offset = h1.meld(h2);
+        if (h1.size() != 1999 || !h2.isEmpty() || h1.getKey(h2Max + offset) != 5000) {
+            bugFound(test);
+            return;
+        }
+        ArrayFibonacciHeap single = new ArrayFibonacciHeap();
+        for (int i = 0; i < 33; i++) {
+            single.insert(i);
+        }
+        single.deleteMin();  // 32 nodes consolidate to a single tree
+        int[] kMin = ArrayFibonacciHeap.kMin(single, 10);
+        for (int i = 0; i < 10; i++) {
+            if (kMin[i] != i + 1) {
+                bugFound(test);
+                return;
+            }
+        }
+        if (single.size() != 32 || single.getCountHeapTrees() != 1)
+            bugFound(test);
+    }
+
+    /**
+     * after a warmup round, consolidation must reuse the heap's buckets and allocate nothing.
+     * <p>
+     * deleteMin creates a flight recorder event (see HeapEvents), which the JIT only removes once it compiled
+     * consolidate, so deleteMin is warmed up on a scratch heap first.
+     */
+    static void testDeleteMinAllocationFree() {
+        String test = "testDeleteMinAllocationFree";
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int round = 0; round < 50; round++) {
+            FibonacciHeap<Void> scratch = new FibonacciHeap<>();
+            for (int i = 0; i < size; i++) {
+                scratch.insert(random.nextInt());
+            }
+            while (!scratch.isEmpty()) {
+                scratch.deleteMin();
+            }
+        }
+        FibonacciHeap<Void> fibonacciHeap = new FibonacciHeap<>();
+        ArrayFibonacciHeap arrayHeap = new ArrayFibonacciHeap(2 * size);
+        for (int i = 0; i < 2 * size; i++) {
+            int key = random.nextInt();
+            fibonacciHeap.insert(key);
+            arrayHeap.insert(key);
+        }
+        for (int i = 0; i < size; i++) {
+            fibonacciHeap.deleteMin();
+            arrayHeap.deleteMin();
+        }
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < size / 2; i++) {
+            fibonacciHeap.deleteMin();
+        }
+        long nodeBytes = threads.getThreadAllocatedBytes(thread) - before;
+        before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < size / 2; i++) {
+            arrayHeap.deleteMin();
+        }
+        long arrayBytes = threads.getThreadAllocatedBytes(thread) - before;
+        if (nodeBytes != 0 || arrayBytes != 0) {
+            System.out.println("deleteMin allocated " + nodeBytes + " / " + arrayBytes + " bytes");
+            bugFound(test);
+        }
+    }
+
+    static void testNodePool() {
+        String test = "testNodePool";
+        FibonacciHeap<Void> pooledHeap = new FibonacciHeap<>(16);
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        for (int i = 0; i < size; i++) {
+            int key = random.nextInt(1 << 20);
+            pooledHeap.insert(key);
+            expected.add(key);
+            if (random.nextBoolean()) {
+                pooledHeap.deleteMin();
+                expected.poll();
+            }
+            if (pooledHeap.size() != expected.size() ||
+                    (!expected.isEmpty() && pooledHeap.findMin().getKey() != expected.peek())) {
+                bugFound(test);
+                return;
+            }
+        }
+        FibonacciHeap.HeapNode<Void> node = pooledHeap.insert(-1);
+        int generation = node.getGeneration();
+        pooledHeap.deleteMin();
+        try {
+            pooledHeap.decreaseKey(node, 1);  // node is waiting in the pool
+            bugFound(test);
+            return;
+        } catch (IllegalStateException expectedException) {
+            // stale handle detected
+        }
+        FibonacciHeap.HeapNode<Void> recycled = pooledHeap.insert(-2);
+        if (recycled != node) {
+            bugFound(test);
+            return;
+        }
+        try {
+            pooledHeap.decreaseKey(node, generation, 1);  // node now holds another entry
+            bugFound(test);
+            return;
+        } catch (IllegalStateException expectedException) {
+            // stale handle detected
+        }
+        pooledHeap.decreaseKey(recycled, recycled.getGeneration(), 1);
+        if (pooledHeap.findMin().getKey() != -3)
+            bugFound(test);
+    }
+
+    static void testValues() {
+        String test = "testValues";
+        FibonacciHeap<String> valueHeap = new FibonacciHeap<>(8);
+        ArrayList<FibonacciHeap.HeapNode<String>> nodes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            nodes.add(valueHeap.insert(i + 1000, "job" + i));
+        }
+        valueHeap.decreaseKey(nodes.get(500), 1000);  // job500 now has key 500
+        valueHeap.delete(nodes.get(0));
+        if (!"job500".equals(valueHeap.peek()) || !"job500".equals(valueHeap.poll())) {
+            bugFound(test);
+            return;
+        }
+        for (int i = 1; i < 1000; i++) {
+            if (i != 500 && !("job" + i).equals(valueHeap.poll())) {
+                bugFound(test);
+                return;
+            }
+        }
+        if (valueHeap.poll() != null || valueHeap.peek() != null || !valueHeap.isEmpty())
+            bugFound(test);
+    }
+
+    /**
+     * the long, double and comparator heaps must agree with PriorityQueue on a random workload.
+     */
+    static void testKeySpecializations() {
+        String test = "testKeySpecializations";
+        LongFibonacciHeap<Integer> longHeap = new LongFibonacciHeap<>();
+        DoubleFibonacciHeap<Integer> doubleHeap = new DoubleFibonacciHeap<>();
+        ComparatorFibonacciHeap<String, Integer> stringHeap = ComparatorFibonacciHeap.naturalOrder();
+        PriorityQueue<Long> expected = new PriorityQueue<>();
+        ArrayList<LongFibonacciHeap.HeapNode<Integer>> longNodes = new ArrayList<>();
+        ArrayList<DoubleFibonacciHeap.HeapNode<Integer>> doubleNodes = new ArrayList<>();
+        ArrayList<ComparatorFibonacciHeap.HeapNode<String, Integer>> stringNodes = new ArrayList<>();
+        for (int i = 0; i < 2 * size; i++) {
+            int op = random.nextInt(4);
+            if (op < 2 || expected.isEmpty()) {
+                long key = (long) random.nextInt(1 << 30) << 20;  // beyond int range, still exact in a double
+                expected.add(key);
+                longNodes.add(longHeap.insert(key, i));
+                doubleNodes.add(doubleHeap.insert(key, i));
+                stringNodes.add(stringHeap.insert(String.format("%019d", key), i));
+            } else if (op == 2) {
+                int index = random.nextInt(longNodes.size());
+                LongFibonacciHeap.HeapNode<Integer> node = longNodes.get(index);
+                if (node.getValue() == null) {
+                    continue;  // deleted already
+                }
+                long key = node.getKey();
+                long delta = random.nextInt(1 << 20);
+                expected.remove(key);
+                expected.add(key - delta);
+                longHeap.decreaseKey(node, delta);
+                doubleHeap.decreaseKey(doubleNodes.get(index), delta);
+                stringHeap.decreaseKey(stringNodes.get(index), String.format("%019d", key - delta));
+            } else {
+                expected.poll();
+                longHeap.findMin().setValue(null);  // remember that the node was deleted
+                longHeap.deleteMin();
+                doubleHeap.deleteMin();
+                stringHeap.deleteMin();
+            }
+            if (longHeap.size() != expected.size() || doubleHeap.size() != expected.size() ||
+                    stringHeap.size() != expected.size()) {
+                bugFound(test);
+                return;
+            }
+            if (!expected.isEmpty() && (longHeap.findMin().getKey() != expected.peek() ||
+                    doubleHeap.findMin().getKey() != expected.peek() ||
+                    !stringHeap.findMin().getKey().equals(String.format("%019d", expected.peek())) ||
+                    !longHeap.peek().equals(doubleHeap.peek()) || !longHeap.peek().equals(stringHeap.peek()))) {
+                bugFound(test);
+                return;
+            }
+        }
+        // a negative delta would raise the key, and a delta past Long.MIN_VALUE would wrap around to a large key.
+        LongFibonacciHeap<Void> bounds = new LongFibonacciHeap<>();
+        LongFibonacciHeap.HeapNode<Void> low = bounds.insert(Long.MIN_VALUE + 1);
+        bounds.insert(0);
+        for (long delta : new long[]{-1, 2, Long.MAX_VALUE}) {
+            try {
+                bounds.decreaseKey(low, delta);
+                bugFound(test);
+                return;
+            } catch (IllegalArgumentException | ArithmeticException rejected) {
+                // rejected, and the key is unchanged
+            }
+        }
+        bounds.decreaseKey(low, 1);
+        if (low.getKey() != Long.MIN_VALUE || bounds.findMin() != low) {
+            bugFound(test);
+            return;
+        }
+        // +Inf - +Inf is NaN, which has no place in the order.
+        DoubleFibonacciHeap<Void> infinite = new DoubleFibonacciHeap<>();
+        DoubleFibonacciHeap.HeapNode<Void> top = infinite.insert(Double.POSITIVE_INFINITY);
+        for (double key : new double[]{1.0, 2.0, 3.0}) {
+            infinite.insert(key);
+        }
+        try {
+            infinite.decreaseKey(top, Double.POSITIVE_INFINITY);
+            bugFound(test);
+            return;
+        } catch (IllegalArgumentException rejected) {
+            // rejected, and the key is unchanged
+        }
+        if (top.getKey() != Double.POSITIVE_INFINITY) {
+            bugFound(test);
+            return;
+        }
+        for (double key : new double[]{1.0, 2.0, 3.0, Double.POSITIVE_INFINITY}) {
+            if (infinite.findMin().getKey() != key) {
+                bugFound(test);
+                return;
+            }
+            infinite.deleteMin();
+        }
+    }
+
+    /**
+     * delete used to decrease the key to Integer.MIN_VALUE, which tied with a real MIN_VALUE key.
+     */
+    static void testDeleteWithExtremeKeys() {
+        String test = "testDeleteWithExtremeKeys";
+        FibonacciHeap<Void> fibonacciHeap = new FibonacciHeap<>();
+        fibonacciHeap.insert(Integer.MIN_VALUE);
+        FibonacciHeap.HeapNode<Void> node = fibonacciHeap.insert(Integer.MAX_VALUE);
+        fibonacciHeap.insert(-7);
+        fibonacciHeap.deleteMin();
+        fibonacciHeap.insert(Integer.MIN_VALUE);
+        fibonacciHeap.delete(node);
+        if (fibonacciHeap.size() != 2 || fibonacciHeap.findMin().getKey() != Integer.MIN_VALUE) {
+            bugFound(test);
+            return;
+        }
+        fibonacciHeap.deleteMin();
+        if (fibonacciHeap.findMin().getKey() != -7) {
+            bugFound(test);
+            return;
+        }
+        LongFibonacciHeap<Void> longHeap = new LongFibonacciHeap<>();
+        longHeap.insert(Long.MIN_VALUE);
+        LongFibonacciHeap.HeapNode<Void> longNode = longHeap.insert(Long.MAX_VALUE);
+        longHeap.delete(longNode);
+        if (longHeap.size() != 1 || longHeap.findMin().getKey() != Long.MIN_VALUE)
+            bugFound(test);
+    }
+
+    /**
+     * Dijkstra and Prim on FibonacciHeap must agree with their lazy binary-heap variants,
+     * and Dijkstra with Bellman-Ford.
+     */
+    static void testGraphEngines() {
+        String test = "testGraphEngines";
+        for (int round = 0; round < 20; round++) {
+            int n = 1 + random.nextInt(200);
+            CsrGraph g = CsrGraph.random(n, random.nextInt(4 * n), 1 + random.nextInt(100), round % 2 == 0,
+                    random.nextLong());
+            int source = random.nextInt(n);
+            int[] dist = ShortestPaths.dijkstra(g, source);
+            int[] lazy = ShortestPaths.dijkstraLazy(g, source);
+            int[] pairing = ShortestPaths.dijkstra(g, source, new PairingHeap<Integer>());
+            int[] strict = ShortestPaths.dijkstra(g, source, new StrictFibonacciHeap<Integer>());
+            int[] radix = ShortestPaths.dijkstra(g, source, new RadixHeap().asQueue());
+            long[] expected = new long[n];
+            Arrays.fill(expected, ShortestPaths.UNREACHABLE);
+            expected[source] = 0;
+            for (int i = 0; i < n; i++) {
+                for (int v = 0; v < n; v++) {
+                    for (int e = g.firstEdge(v); e < g.endEdge(v); e++) {
+                        if (expected[v] != ShortestPaths.UNREACHABLE) {
+                            expected[g.target(e)] = Math.min(expected[g.target(e)], expected[v] + g.weight(e));
+                        }
+                    }
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                if (dist[v] != expected[v] || lazy[v] != expected[v] || pairing[v] != expected[v]
+                        || strict[v] != expected[v] || radix[v] != expected[v]) {
+                    bugFound(test);
+                    return;
+                }
+            }
+            if (round % 2 == 0) {
+                MinimumSpanningTree mst = MinimumSpanningTree.prim(g);
+                if (mst.totalWeight() != MinimumSpanningTree.primLazy(g).totalWeight()) {
+                    bugFound(test);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * concurrent inserts and polls must return every key exactly once.
+     */
+    static void testMultiQueue() throws InterruptedException {
+        String test = "testMultiQueue";
+        MultiQueue<Integer> queue = new MultiQueue<>(8);
+        int threads = 4;
+        AtomicIntegerArray seen = new AtomicIntegerArray(size);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            workers[t] = new Thread(() -> {
+                for (int key = first; key < size; key += threads) {
+                    queue.insert(key, key);
+                    if (key % 3 == 0) {
+                        MultiQueue.Entry<Integer> entry = queue.poll();
+                        seen.incrementAndGet(entry.value());
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        MultiQueue.Entry<Integer> entry;
+        while ((entry = queue.poll()) != null) {
+            if (entry.value() != entry.key()) {
+                bugFound(test);
+                return;
+            }
+            seen.incrementAndGet(entry.key());
+        }
+        for (int key = 0; key < size; key++) {
+            if (seen.get(key) != 1) {
+                bugFound(test);
+                return;
+            }
+        }
+        if (!queue.isEmpty())
+            bugFound(test);
+    }
+
+    static void testInsertAll() {
+        String test = "testInsertAll";
+        int[] keys = new int[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt();
+        }
+        FibonacciHeap<Void> bulk = FibonacciHeap.of(keys);
+        // 1000 = 0b1111101000: one binomial tree per 1-bit.
+        int[] expectedCounters = {0, 0, 0, 1, 0, 1, 1, 1, 1, 1};
+        if (bulk.size() != 1000 || bulk.getCountHeapTrees() != 6 ||
+                !Arrays.equals(bulk.countersRep(), expectedCounters)) {
+            bugFound(test);
+            return;
+        }
+        bulk.insert(5);
+        bulk.insertAll(keys, 10, 13);  // melds two more trees into a non-empty heap
+        int[] sorted = new int[1004];
+        System.arraycopy(keys, 0, sorted, 0, 1000);
+        sorted[1000] = 5;
+        System.arraycopy(keys, 10, sorted, 1001, 3);
+        Arrays.sort(sorted);
+        for (int key : sorted) {
+            if (bulk.findMin().getKey() != key) {
+                bugFound(test);
+                return;
+            }
+            bulk.deleteMin();
+        }
+        if (!bulk.isEmpty())
+            bugFound(test);
+    }
+
+    static void testPollMin() {
+        String test = "testPollMin";
+        FibonacciHeap<Void> fibonacciHeap = new FibonacciHeap<>(64);
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        ArrayList<FibonacciHeap.HeapNode<Void>> nodes = new ArrayList<>();
+        int[] out = new int[300];
+        for (int round = 0; round < 200; round++) {
+            for (int i = random.nextInt(300); i > 0; i--) {
+                int key = random.nextInt(1 << 20);
+                nodes.add(fibonacciHeap.insert(key));
+                expected.add(key);
+            }
+            if (!expected.isEmpty()) {
+                fibonacciHeap.deleteMin();  // builds trees, so that pollMin meets children and marks
+                expected.poll();
+            }
+            for (int i = 0; i < 20 && !nodes.isEmpty(); i++) {
+                FibonacciHeap.HeapNode<Void> node = nodes.get(random.nextInt(nodes.size()));
+                if (node.getGeneration() % 2 == 0 && expected.remove(node.getKey())) {
+                    fibonacciHeap.decreaseKey(node, 1);
+                    expected.add(node.getKey());
+                }
+            }
+            nodes.clear();  // the next pollMin may recycle any of them
+            int k = random.nextInt(out.length);
+            int polled = round % 2 == 0 ? fibonacciHeap.pollMin(k, out) : fibonacciHeap.drainTo(new IntConsumer() {
+                int i = 0;
+
+                public void accept(int key) {
+                    out[i++] = key;
+                }
+            }, k);
+            if (polled != Math.min(k, expected.size())) {
+                bugFound(test);
+                return;
+            }
+            for (int i = 0; i < polled; i++) {
+                if (out[i] != expected.poll()) {
+                    bugFound(test);
+                    return;
+                }
+            }
+            if (fibonacciHeap.size() != expected.size() ||
+                    (!expected.isEmpty() && fibonacciHeap.findMin().getKey() != expected.peek())) {
+                bugFound(test);
+                return;
+            }
+        }
+    }
+
+    /**
+     * kMin and sortedView on heaps with many trees, and with k larger than the heap.
+     */
+    static void testKMinForest() {
+        String test = "testKMinForest";
+        FibonacciHeap<Void> fibonacciHeap = new FibonacciHeap<>();
+        ArrayFibonacciHeap arrayHeap = new ArrayFibonacciHeap();
+        int[] keys = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = random.nextInt(size);
+            fibonacciHeap.insert(keys[i]);
+            arrayHeap.insert(keys[i]);
+        }
+        int[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        for (int round = 0; round < 3; round++) {
+            int[] fibonacciMins = FibonacciHeap.kMin(fibonacciHeap, 100);
+            int[] arrayMins = ArrayFibonacciHeap.kMin(arrayHeap, 100);
+            for (int i = 0; i < 100; i++) {
+                if (fibonacciMins[i] != sorted[i + round] || arrayMins[i] != sorted[i + round]) {
+                    bugFound(test);
+                    return;
+                }
+            }
+            PrimitiveIterator.OfInt view = fibonacciHeap.sortedView();
+            for (int i = round; i < size; i++) {
+                if (!view.hasNext() || view.nextInt() != sorted[i]) {
+                    bugFound(test);
+                    return;
+                }
+            }
+            if (view.hasNext() || FibonacciHeap.kMin(fibonacciHeap, size + 5).length != size - round ||
+                    ArrayFibonacciHeap.kMin(arrayHeap, size + 5).length != size - round) {
+                bugFound(test);
+                return;
+            }
+            // the first round saw only singleton roots, the next ones see a consolidated forest.
+            fibonacciHeap.deleteMin();
+            arrayHeap.deleteMin();
+        }
+        if (fibonacciHeap.size() != size - 3 || fibonacciHeap.findMin().getKey() != sorted[3])
+            bugFound(test);
+    }
+
+    /**
+     * two heaps driven by two threads keep separate counters, and the static totals add both up.
+     */
+    static void testMetrics() throws InterruptedException {
+        String test = "testMetrics";
+        int linksBefore = FibonacciHeap.totalLinks();
+        int cutsBefore = FibonacciHeap.totalCuts();
+        ArrayList<FibonacciHeap<Void>> heaps = new ArrayList<>();
+        Thread[] threads = new Thread[2];
+        for (int t = 0; t < threads.length; t++) {
+            FibonacciHeap<Void> fibonacciHeap = new FibonacciHeap<>();
+            heaps.add(fibonacciHeap);
+            int n = (t + 1) * size;
+            threads[t] = new Thread(() -> {
+                ArrayList<FibonacciHeap.HeapNode<Void>> nodes = new ArrayList<>();
+                for (int i = 0; i < n; i++) {
+                    nodes.add(fibonacciHeap.insert(2 * n + i));
+                }
+                fibonacciHeap.deleteMin();
+                for (int i = n - 1; i > n / 2; i--) {
+                    fibonacciHeap.decreaseKey(nodes.get(i), 2 * n);
+                }
+                fibonacciHeap.delete(nodes.get(n / 2));
+            });
+            threads[t].start();
+        }
+        long links = 0, cuts = 0;
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+            HeapMetrics metrics = heaps.get(t).metrics();
+            int n = (t + 1) * size;
+            if (metrics.inserts() != n || metrics.deleteMins() != 1 || metrics.deletes() != 1 ||
+                    metrics.decreaseKeys() != n - 1 - n / 2 || metrics.links() < n - 1 - Integer.bitCount(n - 1) ||
+                    metrics.rootListLengths().count() != 2 || metrics.decreaseKeyLatency().count() == 0) {
+                bugFound(test);
+                return;
+            }
+            long calls = 0;
+            for (long c : metrics.cascadeDepths()) {
+                calls += c;
+            }
+            if (calls != metrics.decreaseKeys() + metrics.deletes()) {
+                bugFound(test);
+                return;
+            }
+            links += metrics.links();
+            cuts += metrics.cuts();
+        }
+        if (FibonacciHeap.totalLinks() - linksBefore != links || FibonacciHeap.totalCuts() - cutsBefore != cuts)
+            bugFound(test);
+    }
+
+    /**
+     * the heap events are recorded once enabled, with the counts the heap itself reports.
+     */
+    static void testFlightRecorderEvents() throws IOException {
+        String test = "testFlightRecorderEvents";
+        Path file = Files.createTempFile("heap-events", ".jfr");
+        FibonacciHeap<Void> fibonacciHeap = new FibonacciHeap<>();
+        FibonacciHeap<Void> other = new FibonacciHeap<>();
+        try (Recording recording = new Recording()) {
+            recording.enable("datastructures.FibonacciHeap.Consolidate").withoutThreshold();
+            recording.enable("datastructures.FibonacciHeap.CascadingCut").withoutThreshold();
+            recording.enable("datastructures.FibonacciHeap.Meld").withoutThreshold();
+            recording.start();
+            if (!new HeapEvents.Consolidate().isEnabled()) {
+                bugFound(test);
+                return;
+            }
+            ArrayList<FibonacciHeap.HeapNode<Void>> nodes = new ArrayList<>();
+            for (int i = 0; i < 1024; i++) {
+                nodes.add(fibonacciHeap.insert(i + 1000));
+                other.insert(i + 5000);
+            }
+            fibonacciHeap.meld(other);
+            fibonacciHeap.deleteMin();
+            for (int i = 1023; i > 900; i--) {
+                fibonacciHeap.decreaseKey(nodes.get(i), 1000);
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        if (new HeapEvents.Consolidate().isEnabled()) {
+            bugFound(test);
+            return;
+        }
+        int consolidations = 0, cuts = 0, melds = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            switch (event.getEventType().getName()) {
+                case "datastructures.FibonacciHeap.Consolidate":
+                    consolidations += 1;
+                    if (event.getInt("rootsBefore") != 2047 || event.getInt("links") != 2047 - 11) {
+                        bugFound(test);
+                    }
+                    break;
+                case "datastructures.FibonacciHeap.CascadingCut":
+                    cuts += event.getInt("depth");
+                    break;
+                case "datastructures.FibonacciHeap.Meld":
+                    melds += 1;
+                    if (event.getInt("meldedSize") != 1024) {
+                        bugFound(test);
+                    }
+                    break;
+                default:
+            }
+        }
+        Files.delete(file);
+        if (consolidations != 1 || melds != 1 || cuts != fibonacciHeap.metrics().cuts())
+            bugFound(test);
+    }
+
+    /**
+     * random operations with a small consolidation budget, checking the minimum and the tree count after every
+     * operation and the number of links of every insert and deleteMin.
+     */
+    static void testIncrementalConsolidation() {
+        String test = "testIncrementalConsolidation";
+        // the small key ranges make equal keys common, which changes which root of a link stays in the root list
+        for (int[] setting : new int[][]{{1, 1 << 20}, {3, 1 << 20}, {16, 1 << 20}, {8, 10}, {20, 20}, {1, 2}}) {
+            int budget = setting[0], keyRange = setting[1];
+            FibonacciHeap<Void> fibonacciHeap = new FibonacciHeap<>();
+            fibonacciHeap.setConsolidationBudget(budget);
+            PriorityQueue<Integer> expected = new PriorityQueue<>();
+            ArrayList<FibonacciHeap.HeapNode<Void>> nodes = new ArrayList<>();
+            for (int i = 0; i < 5 * size; i++) {
+                int op = random.nextInt(20);
+                long links = fibonacciHeap.metrics().links();
+                if (op < 9 || nodes.isEmpty()) {
+                    int key = random.nextInt(keyRange);
+                    nodes.add(fibonacciHeap.insert(key));
+                    expected.add(key);
+                } else if (op < 13) {
+                    FibonacciHeap.HeapNode<Void> node = nodes.get(random.nextInt(nodes.size()));
+                    int delta = random.nextInt(1000);
+                    expected.remove(node.getKey());
+                    expected.add(node.getKey() - delta);
+                    fibonacciHeap.decreaseKey(node, delta);
+                } else if (op < 15) {
+                    int index = random.nextInt(nodes.size());
+                    FibonacciHeap.HeapNode<Void> node = nodes.get(index);
+                    expected.remove(node.getKey());
+                    fibonacciHeap.delete(node);
+                    nodes.set(index, nodes.get(nodes.size() - 1));
+                    nodes.remove(nodes.size() - 1);
+                } else if (op < 19) {
+                    nodes.remove(fibonacciHeap.findMin());
+                    expected.poll();
+                    fibonacciHeap.deleteMin();
+                    if (fibonacciHeap.metrics().links() - links > budget) {
+                        bugFound(test);
+                        return;
+                    }
+                } else if (i % 3 == 0) {
+                    FibonacciHeap<Void> other = new FibonacciHeap<>();
+                    for (int j = 0; j < 50; j++) {
+                        int key = random.nextInt(keyRange);
+                        nodes.add(other.insert(key));
+                        expected.add(key);
+                    }
+                    nodes.remove(other.findMin());
+                    expected.remove(other.findMin().getKey());
+                    other.deleteMin();  // so that the melded roots are trees
+                    fibonacciHeap.meld(other);
+                } else {
+                    int[] out = new int[random.nextInt(20)];
+                    int polled = fibonacciHeap.pollMin(out.length, out);
+                    for (int j = 0; j < polled; j++) {
+                        expected.poll();
+                    }
+                    nodes.clear();
+                }
+                if (fibonacciHeap.size() != expected.size() ||
+                        fibonacciHeap.getCountHeapTrees() != countRoots(fibonacciHeap) ||
+                        (!expected.isEmpty() && (fibonacciHeap.findMin().getKey() != expected.peek() ||
+                                fibonacciHeap.findMin().getParent() != null))) {
+                    bugFound(test);
+                    return;
+                }
+            }
+        }
+        // a burst of inserts links its own backlog, so no deleteMin afterwards links more than the budget.
+        FibonacciHeap<Void> fibonacciHeap = new FibonacciHeap<>();
+        fibonacciHeap.setConsolidationBudget(4);
+        for (int i = 0; i < 10 * size; i++) {
+            fibonacciHeap.insert(random.nextInt());
+        }
+        if (fibonacciHeap.getCountHeapTrees() > 64) {
+            bugFound(test);
+            return;
+        }
+        int previous = Integer.MIN_VALUE;
+        while (!fibonacciHeap.isEmpty()) {
+            long links = fibonacciHeap.metrics().links();
+            int key = fibonacciHeap.findMin().getKey();
+            fibonacciHeap.deleteMin();
+            if (key < previous || fibonacciHeap.metrics().links() - links > 4) {
+                bugFound(test);
+                return;
+            }
+            previous = key;
+        }
+    }
+
+    /**
+     * a marked chain of 200000 nodes is cut by one decreaseKey on a thread with a 256KB stack.
+     */
+    static void testDeepCascadingCut() throws InterruptedException {
+        String test = "testDeepCascadingCut";
+        int depth = 200_000;
+        FibonacciHeap<Void> fibonacciHeap = new FibonacciHeap<>();
+        FibonacciHeap.HeapNode<Void> bottom = AdversarialChains.markedChain(fibonacciHeap, depth);
+        if (fibonacciHeap.getCountHeapTrees() != 1 || fibonacciHeap.getCountMarks() != depth) {
+            bugFound(test);
+            return;
+        }
+        long cuts = fibonacciHeap.metrics().cuts();
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                fibonacciHeap.decreaseKey(bottom, 1 << 30);
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        }, test, 256 * 1024);
+        thread.start();
+        thread.join();
+        if (failure[0] != null || fibonacciHeap.metrics().cuts() - cuts != depth + 1 ||
+                fibonacciHeap.getCountMarks() != 0 || fibonacciHeap.findMin() != bottom) {
+            bugFound(test);
+            return;
+        }
+        int previous = Integer.MIN_VALUE;
+        while (!fibonacciHeap.isEmpty()) {
+            if (fibonacciHeap.findMin().getKey() < previous) {
+                bugFound(test);
+                return;
+            }
+            previous = fibonacciHeap.findMin().getKey();
+            fibonacciHeap.deleteMin();
+        }
+    }
+
+    /**
+     * the same random operations through IntPriorityQueue on FibonacciHeap and PairingHeap, and PairingHeap.meld.
+     */
+    static void testIntPriorityQueues() {
+        String test = "testIntPriorityQueues";
+        if (!randomOps(new FibonacciHeap<Void>()) || !randomOps(new PairingHeap<Void>())) {
+            bugFound(test);
+            return;
+        }
+        PairingHeap<Void> pairingHeap = new PairingHeap<>();
+        PairingHeap<Void> other = new PairingHeap<>();
+        for (int i = 0; i < size; i++) {
+            pairingHeap.insert(2 * i);
+            other.insert(2 * i + 1);
+        }
+        pairingHeap.meld(other);
+        for (int i = 0; i < 2 * size; i++) {
+            if (pairingHeap.findMin().getKey() != i) {
+                bugFound(test);
+                return;
+            }
+            pairingHeap.deleteMin();
+        }
+        if (!pairingHeap.isEmpty() || pairingHeap.size() != 0 || !other.isEmpty())
+            bugFound(test);
+    }
+
+    static void testStrictFibonacciHeap() {
+        String test = "testStrictFibonacciHeap";
+        if (!randomOps(new StrictFibonacciHeap<Void>())) {
+            bugFound(test);
+            return;
+        }
+        // random operations and melds, with the invariants checked along the way (verify throws)
+        StrictFibonacciHeap<Integer> heap = new StrictFibonacciHeap<>();
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        ArrayList<StrictFibonacciHeap.Node<Integer>> handles = new ArrayList<>();
+        for (int i = 0; i < 5 * size; i++) {
+            int op = random.nextInt(10);
+            if (op < 4 || handles.isEmpty()) {
+                int key = random.nextInt(1 << 20);
+                handles.add(heap.insert(key, key));
+                expected.add(key);
+            } else if (op < 7) {
+                StrictFibonacciHeap.Node<Integer> h = handles.get(random.nextInt(handles.size()));
+                int delta = random.nextInt(1000);
+                expected.remove(h.getKey());
+                expected.add(h.getKey() - delta);
+                heap.decreaseKey(h, delta);
+                h.setValue(h.getKey());
+            } else if (op < 8) {
+                int index = random.nextInt(handles.size());
+                expected.remove(handles.get(index).getKey());
+                heap.delete(handles.get(index));
+                handles.set(index, handles.get(handles.size() - 1));
+                handles.remove(handles.size() - 1);
+            } else if (op < 9) {
+                StrictFibonacciHeap<Integer> other = new StrictFibonacciHeap<>();
+                for (int j = random.nextInt(100); j > 0; j--) {
+                    int key = random.nextInt(1 << 20);
+                    handles.add(other.insert(key, key));
+                    expected.add(key);
+                }
+                StrictFibonacciHeap.Node<Integer> min = other.findMin();
+                if (min != null && random.nextBoolean()) {
+                    expected.remove(min.getKey());
+                    handles.remove(min);
+                    other.deleteMin();  // leaves active nodes in the smaller heap
+                }
+                if (random.nextBoolean()) {
+                    heap.meld(other);
+                } else {
+                    other.meld(heap);
+                    heap = other;
+                }
+            } else {
+                StrictFibonacciHeap.Node<Integer> min = heap.findMin();
+                if (!min.getValue().equals(min.getKey()) || heap.poll() != expected.poll().intValue()) {
+                    bugFound(test);
+                    return;
+                }
+                handles.remove(min);
+            }
+            if (heap.size() != expected.size() || (!expected.isEmpty() && heap.findMin().getKey() != expected.peek())) {
+                bugFound(test);
+                return;
+            }
+            if (i % 100 == 0) {
+                heap.verify();
+            }
+        }
+        // ascending inserts and decreaseKeys from the back, which cut deep into the tree
+        StrictFibonacciHeap<Void> cascading = new StrictFibonacciHeap<>();
+        ArrayList<StrictFibonacciHeap.Node<Void>> nodes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            nodes.add(cascading.insert(size + i));
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = nodes.size() - 1; i >= 0; i -= 2) {
+                cascading.decreaseKey(nodes.get(i), size / 4);
+            }
+            cascading.verify();
+            for (int i = 0; i < size / 8; i++) {
+                nodes.remove(cascading.findMin());
+                cascading.deleteMin();
+            }
+            cascading.verify();
+        }
+        int previous = Integer.MIN_VALUE;
+        for (int i = 0; !cascading.isEmpty(); i++) {
+            if (cascading.findMin().getKey() < previous) {
+                bugFound(test);
+                return;
+            }
+            previous = cascading.findMin().getKey();
+            cascading.deleteMin();
+            if (i % 100 == 0) {
+                cascading.verify();
+            }
+        }
+        // meld of equal sizes, then a drain in order
+        StrictFibonacciHeap<Void> evens = new StrictFibonacciHeap<>(), odds = new StrictFibonacciHeap<>();
+        for (int i = 0; i < size; i++) {
+            evens.insert(2 * i);
+            odds.insert(2 * i + 1);
+        }
+        evens.meld(odds);
+        evens.verify();
+        for (int i = 0; i < 2 * size; i++) {
+            if (evens.findMin().getKey() != i) {
+                bugFound(test);
+                return;
+            }
+            evens.deleteMin();
+        }
+        if (!evens.isEmpty() || evens.size() != 0 || !odds.isEmpty())
+            bugFound(test);
+    }
+
+    static void testIndexedDaryHeap() {
+        String test = "testIndexedDaryHeap";
+        for (int d : new int[]{2, 4, 8}) {
+            IndexedDaryHeap daryHeap = new IndexedDaryHeap(d, 1);
+            PriorityQueue<Integer> expected = new PriorityQueue<>();
+            ArrayList<Integer> handles = new ArrayList<>();
+            for (int i = 0; i < 5 * size; i++) {
+                int op = random.nextInt(10);
+                if (op < 5 || handles.isEmpty()) {
+                    int key = random.nextInt(1 << 20);
+                    handles.add(daryHeap.insert(key));
+                    expected.add(key);
+                } else if (op < 7) {
+                    int h = handles.get(random.nextInt(handles.size()));
+                    int key = daryHeap.getKey(h);
+                    int delta = random.nextInt(1000);
+                    expected.remove(key);
+                    expected.add(key - delta);
+                    daryHeap.decreaseKey(h, delta);
+                } else if (op < 8) {
+                    int index = random.nextInt(handles.size());
+                    int h = handles.get(index);
+                    expected.remove(daryHeap.getKey(h));
+                    daryHeap.delete(h);
+                    handles.set(index, handles.get(handles.size() - 1));
+                    handles.remove(handles.size() - 1);
+                } else {
+                    int h = daryHeap.findMin();
+                    expected.poll();
+                    daryHeap.deleteMin();
+                    handles.remove((Integer) h);
+                }
+                if (daryHeap.size() != expected.size() ||
+                        (!expected.isEmpty() && daryHeap.getKey(daryHeap.findMin()) != expected.peek())) {
+                    bugFound(test);
+                    return;
+                }
+            }
+            while (!daryHeap.isEmpty()) {
+                if (daryHeap.getKey(daryHeap.findMin()) != expected.poll()) {
+                    bugFound(test);
+                    return;
+                }
+                daryHeap.deleteMin();
+            }
+            if (!expected.isEmpty() || daryHeap.findMin() != IndexedDaryHeap.NIL) {
+                bugFound(test);
+                return;
+            }
+        }
+        // handles of deleted entries are recycled, so the handle space stays as large as the heap.
+        IndexedDaryHeap daryHeap = new IndexedDaryHeap(4);
+        for (int i = 0; i < size; i++) {
+            daryHeap.insert(i);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < size; i++) {
+                daryHeap.deleteMin();
+                if (daryHeap.insert(size + i) >= size) {
+                    bugFound(test);
+                    return;
+                }
+            }
+        }
+        try {
+            new IndexedDaryHeap(1);
+            bugFound(test);
+        } catch (IllegalArgumentException expectedException) {
+            // d = 1 is not a heap
+        }
+    }
+
+    /**
+     * monotone random operations against a PriorityQueue, with keys spread over the whole long range.
+     */
+    static void testRadixHeap() {
+        String test = "testRadixHeap";
+        RadixHeap radixHeap = new RadixHeap(1);
+        PriorityQueue<Long> expected = new PriorityQueue<>();
+        ArrayList<Integer> handles = new ArrayList<>();
+        long last = Long.MIN_VALUE;
+        for (int i = 0; i < 5 * size; i++) {
+            int op = random.nextInt(10);
+            if (op < 5 || handles.isEmpty()) {
+                long headroom = last < 0 ? Long.MAX_VALUE : Long.MAX_VALUE - last;
+                long key = last + (long) (random.nextDouble() * (i % 2 == 0 ? 1 << 20 : headroom));
+                handles.add(radixHeap.insert(key));
+                expected.add(key);
+            } else if (op < 7) {
+                int h = handles.get(random.nextInt(handles.size()));
+                long key = radixHeap.getKey(h);
+                long delta = (long) (random.nextDouble() * (key - last));
+                expected.remove(key);
+                expected.add(key - delta);
+                radixHeap.decreaseKey(h, delta);
+            } else if (op < 8) {
+                int index = random.nextInt(handles.size());
+                int h = handles.get(index);
+                expected.remove(radixHeap.getKey(h));
+                radixHeap.delete(h);
+                handles.set(index, handles.get(handles.size() - 1));
+                handles.remove(handles.size() - 1);
+            } else {
+                int h = radixHeap.findMin();
+                expected.poll();
+                radixHeap.deleteMin();
+                handles.remove((Integer) h);
+            }
+            if (radixHeap.size() != expected.size() ||
+                    (!expected.isEmpty() && radixHeap.getKey(radixHeap.findMin()) != expected.peek())) {
+                bugFound(test);
+                return;
+            }
+            last = radixHeap.lastMin();  // findMin moved it up to the current minimum
+        }
+        while (!radixHeap.isEmpty()) {
+            if (radixHeap.getKey(radixHeap.findMin()) != expected.poll()) {
+                bugFound(test);
+                return;
+            }
+            radixHeap.deleteMin();
+        }
+        if (!expected.isEmpty() || radixHeap.findMin() != RadixHeap.NIL) {
+            bugFound(test);
+            return;
+        }
+        // non-monotone use is rejected and leaves the heap unchanged.
+        radixHeap = new RadixHeap();
+        int h = radixHeap.insert(10);
+        radixHeap.insert(5);
+        radixHeap.deleteMin();
+        try {
+            radixHeap.insert(4);
+            bugFound(test);
+        } catch (IllegalArgumentException expectedException) {
+            // 4 is below the extracted 5
+        }
+        try {
+            radixHeap.decreaseKey(h, 6);
+            bugFound(test);
+        } catch (IllegalArgumentException expectedException) {
+            // so is 10 - 6
+        }
+        radixHeap.decreaseKey(h, 5);
+        if (radixHeap.size() != 1 || radixHeap.findMin() != h || radixHeap.getKey(h) != 5 || radixHeap.lastMin() != 5)
+            bugFound(test);
+    }
+
+    /**
+     * countersRep and getMaxRootRank, which are maintained incrementally, must match a walk of the root list
+     * after every kind of operation, with eager and with incremental consolidation.
+     */
+    static void testRankHistogram() {
+        String test = "testRankHistogram";
+        for (int budget : new int[]{0, 16}) {
+            FibonacciHeap<Void> fibonacciHeap = new FibonacciHeap<>();
+            fibonacciHeap.setConsolidationBudget(budget);
+            ArrayList<FibonacciHeap.HeapNode<Void>> nodes = new ArrayList<>();
+            int[] out = new int[16];
+            for (int i = 0; i < 2 * size; i++) {
+                int op = random.nextInt(20);
+                if (op < 8 || fibonacciHeap.isEmpty()) {
+                    nodes.add(fibonacciHeap.insert(random.nextInt(1 << 20)));
+                } else if (op < 11) {
+                    FibonacciHeap.HeapNode<Void> x = nodes.get(random.nextInt(nodes.size()));
+                    fibonacciHeap.decreaseKey(x, random.nextInt(1000));
+                } else if (op < 13) {
+                    int index = random.nextInt(nodes.size());
+                    fibonacciHeap.delete(nodes.get(index));
+                    nodes.set(index, nodes.get(nodes.size() - 1));
+                    nodes.remove(nodes.size() - 1);
+                } else if (op < 17) {
+                    nodes.remove(fibonacciHeap.findMin());
+                    fibonacciHeap.deleteMin();
+                } else if (op < 18) {
+                    int polled = fibonacciHeap.pollMin(out.length, out);
+                    nodes.clear();  // the polled nodes are gone, keep no stale handles
+                    if (polled == out.length) {
+                        fibonacciHeap.insertAll(out, 0, polled);
+                    }
+                } else {
+                    FibonacciHeap<Void> other = new FibonacciHeap<>();
+                    for (int j = random.nextInt(50); j > 0; j--) {
+                        other.insert(random.nextInt(1 << 20));
+                    }
+                    if (random.nextBoolean()) {
+                        other.deleteMin();
+                    }
+                    if (random.nextBoolean()) {
+                        other.meld(fibonacciHeap);  // also melds into an empty heap
+                        fibonacciHeap = other;
+                        fibonacciHeap.setConsolidationBudget(budget);
+                    } else {
+                        fibonacciHeap.meld(other);
+                    }
+                    nodes.clear();
+                }
+                if (nodes.isEmpty() && !fibonacciHeap.isEmpty()) {
+                    nodes.add(fibonacciHeap.findMin());
+                }
+                int[] expected = walkCounters(fibonacciHeap);
+                if (!Arrays.equals(fibonacciHeap.countersRep(), expected)
+                        || fibonacciHeap.getMaxRootRank() != expected.length - 1) {
+                    bugFound(test);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * restore must rebuild the exact forest that snapshot wrote, including a deep marked chain,
+     * and reject files that are not consistent snapshots.
+     */
+    static void testSnapshot() throws IOException {
+        String test = "testSnapshot";
+        Path file = Files.createTempFile("heap-snapshot", ".bin");
+        try {
+            FibonacciHeap<Void> fibonacciHeap = new FibonacciHeap<>();
+            AdversarialChains.markedChain(fibonacciHeap, 2000);
+            ArrayList<FibonacciHeap.HeapNode<Void>> nodes = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                nodes.add(fibonacciHeap.insert(random.nextInt(1 << 20)));
+            }
+            nodes.remove(fibonacciHeap.findMin());
+            fibonacciHeap.deleteMin();
+            for (int i = 0; i < size / 4; i++) {
+                fibonacciHeap.decreaseKey(nodes.get(random.nextInt(nodes.size())), random.nextInt(1000));
+            }
+            for (int i = 0; i < 10; i++) {
+                fibonacciHeap.insert(-i);
+            }
+            for (FibonacciHeap<Void> heap : Arrays.asList(fibonacciHeap, new FibonacciHeap<Void>())) {
+                heap.snapshot(file);
+                FibonacciHeap<Void> restored = FibonacciHeap.restore(file);
+                if (!shape(restored).equals(shape(heap)) || restored.size() != heap.size()
+                        || restored.getCountHeapTrees() != heap.getCountHeapTrees()
+                        || restored.getCountMarks() != heap.getCountMarks()
+                        || restored.potential() != heap.potential()
+                        || !Arrays.equals(restored.countersRep(), heap.countersRep())
+                        || (!heap.isEmpty() && restored.findMin().getKey() != heap.findMin().getKey())) {
+                    bugFound(test);
+                    return;
+                }
+                while (!heap.isEmpty()) {
+                    if (restored.findMin().getKey() != heap.findMin().getKey()) {
+                        bugFound(test);
+                        return;
+                    }
+                    heap.deleteMin();
+                    restored.deleteMin();
+                }
+                if (!restored.isEmpty()) {
+                    bugFound(test);
+                    return;
+                }
+            }
+            // a truncated snapshot and a foreign file are rejected.
+            FibonacciHeap<Void> small = FibonacciHeap.of(new int[]{3, 1, 2});
+            small.snapshot(file);
+            byte[] bytes = Files.readAllBytes(file);
+            for (byte[] corrupt : new byte[][]{Arrays.copyOf(bytes, bytes.length - 1), new byte[bytes.length]}) {
+                Files.write(file, corrupt);
+                try {
+                    FibonacciHeap.restore(file);
+                    bugFound(test);
+                    return;
+                } catch (IOException expected) {
+                    // not a consistent snapshot
+                }
+            }
+            // a single tree of rank 2, rooted at 1: a rank above MAX_RANK, a child key below its parent's key,
+            // and ranks that claim more or fewer children than follow are rejected.
+            FibonacciHeap<Void> tree = FibonacciHeap.of(new int[]{0, 1, 2, 3, 4});
+            tree.deleteMin();
+            tree.snapshot(file);
+            bytes = Files.readAllBytes(file);
+            int rootRank = 20 + 4, childKey = 20 + 5;
+            if (tree.getCountHeapTrees() != 1 || bytes[rootRank] != 2 << 1) {
+                bugFound(test);
+                return;
+            }
+            for (int corruption = 0; corruption < 4; corruption++) {
+                byte[] corrupt = bytes.clone();
+                switch (corruption) {
+                    case 0:
+                        corrupt[rootRank] = (byte) (100 << 1);
+                        break;
+                    case 1:
+                        Arrays.fill(corrupt, childKey, childKey + 4, (byte) 0);  // key 0 under the root's 1
+                        break;
+                    case 2:
+                        corrupt[rootRank] = 3 << 1;
+                        break;
+                    default:
+                        corrupt[rootRank] = 1 << 1;
+                        break;
+                }
+                Files.write(file, corrupt);
+                try {
+                    FibonacciHeap.restore(file);
+                    bugFound(test);
+                    return;
+                } catch (IOException expected) {
+                    // corrupt snapshot
+                }
+            }
+            // 8 nodes: a root of rank 5 with 5 leaves, which is smaller than any tree of rank 5, and 2 leaf roots.
+            ByteBuffer thin = ByteBuffer.allocate(20 + 8 * 5).order(ByteOrder.LITTLE_ENDIAN);
+            thin.put(bytes, 0, 8).putInt(8).putInt(3).putInt(0);
+            thin.putInt(0).put((byte) (5 << 1));
+            for (int key = 1; key < 8; key++) {
+                thin.putInt(key).put((byte) 0);
+            }
+            Files.write(file, thin.array());
+            try {
+                FibonacciHeap.restore(file);
+                bugFound(test);
+                return;
+            } catch (IOException expected) {
+                // a subtree too small for its rank
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * random operations on a DurableFibonacciHeap that is closed and reopened, checkpointed, and left with a
+     * torn log tail, against a map of the live ids and keys.
+     */
+    static void testDurableHeap() throws IOException {
+        String test = "testDurableHeap";
+        Path dir = Files.createTempDirectory("durable-heap");
+        try {
+            HashMap<Long, Integer> expected = new HashMap<>();
+            ArrayList<Long> ids = new ArrayList<>();
+            DurableFibonacciHeap durable = DurableFibonacciHeap.open(dir, 7);
+            for (int i = 0; i < 5 * size; i++) {
+                int op = random.nextInt(10);
+                if (op < 5 || ids.isEmpty()) {
+                    int key = random.nextInt(1 << 20);
+                    long id = durable.insert(key);
+                    ids.add(id);
+                    expected.put(id, key);
+                } else if (op < 7) {
+                    long id = ids.get(random.nextInt(ids.size()));
+                    int delta = random.nextInt(1000);
+                    durable.decreaseKey(id, delta);
+                    expected.put(id, expected.get(id) - delta);
+                } else if (op < 8) {
+                    int index = random.nextInt(ids.size());
+                    durable.delete(ids.get(index));
+                    expected.remove(ids.get(index));
+                    ids.set(index, ids.get(ids.size() - 1));
+                    ids.remove(ids.size() - 1);
+                } else {
+                    long id = durable.deleteMin();
+                    if (expected.remove(id) == null) {
+                        bugFound(test);
+                        return;
+                    }
+                    ids.remove(id);
+                }
+                if (i % 5000 == 4999) {
+                    durable.checkpoint();
+                } else if (i % 1700 == 1699) {
+                    durable.close();
+                    if (i % 3400 == 3399) {
+                        // a crash in the middle of a frame leaves a torn tail, which recovery cuts off.
+                        try (Stream<Path> files = Files.list(dir)) {
+                            Path log = files.filter(f -> f.getFileName().toString().startsWith("wal."))
+                                    .findFirst().orElseThrow(IOException::new);
+                            Files.write(log, new byte[]{40, 0, 0, 0, 1, 2, 3}, StandardOpenOption.APPEND);
+                        }
+                    }
+                    durable = DurableFibonacciHeap.open(dir, 7);
+                    if (durable.size() != expected.size()) {
+                        bugFound(test);
+                        return;
+                    }
+                    for (long id : ids) {
+                        if (durable.getKey(id) != expected.get(id)) {
+                            bugFound(test);
+                            return;
+                        }
+                    }
+                }
+                if (durable.size() != expected.size() || (!expected.isEmpty()
+                        && durable.getKey(durable.findMin()) != Collections.min(expected.values()))) {
+                    bugFound(test);
+                    return;
+                }
+            }
+            durable.close();
+            durable = DurableFibonacciHeap.open(dir, 1);
+            while (!durable.isEmpty()) {
+                int min = Collections.min(expected.values());
+                long id = durable.deleteMin();
+                if (expected.remove(id) != min) {
+                    bugFound(test);
+                    return;
+                }
+            }
+            durable.close();
+            if (!expected.isEmpty() || !DurableFibonacciHeap.open(dir, 1).isEmpty())
+                bugFound(test);
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * a write of the log that fails half way through a frame must not leave a torn frame in front of later ones,
+     * and the heap must refuse to go on after it.
+     */
+    static void testDurableHeapWriteFailure() throws IOException {
+        String test = "testDurableHeapWriteFailure";
+        Path dir = Files.createTempDirectory("durable-heap");
+        try {
+            FailingLog[] log = new FailingLog[1];
+            DurableFibonacciHeap durable =
+                    DurableFibonacciHeap.open(dir, 4, channel -> log[0] = new FailingLog(channel));
+            for (int key = 0; key < 8; key++) {
+                durable.insert(key);  // two durable frames
+            }
+            log[0].failing = true;
+            try {
+                for (int key = 8; key < 12; key++) {
+                    durable.insert(key);
+                }
+                bugFound(test);
+                return;
+            } catch (IOException expectedException) {
+                // half of the third frame was written
+            }
+            try {
+                durable.insert(12);
+                bugFound(test);
+                return;
+            } catch (IllegalStateException expectedException) {
+                // the heap is unusable after the failure
+            }
+            durable.close();
+            durable = DurableFibonacciHeap.open(dir, 4);
+            for (int key = 100; key < 104; key++) {
+                durable.insert(key);  // a frame after the failed one, which recovery must keep
+            }
+            durable.close();
+            durable = DurableFibonacciHeap.open(dir, 1);
+            if (durable.size() != 12) {
+                bugFound(test);
+                return;
+            }
+            for (int key : new int[]{0, 1, 2, 3, 4, 5, 6, 7, 100, 101, 102, 103}) {
+                if (durable.getKey(durable.findMin()) != key) {
+                    bugFound(test);
+                    return;
+                }
+                durable.deleteMin();
+            }
+            durable.close();
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * a checkpoint whose old epoch cannot be deleted is still committed, and the next checkpoint starts a new
+     * epoch instead of overwriting the committed one.
+     */
+    static void testDurableHeapCheckpointCleanupFailure() throws IOException {
+        String test = "testDurableHeapCheckpointCleanupFailure";
+        Path dir = Files.createTempDirectory("durable-heap");
+        Path blocker = dir.resolve("snapshot.0");  // a non-empty directory, which deleteIfExists cannot delete
+        try {
+            DurableFibonacciHeap durable = DurableFibonacciHeap.open(dir, 3);
+            for (int key = 0; key < 10; key++) {
+                durable.insert(key);
+            }
+            Files.createDirectory(blocker);
+            Files.createFile(blocker.resolve("file"));
+            durable.checkpoint();  // to epoch 1, and snapshot.0 stays
+            for (int key = 10; key < 20; key++) {
+                durable.insert(key);
+            }
+            durable.checkpoint();  // to epoch 2
+            durable.insert(20);
+            durable.deleteMin();
+            durable.close();
+            if (!Files.exists(dir.resolve("snapshot.2")) || Files.exists(dir.resolve("snapshot.1"))) {
+                bugFound(test);
+                return;
+            }
+            durable = DurableFibonacciHeap.open(dir, 1);
+            if (durable.size() != 20) {
+                bugFound(test);
+                return;
+            }
+            for (int key = 1; key <= 20; key++) {
+                if (durable.getKey(durable.findMin()) != key) {
+                    bugFound(test);
+                    return;
+                }
+                durable.deleteMin();
+            }
+            durable.close();
+        } finally {
+            Files.deleteIfExists(blocker.resolve("file"));
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * random inserts and deleteMins against a PriorityQueue with a memory budget far below the queue's size,
+     * so most keys go through the spilled runs. Closing the queue deletes the runs that are left.
+     */
+    static void testExternalPriorityQueue() throws IOException {
+        String test = "testExternalPriorityQueue";
+        Path dir = Files.createTempDirectory("external-queue");
+        try {
+            for (int budget : new int[]{2, 3, 64}) {
+                PriorityQueue<Integer> expected = new PriorityQueue<>();
+                try (ExternalPriorityQueue queue = new ExternalPriorityQueue(dir, budget)) {
+                    for (int i = 0; i < 5 * size; i++) {
+                        if (random.nextInt(3) < 2 || expected.isEmpty()) {
+                            int key = random.nextInt(i % 1000 == 0 ? Integer.MAX_VALUE : 1 << 16);
+                            queue.insert(key);
+                            expected.add(key);
+                        } else if (queue.deleteMin() != expected.poll()) {
+                            bugFound(test);
+                            return;
+                        }
+                        if (queue.size() != expected.size()
+                                || (!expected.isEmpty() && queue.findMin() != expected.peek())) {
+                            bugFound(test);
+                            return;
+                        }
+                    }
+                    if (queue.spills() == 0 || queue.runCount() == 0) {
+                        bugFound(test);
+                        return;
+                    }
+                    for (int i = 0; i < expected.size() / 2; i++) {
+                        if (queue.deleteMin() != expected.poll()) {
+                            bugFound(test);
+                            return;
+                        }
+                    }
+                }
+                try (Stream<Path> files = Files.list(dir)) {
+                    if (files.findAny().isPresent()) {
+                        bugFound(test);
+                        return;
+                    }
+                }
+            }
+            try {
+                new ExternalPriorityQueue(dir, 2).findMin();
+                bugFound(test);
+            } catch (NoSuchElementException expectedException) {
+                // the queue is empty
+            }
+            // a spill into a directory that cannot be written fails without losing a key.
+            try (ExternalPriorityQueue queue = new ExternalPriorityQueue(dir, 64)) {
+                ArrayList<Integer> expected = new ArrayList<>();
+                for (int i = 0; i < 64; i++) {
+                    expected.add(random.nextInt(1000));
+                    queue.insert(expected.get(i));
+                }
+                Files.setPosixFilePermissions(dir, PosixFilePermissions.fromString("r-x------"));
+                if (Files.isWritable(dir)) {
+                    Files.delete(dir);  // permissions do not stop root
+                }
+                try {
+                    queue.insert(-1);
+                    bugFound(test);
+                    return;
+                } catch (IOException expectedException) {
+                    // the run could not be created
+                }
+                Files.createDirectories(dir);
+                Files.setPosixFilePermissions(dir, PosixFilePermissions.fromString("rwx------"));
+                Collections.sort(expected);
+                if (queue.size() != expected.size() || queue.spills() != 0) {
+                    bugFound(test);
+                    return;
+                }
+                for (int key : expected) {
+                    if (queue.deleteMin() != key) {
+                        bugFound(test);
+                        return;
+                    }
+                }
+            }
+        } finally {
+            Files.delete(dir);
+        }
+    }
+
+    static void testExternalSort() throws IOException {
+        String test = "testExternalSort";
+        Path dir = Files.createTempDirectory("external-sort");
+        Path runs = Files.createDirectory(dir.resolve("runs"));
+        Path input = dir.resolve("input.bin"), output = dir.resolve("output.bin");
+        try {
+            for (int n : new int[]{0, 1, 999, 10 * size}) {
+                int[] keys = new int[n];
+                ByteBuffer bytes = ByteBuffer.allocate(4 * n).order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < n; i++) {
+                    keys[i] = random.nextInt(i % 3 == 0 ? 1 << 10 : Integer.MAX_VALUE) - (1 << 9);
+                    bytes.putInt(keys[i]);
+                }
+                Files.write(input, bytes.array());
+                // 100 runs merged 8 at a time take two passes before the final merge.
+                if (ExternalSort.sort(input, output, runs, 1000, 8) != n) {
+                    bugFound(test);
+                    return;
+                }
+                Arrays.sort(keys);
+                ByteBuffer sorted = ByteBuffer.wrap(Files.readAllBytes(output)).order(ByteOrder.LITTLE_ENDIAN);
+                if (sorted.remaining() != 4 * n) {
+                    bugFound(test);
+                    return;
+                }
+                for (int key : keys) {
+                    if (sorted.getInt() != key) {
+                        bugFound(test);
+                        return;
+                    }
+                }
+                try (Stream<Path> files = Files.list(runs)) {
+                    if (files.findAny().isPresent()) {
+                        bugFound(test);
+                        return;
+                    }
+                }
+            }
+            Files.write(input, new byte[]{1, 2, 3, 4, 5});
+            try {
+                ExternalSort.sort(input, output, runs, 1000, 8);
+                bugFound(test);
+            } catch (IOException expected) {
+                // 5 bytes are not a file of ints
+            }
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+            Files.delete(runs);
+            Files.delete(dir);
+        }
+    }
+
+    static void testStreams() {
+        String test = "testStreams";
+        FibonacciHeap<Void> fibonacciHeap = new FibonacciHeap<>();
+        AdversarialChains.markedChain(fibonacciHeap, 500);
+        ArrayList<FibonacciHeap.HeapNode<Void>> nodes = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            nodes.add(fibonacciHeap.insert(random.nextInt(1 << 20)));
+        }
+        nodes.remove(fibonacciHeap.findMin());
+        fibonacciHeap.deleteMin();
+        for (int i = 0; i < size / 4; i++) {
+            fibonacciHeap.decreaseKey(nodes.get(random.nextInt(nodes.size())), random.nextInt(1000));
+        }
+        FibonacciHeap<Void> singleTree = new FibonacciHeap<>();
+        for (int i = 0; i <= 1024; i++) {
+            singleTree.insert(i);
+        }
+        singleTree.deleteMin();
+        for (FibonacciHeap<Void> heap : Arrays.asList(fibonacciHeap, singleTree, new FibonacciHeap<Void>())) {
+            ArrayList<String> before = shape(heap);
+            int[] keys = new int[heap.size()];
+            int[] i = new int[1];
+            heap.forEachInPreOrder(x -> keys[i[0]++] = x.getKey());
+            Arrays.sort(keys);
+            long sum = Arrays.stream(keys).asLongStream().sum();
+            Spliterator<FibonacciHeap.HeapNode<Void>> spliterator = heap.nodes();
+            if (!spliterator.hasCharacteristics(Spliterator.SIZED) || spliterator.estimateSize() != heap.size()) {
+                bugFound(test);
+                return;
+            }
+            int[] sequential = StreamSupport.stream(spliterator, false).mapToInt(x -> x.getKey()).sorted().toArray();
+            if (!Arrays.equals(sequential, keys)
+                    || StreamSupport.stream(heap.nodes(), true).distinct().count() != heap.size()
+                    || StreamSupport.stream(heap.nodes(), true).mapToLong(x -> x.getKey()).sum() != sum
+                    || splitAndCount(heap.nodes()) != heap.size()
+                    || !shape(heap).equals(before)) {
+                bugFound(test);
+                return;
+            }
+            int k = Math.min(100, heap.size());
+            if (!Arrays.equals(heap.drainingStream().limit(k).toArray(), Arrays.copyOf(keys, k))
+                    || heap.size() != keys.length - k
+                    || !Arrays.equals(heap.drainingStream().parallel().toArray(),
+                    Arrays.copyOfRange(keys, k, keys.length))
+                    || !heap.isEmpty()) {
+                bugFound(test);
+                return;
+            }
+        }
+        FibonacciHeap<Void> heap = FibonacciHeap.of(new int[]{3, 1, 2});
+        if (heap.drainingStream().count() != 3 || !heap.isEmpty()) {
+            bugFound(test);
+        }
+    }
+
+    /**
+     * splits the spliterator as far as it goes, and traverses the parts.
+     *
+     * @return the number of elements traversed.
+     */
+    static long splitAndCount(Spliterator<?> spliterator) {
+        long[] count = {0};
+        Spliterator<?> prefix;
+        while ((prefix = spliterator.trySplit()) != null) {
+            count[0] += splitAndCount(prefix);
+        }
+        spliterator.forEachRemaining(x -> count[0] += 1);
+        return count[0];
+    }
+
+    /**
+     * @return key, rank, mark and depth of every node of the heap in pre-order.
+     */
+    static ArrayList<String> shape(FibonacciHeap<?> fibonacciHeap) {
+        ArrayList<String> nodes = new ArrayList<>();
+        FibonacciHeap.HeapNode<?> x = fibonacciHeap.getFirst();
+        int depth = 0;
+        while (x != null) {
+            nodes.add(x.getKey() + "/" + x.getRank() + "/" + x.getMarked() + "/" + depth);
+            if (x.getChild() != null) {
+                x = x.getChild();
+                depth += 1;
+                continue;
+            }
+            while (x != null && x.getNext() == (x.getParent() == null ? fibonacciHeap.getFirst()
+                    : x.getParent().getChild())) {
+                x = x.getParent();
+                depth -= 1;
+            }
+            if (x != null) {
+                x = x.getNext();
+            }
+        }
+        return nodes;
+    }
+
+    static int[] walkCounters(FibonacciHeap<?> fibonacciHeap) {
+        int[] counters = new int[64];
+        int maxRank = -1;
+        FibonacciHeap.HeapNode<?> x = fibonacciHeap.getFirst();
+        if (x != null) {
+            do {
+                counters[x.getRank()] += 1;
+                maxRank = Math.max(maxRank, x.getRank());
+                x = x.getNext();
+            } while (x != fibonacciHeap.getFirst());
+        }
+        return Arrays.copyOf(counters, maxRank + 1);
+    }
+
+    static <H> boolean randomOps(IntPriorityQueue<H> queue) {
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        ArrayList<H> handles = new ArrayList<>();
+        for (int i = 0; i < 5 * size; i++) {
+            int op = random.nextInt(10);
+            if (op < 5 || handles.isEmpty()) {
+                int key = random.nextInt(1 << 20);
+                handles.add(queue.insert(key));
+                expected.add(key);
+            } else if (op < 7) {
+                H h = handles.get(random.nextInt(handles.size()));
+                int key = queue.getKey(h);
+                int delta = random.nextInt(1000);
+                expected.remove(key);
+                expected.add(key - delta);
+                queue.decreaseKey(h, delta);
+            } else if (op < 8) {
+                int index = random.nextInt(handles.size());
+                H h = handles.get(index);
+                expected.remove(queue.getKey(h));
+                queue.delete(h);
+                handles.set(index, handles.get(handles.size() - 1));
+                handles.remove(handles.size() - 1);
+            } else {
+                H h = queue.findMin();
+                expected.poll();
+                queue.deleteMin();
+                handles.remove(h);
+            }
+            if (queue.size() != expected.size() ||
+                    (!expected.isEmpty() && queue.getKey(queue.findMin()) != expected.peek())) {
+                return false;
+            }
+        }
+        while (!queue.isEmpty()) {
+            if (queue.getKey(queue.findMin()) != expected.poll()) {
+                return false;
+            }
+            queue.deleteMin();
+        }
+        return expected.isEmpty();
+    }
+
+    static int countRoots(FibonacciHeap<?> fibonacciHeap) {
+        int count = 0;
+        FibonacciHeap.HeapNode<?> x = fibonacciHeap.getFirst();
+        if (x != null) {
+            do {
+                count += 1;
+                x = x.getNext();
+            } while (x != fibonacciHeap.getFirst());
+        }
+        return count;
+    }
+
+    /**
+     * a log that, once failing, writes half of the next buffer and then throws, as a full disk does.
+     */
+    static class FailingLog extends FileChannel {
+        private final FileChannel channel;
+        boolean failing = false;
+        private boolean written = false;
+
+        FailingLog(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (!failing) {
+                return channel.write(src);
+            }
+            if (written) {
+                throw new IOException("no space left on device");
+            }
+            written = true;
+            ByteBuffer half = src.duplicate();
+            half.limit(src.position() + src.remaining() / 2);
+            int n = channel.write(half);
+            src.position(src.position() + n);
+            return n;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            channel.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+
+    static void bugFound(String test) {
+        System.out.println("Bug found in " + test);
+        bugs += 1;
+    }
+}
@@ -0,0 +1,30 @@
+/**
+ * Benchmarks Dijkstra and Prim with FibonacciHeap.decreaseKey against the lazy binary-heap variants
+ * (and Dijkstra on a PairingHeap and a RadixHeap) on generated graphs.
+ * <p>
+ * Run with "java GraphBenchmark [vertices] [edges]", the default is one million vertices and
+ * four million random edges.
+ */
+public class GraphBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int m = args.length > 1 ? Integer.parseInt(args[1]) : 4 * n;
+        CsrGraph directed = CsrGraph.random(n, m, 1_000, false, 7);
+        CsrGraph undirected = CsrGraph.random(n, m, 1_000, true, 7);
+        System.out.printf("n = %,d, m = %,d%n", n, m);
+        // ops are edges relaxed, so the numbers read as edges per second.
+        HeapBenchmark.report("Dijkstra FibonacciHeap", m,
+                () -> HeapBenchmark.sink = ShortestPaths.dijkstra(directed, 0));
+        HeapBenchmark.report("Dijkstra PairingHeap", m,
+                () -> HeapBenchmark.sink = ShortestPaths.dijkstra(directed, 0, new PairingHeap<Integer>()));
+        HeapBenchmark.report("Dijkstra RadixHeap", m,
+                () -> HeapBenchmark.sink = ShortestPaths.dijkstra(directed, 0, new RadixHeap(n).asQueue()));
+        HeapBenchmark.report("Dijkstra lazy binary heap", m,
+                () -> HeapBenchmark.sink = ShortestPaths.dijkstraLazy(directed, 0));
+        HeapBenchmark.report("Prim FibonacciHeap", 2L * m,
+                () -> HeapBenchmark.sink = MinimumSpanningTree.prim(undirected));
+        HeapBenchmark.report("Prim lazy binary heap", 2L * m,
+                () -> HeapBenchmark.sink = MinimumSpanningTree.primLazy(undirected));
+    }
+}
@@ -0,0 +1,650 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
+
+/**
+ * Micro benchmarks for the heap implementations.
+ * <p>
+ * Run with "java HeapBenchmark [n]". Every benchmark is warmed up before it is measured,
+ * and the numbers are only meant to compare implementations on the same machine.
+ */
+public class HeapBenchmark {
+    static final int WARMUP_ROUNDS = 3;
+    static final int MEASURED_ROUNDS = 5;
+    static Object sink;  // keeps measured structures reachable
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int[] keys = randomKeys(n, 42);
+        System.out.printf("n = %,d%n", n);
+        memoryPerElement(n, keys);
+        insertDeleteMinThroughput(keys);
+        churnWithPooling(keys);
+        payloadThroughput(keys);
+        keySpecializations(keys);
+        bulkLoad(keys);
+        batchPoll(keys);
+        sortedView(keys);
+        incrementalConsolidation(keys);
+        indexedDaryHeap(keys);
+        monitoring(keys);
+        snapshot(keys);
+        writeAheadLog(keys);
+        externalMemory(keys);
+        streams(keys);
+    }
+
+    static int[] randomKeys(int n, long seed) {
+        Random random = new Random(seed);
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+        return keys;
+    }
+
+    /**
+     * reports the retained bytes per element of a heap holding all the given keys.
+     */
+    static void memoryPerElement(int n, int[] keys) {
+        long before = usedMemory();
+        FibonacciHeap<Void> nodeHeap = new FibonacciHeap<>();
+        for (int key : keys) {
+            nodeHeap.insert(key);
+        }
+        nodeHeap.deleteMin();  // consolidate so both heaps hold the same shape of forest
+        sink = nodeHeap;
+        nodeHeap = null;
+        long nodeBytes = usedMemory() - before;
+        System.out.printf("FibonacciHeap        %6.1f bytes/element%n", (double) nodeBytes / n);
+        sink = null;
+
+        before = usedMemory();
+        ArrayFibonacciHeap arrayHeap = new ArrayFibonacciHeap(n);
+        for (int key : keys) {
+            arrayHeap.insert(key);
+        }
+        arrayHeap.deleteMin();
+        sink = arrayHeap;
+        arrayHeap = null;
+        long arrayBytes = usedMemory() - before;
+        System.out.printf("ArrayFibonacciHeap   %6.1f bytes/element%n", (double) arrayBytes / n);
+        sink = null;
+    }
+
+    static void insertDeleteMinThroughput(int[] keys) {
+        report("FibonacciHeap insert+deleteMin", keys.length, () -> {
+            FibonacciHeap<Void> heap = new FibonacciHeap<>();
+            for (int key : keys) {
+                heap.insert(key);
+            }
+            while (!heap.isEmpty()) {
+                heap.deleteMin();
+            }
+        });
+        report("ArrayFibonacciHeap insert+deleteMin", keys.length, () -> {
+            ArrayFibonacciHeap heap = new ArrayFibonacciHeap();
+            for (int key : keys) {
+                heap.insert(key);
+            }
+            while (!heap.isEmpty()) {
+                heap.deleteMin();
+            }
+        });
+    }
+
+    /**
+     * compares values stored in the nodes with the side table that attaching a value to a node needed before.
+     */
+    static void payloadThroughput(int[] keys) {
+        String[] values = new String[1024];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = "job" + i;
+        }
+        report("FibonacciHeap<String> insert(k,v)+poll", keys.length, () -> {
+            FibonacciHeap<String> heap = new FibonacciHeap<>();
+            for (int i = 0; i < keys.length; i++) {
+                heap.insert(keys[i], values[i & 1023]);
+            }
+            while (!heap.isEmpty()) {
+                sink = heap.poll();
+            }
+        });
+        report("FibonacciHeap + IdentityHashMap side table", keys.length, () -> {
+            FibonacciHeap<Void> heap = new FibonacciHeap<>();
+            IdentityHashMap<FibonacciHeap.HeapNode<Void>, String> table = new IdentityHashMap<>();
+            for (int i = 0; i < keys.length; i++) {
+                table.put(heap.insert(keys[i]), values[i & 1023]);
+            }
+            while (!heap.isEmpty()) {
+                sink = table.remove(heap.findMin());
+                heap.deleteMin();
+            }
+        });
+    }
+
+    /**
+     * time to load a snapshot of keys and serve the first deleteMin, with repeated insert and with insertAll.
+     */
+    static void bulkLoad(int[] keys) {
+        report("insert loop + first deleteMin", keys.length, () -> {
+            FibonacciHeap<Void> heap = new FibonacciHeap<>();
+            for (int key : keys) {
+                heap.insert(key);
+            }
+            heap.deleteMin();
+            sink = heap;
+        });
+        report("FibonacciHeap.of + first deleteMin", keys.length, () -> {
+            FibonacciHeap<Void> heap = FibonacciHeap.of(keys);
+            heap.deleteMin();
+            sink = heap;
+        });
+    }
+
+    /**
+     * deletes all keys in batches of k, with pollMin against k deleteMin calls.
+     */
+    static void batchPoll(int[] keys) {
+        for (int k : new int[]{64, 256, 1024}) {
+            int[] out = new int[k];
+            report("deleteMin loop, batches of " + k, keys.length, () -> {
+                FibonacciHeap<Void> heap = FibonacciHeap.of(keys);
+                while (!heap.isEmpty()) {
+                    for (int i = 0; i < k && !heap.isEmpty(); i++) {
+                        out[i] = heap.findMin().getKey();
+                        heap.deleteMin();
+                    }
+                }
+                sink = out;
+            });
+            report("pollMin(" + k + ")", keys.length, () -> {
+                FibonacciHeap<Void> heap = FibonacciHeap.of(keys);
+                while (heap.pollMin(k, out) > 0) {
+                    sink = out;
+                }
+            });
+        }
+    }
+
+    /**
+     * reads the k smallest keys without changing the heap: sortedView against copying the heap and
+     * polling the copy.
+     */
+    static void sortedView(int[] keys) {
+        FibonacciHeap<Void> heap = FibonacciHeap.of(keys);
+        heap.deleteMin();
+        for (int k : new int[]{10, 1000}) {
+            int[] out = new int[k];
+            report("copy + pollMin(" + k + ")", k, () -> {
+                FibonacciHeap<Void> copy = FibonacciHeap.of(keys);
+                copy.pollMin(k, out);
+                sink = out;
+            });
+            report("sortedView, first " + k, k, () -> {
+                PrimitiveIterator.OfInt view = heap.sortedView();
+                for (int i = 0; i < k; i++) {
+                    out[i] = view.nextInt();
+                }
+                sink = out;
+            });
+        }
+    }
+
+    static final String[] KEY_SPECIALIZATIONS = {"FibonacciHeap(int)", "LongFibonacciHeap", "DoubleFibonacciHeap",
+            "ComparatorFibonacciHeap<Long>"};
+
+    /**
+     * sorts the same keys through the int, long, double and Comparator heaps.
+     * <p>
+     * The heaps share no code, so running them in one JVM does not mix their profiles. The JMH version
+     * (jmh/benchmarks/KeySpecializations.java) still runs each heap in a fork of its own.
+     */
+    static void keySpecializations(int[] keys) {
+        for (String implementation : KEY_SPECIALIZATIONS) {
+            Runnable sort = sorter(implementation, keys);
+            report(implementation + " sort", keys.length, sort);
+        }
+    }
+
+    /**
+     * public static Runnable sorter(String implementation, int size)
+     * <p>
+     * The entry point of jmh/benchmarks/KeySpecializations.java, which calls it by reflection since JMH does not
+     * accept benchmarks in the default package.
+     *
+     * @return a task that inserts size random keys into a new heap of the implementation and deletes them all.
+     * @throws IllegalArgumentException if the implementation is not one of KEY_SPECIALIZATIONS.
+     */
+    public static Runnable sorter(String implementation, int size) {
+        return sorter(implementation, randomKeys(size, 42));
+    }
+
+    static Runnable sorter(String implementation, int[] keys) {
+        switch (implementation) {
+            case "FibonacciHeap(int)":
+                return () -> {
+                    FibonacciHeap<Void> heap = new FibonacciHeap<>();
+                    for (int key : keys) {
+                        heap.insert(key);
+                    }
+                    while (!heap.isEmpty()) {
+                        heap.deleteMin();
+                    }
+                };
+            case "LongFibonacciHeap":
+                return () -> {
+                    LongFibonacciHeap<Void> heap = new LongFibonacciHeap<>();
+                    for (int key : keys) {
+                        heap.insert((long) key << 16);
+                    }
+                    while (!heap.isEmpty()) {
+                        heap.deleteMin();
+                    }
+                };
+            case "DoubleFibonacciHeap":
+                return () -> {
+                    DoubleFibonacciHeap<Void> heap = new DoubleFibonacciHeap<>();
+                    for (int key : keys) {
+                        heap.insert(key * 0.5);
+                    }
+                    while (!heap.isEmpty()) {
+                        heap.deleteMin();
+                    }
+                };
+            case "ComparatorFibonacciHeap<Long>":
+                Long[] boxed = new Long[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    boxed[i] = (long) keys[i] << 16;
+                }
+                return () -> {
+                    ComparatorFibonacciHeap<Long, Void> heap = ComparatorFibonacciHeap.naturalOrder();
+                    for (Long key : boxed) {
+                        heap.insert(key);
+                    }
+                    while (!heap.isEmpty()) {
+                        heap.deleteMin();
+                    }
+                };
+            default:
+                throw new IllegalArgumentException("unknown implementation " + implementation);
+        }
+    }
+
+    /**
+     * keeps a heap of n/10 entries and replaces its minimum n times, as a scheduler does,
+     * and reports GC count and latency percentiles with and without node pooling.
+     */
+    static void churnWithPooling(int[] keys) {
+        for (int poolCapacity : new int[]{0, 1024}) {
+            FibonacciHeap<Void> heap = new FibonacciHeap<>(poolCapacity);
+            int live = keys.length / 10;
+            for (int i = 0; i < live; i++) {
+                heap.insert(keys[i]);
+            }
+            long[] latencies = new long[keys.length];
+            for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+                long gcBefore = gcCount();
+                for (int i = 0; i < keys.length; i++) {
+                    long start = System.nanoTime();
+                    heap.deleteMin();
+                    heap.insert(keys[i]);
+                    latencies[i] = System.nanoTime() - start;
+                }
+                if (round == WARMUP_ROUNDS) {
+                    System.out.printf("churn pool=%-5d gc=%-4d %s%n", poolCapacity, gcCount() - gcBefore,
+                            percentiles(latencies));
+                }
+            }
+        }
+    }
+
+    /**
+     * inserts all keys in a burst, then replaces the minimum keys.length/10 times, and reports the latency
+     * percentiles of every operation for eager and incremental consolidation. GC pauses show up in max.
+     */
+    static void incrementalConsolidation(int[] keys) {
+        int churn = keys.length / 10;
+        for (int budget : new int[]{0, 16, 64}) {
+            long[] latencies = new long[keys.length + 2 * churn];
+            long total = 0, gc = 0;
+            for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+                long gcBefore = gcCount();
+                FibonacciHeap<Void> heap = new FibonacciHeap<>();
+                heap.setConsolidationBudget(budget);
+                int op = 0;
+                long begin = System.nanoTime();
+                for (int key : keys) {
+                    long start = System.nanoTime();
+                    heap.insert(key);
+                    latencies[op++] = System.nanoTime() - start;
+                }
+                for (int i = 0; i < churn; i++) {
+                    long start = System.nanoTime();
+                    heap.deleteMin();
+                    latencies[op++] = System.nanoTime() - start;
+                    start = System.nanoTime();
+                    heap.insert(keys[i]);
+                    latencies[op++] = System.nanoTime() - start;
+                }
+                total = System.nanoTime() - begin;
+                gc = gcCount() - gcBefore;
+                sink = heap;
+            }
+            System.out.printf("consolidation budget=%-3d total=%dms gc=%-3d %s%n", budget, total / 1_000_000, gc,
+                    percentiles(latencies));
+        }
+    }
+
+    /**
+     * IndexedDaryHeap with a few arities against FibonacciHeap: insert and drain, then decreaseKey on handles
+     * picked at random, which misses the cache on every call once n is large. Both decreaseKey rows include
+     * building the heap.
+     */
+    static void indexedDaryHeap(int[] keys) {
+        int n = keys.length;
+        int[] targets = new int[n];
+        Random random = new Random(7);
+        for (int i = 0; i < n; i++) {
+            targets[i] = random.nextInt(n);
+        }
+        report("FibonacciHeap insert+drain", 2L * n, () -> {
+            FibonacciHeap<Void> heap = new FibonacciHeap<>();
+            for (int key : keys) {
+                heap.insert(key);
+            }
+            while (!heap.isEmpty()) {
+                heap.deleteMin();
+            }
+        });
+        for (int d : new int[]{2, 4, 8}) {
+            report("IndexedDaryHeap d=" + d + " insert+drain", 2L * n, () -> {
+                IndexedDaryHeap heap = new IndexedDaryHeap(d, n);
+                for (int key : keys) {
+                    heap.insert(key);
+                }
+                while (!heap.isEmpty()) {
+                    heap.deleteMin();
+                }
+            });
+        }
+        report("FibonacciHeap random decreaseKey", n, () -> {
+            FibonacciHeap<Void> heap = new FibonacciHeap<>();
+            FibonacciHeap.HeapNode<Void>[] nodes = FibonacciHeap.newHandles(n);
+            for (int i = 0; i < n; i++) {
+                nodes[i] = heap.insert(keys[i]);
+            }
+            FibonacciHeap.HeapNode<Void> min = heap.findMin();
+            heap.deleteMin();  // consolidates, so the decreased nodes have parents to be cut from
+            for (int target : targets) {
+                if (nodes[target] != min) {
+                    heap.decreaseKey(nodes[target], 1);
+                }
+            }
+            sink = heap;
+        });
+        for (int d : new int[]{2, 4, 8}) {
+            report("IndexedDaryHeap d=" + d + " random decreaseKey", n, () -> {
+                IndexedDaryHeap heap = new IndexedDaryHeap(d, n);
+                for (int key : keys) {
+                    heap.insert(key);
+                }
+                for (int target : targets) {
+                    heap.decreaseKey(target, 1);
+                }
+                sink = heap;
+            });
+        }
+    }
+
+    /**
+     * the cost of polling countersRep, as monitoring does, on a heap whose root list holds all the keys after a
+     * burst of inserts and on the same heap after one deleteMin consolidated it. "root walk" is how countersRep
+     * used to work, two passes over the root list; countersRep now copies the maintained rank histogram.
+     */
+    static void monitoring(int[] keys) {
+        FibonacciHeap<Void> heap = new FibonacciHeap<>();
+        for (int key : keys) {
+            heap.insert(key);
+        }
+        int calls = 1000;
+        for (int round = 0; round < 2; round++) {
+            String state = round == 0 ? "after inserts" : "consolidated";
+            report("countersRep root walk, " + state, calls, () -> {
+                for (int i = 0; i < calls; i++) {
+                    sink = walkCounters(heap);
+                }
+            });
+            report("countersRep maintained, " + state, calls, () -> {
+                for (int i = 0; i < calls; i++) {
+                    sink = heap.countersRep();
+                }
+            });
+            heap.deleteMin();
+        }
+    }
+
+    static int[] walkCounters(FibonacciHeap<?> heap) {
+        FibonacciHeap.HeapNode<?> first = heap.getFirst();
+        if (first == null) {
+            return new int[0];
+        }
+        int maxRank = 0;
+        FibonacciHeap.HeapNode<?> x = first;
+        do {
+            maxRank = Math.max(maxRank, x.getRank());
+            x = x.getNext();
+        } while (x != first);
+        int[] counters = new int[maxRank + 1];
+        do {
+            counters[x.getRank()] += 1;
+            x = x.getNext();
+        } while (x != first);
+        return counters;
+    }
+
+    /**
+     * snapshot and restore throughput in GB/s of snapshot file, on a consolidated heap with some cut and
+     * marked nodes. The file is written to the temporary directory, so the numbers mostly measure the page
+     * cache, as a restart on the same machine would see it.
+     */
+    static void snapshot(int[] keys) {
+        FibonacciHeap<Void> heap = FibonacciHeap.of(keys);
+        FibonacciHeap.HeapNode<Void>[] nodes = FibonacciHeap.newHandles(keys.length / 10);
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = heap.insert(keys[i]);
+        }
+        heap.deleteMin();
+        Random random = new Random(7);
+        for (int i = 0; i < nodes.length / 2; i++) {
+            FibonacciHeap.HeapNode<Void> x = nodes[random.nextInt(nodes.length)];
+            if (x != heap.findMin() && x.getParent() != null) {
+                heap.decreaseKey(x, 1);
+            }
+        }
+        try {
+            Path file = Files.createTempFile("heap-snapshot", ".bin");
+            try {
+                long snapshotNanos = Long.MAX_VALUE, restoreNanos = Long.MAX_VALUE;
+                for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    heap.snapshot(file);
+                    long middle = System.nanoTime();
+                    sink = FibonacciHeap.restore(file);
+                    long end = System.nanoTime();
+                    if (round >= WARMUP_ROUNDS) {
+                        snapshotNanos = Math.min(snapshotNanos, middle - start);
+                        restoreNanos = Math.min(restoreNanos, end - middle);
+                    }
+                }
+                long bytes = Files.size(file);
+                System.out.printf("snapshot %,d nodes, %,d bytes: snapshot %.2f GB/s (%dms), "
+                                + "restore %.2f GB/s (%dms)%n", heap.size(), bytes,
+                        (double) bytes / snapshotNanos, snapshotNanos / 1_000_000,
+                        (double) bytes / restoreNanos, restoreNanos / 1_000_000);
+            } finally {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * DurableFibonacciHeap ops/s with a force of the log every groupSize operations. groupSize = 1 forces
+     * every operation, so it runs on fewer of the keys.
+     */
+    static void writeAheadLog(int[] keys) {
+        for (int groupSize : new int[]{1, 16, 256, 4096}) {
+            int steps = Math.min(keys.length, groupSize == 1 ? 2_000 : 200_000);
+            try {
+                Path dir = Files.createTempDirectory("durable-heap");
+                long ops = 0, nanos;
+                long syncs;
+                try (DurableFibonacciHeap heap = DurableFibonacciHeap.open(dir, groupSize)) {
+                    long start = System.nanoTime();
+                    for (int i = 0; i < steps; i++) {
+                        long id = heap.insert(keys[i]);
+                        ops += 1;
+                        if (i % 2 == 1) {
+                            heap.decreaseKey(id, 1);
+                            ops += 1;
+                        }
+                        if (i % 3 == 2) {
+                            heap.deleteMin();
+                            ops += 1;
+                        }
+                    }
+                    heap.sync();
+                    nanos = System.nanoTime() - start;
+                    syncs = heap.syncs();
+                } finally {
+                    try (Stream<Path> files = Files.list(dir)) {
+                        for (Path file : (Iterable<Path>) files::iterator) {
+                            Files.delete(file);
+                        }
+                    }
+                    Files.delete(dir);
+                }
+                System.out.printf("write-ahead log groupSize=%-5d %,12.0f ops/s (%,d ops, %,d forces)%n", groupSize,
+                        ops * 1e9 / nanos, ops, syncs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * ExternalPriorityQueue with a memory budget of a tenth of the keys against an in-memory FibonacciHeap,
+     * inserting all the keys and then draining them.
+     */
+    static void externalMemory(int[] keys) {
+        int budget = Math.max(keys.length / 10, 2);
+        report("FibonacciHeap insert+drain in memory", 2L * keys.length, () -> {
+            FibonacciHeap<Void> heap = new FibonacciHeap<>();
+            for (int key : keys) {
+                heap.insert(key);
+            }
+            while (!heap.isEmpty()) {
+                heap.deleteMin();
+            }
+        });
+        int[] spills = new int[1];
+        report("ExternalPriorityQueue insert+drain budget=n/10", 2L * keys.length, () -> {
+            try {
+                Path dir = Files.createTempDirectory("external-queue");
+                try (ExternalPriorityQueue queue = new ExternalPriorityQueue(dir, budget)) {
+                    for (int key : keys) {
+                        queue.insert(key);
+                    }
+                    while (!queue.isEmpty()) {
+                        queue.deleteMin();
+                    }
+                    spills[0] = queue.spills();
+                } finally {
+                    Files.delete(dir);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        System.out.printf("ExternalPriorityQueue spilled %d runs%n", spills[0]);
+    }
+
+    /**
+     * aggregate queries over all the nodes of a heap: a sum of the keys and a count of the keys in a range,
+     * through nodes() in sequential and parallel streams, against a plain pre-order walk.
+     */
+    static void streams(int[] keys) {
+        FibonacciHeap<Void> heap = FibonacciHeap.of(keys);
+        heap.deleteMin();
+        int lo = Integer.MAX_VALUE / 4, hi = Integer.MAX_VALUE / 2;
+        long[] result = new long[1];
+        report("pre-order walk, sum", heap.size(), () -> {
+            long[] sum = {0};
+            heap.forEachInPreOrder(x -> sum[0] += x.getKey());
+            result[0] = sum[0];
+        });
+        report("nodes() sequential, sum", heap.size(),
+                () -> result[0] = StreamSupport.stream(heap.nodes(), false).mapToLong(x -> x.getKey()).sum());
+        report("nodes() parallel, sum", heap.size(),
+                () -> result[0] = StreamSupport.stream(heap.nodes(), true).mapToLong(x -> x.getKey()).sum());
+        report("nodes() sequential, count in range", heap.size(), () -> result[0] = StreamSupport
+                .stream(heap.nodes(), false).filter(x -> x.getKey() >= lo && x.getKey() < hi).count());
+        report("nodes() parallel, count in range", heap.size(), () -> result[0] = StreamSupport
+                .stream(heap.nodes(), true).filter(x -> x.getKey() >= lo && x.getKey() < hi).count());
+        sink = result;
+        System.out.printf("  (common pool parallelism %d)%n", ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    static String percentiles(long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return String.format("p50=%dns p99=%dns p99.9=%dns p99.99=%dns max=%dns",
+                sorted[(int) (sorted.length * 0.5)], sorted[(int) (sorted.length * 0.99)],
+                sorted[(int) (sorted.length * 0.999)], sorted[(int) (sorted.length * 0.9999)],
+                sorted[sorted.length - 1]);
+    }
+
+    static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(gc.getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    /**
+     * runs the task a few times to warm up, and prints the best measured round in ops/s.
+     */
+    static void report(String name, long ops, Runnable task) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            task.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-45s %,15.0f ops/s%n", name, ops * 1e9 / best);
+    }
+
+    static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,555 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Regression benchmarks for FibonacciHeap, compared with PairingHeap, the Heap (TreeSet) baseline and
+ * java.util.PriorityQueue.
+ * <p>
+ * Every operation (insert, deleteMin, decreaseKey, delete, meld, kMin) is measured for every size and key
+ * distribution, and the results can be exported as JSON to track regressions between runs:
+ * <pre>
+ * java HeapBenchmarkSuite [--sizes 1000,10000,...] [--distributions random,ascending,...]
+ *                         [--benchmarks insert,deleteMin,...] [--json results.json]
+ * </pre>
+ * PriorityQueue has no handles, so its decreaseKey and delete go through remove(Object), which is linear;
+ * they are only measured for sizes up to LINEAR_REMOVE_LIMIT.
+ * <p>
+ * The same benchmarks run under JMH too, from the Maven build (see jmh/benchmarks/HeapOperations.java).
+ */
+public class HeapBenchmarkSuite {
+    static final int[] DEFAULT_SIZES = {1_000, 10_000, 100_000, 1_000_000, 10_000_000};
+    static final String[] DISTRIBUTIONS = {"random", "ascending", "descending", "clustered"};
+    static final String[] BENCHMARKS = {"insert", "deleteMin", "decreaseKey", "delete", "meld", "kMin"};
+    static final int LINEAR_REMOVE_LIMIT = 10_000;
+    static final int K = 100;
+    static final int CLUSTERS = 16;
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = DEFAULT_SIZES;
+        String[] distributions = DISTRIBUTIONS;
+        String[] benchmarks = BENCHMARKS;
+        String json = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--sizes":
+                    String[] parts = args[i + 1].split(",");
+                    sizes = new int[parts.length];
+                    for (int j = 0; j < parts.length; j++) {
+                        sizes[j] = (int) Double.parseDouble(parts[j]);
+                    }
+                    break;
+                case "--distributions":
+                    distributions = args[i + 1].split(",");
+                    break;
+                case "--benchmarks":
+                    benchmarks = args[i + 1].split(",");
+                    break;
+                case "--json":
+                    json = args[i + 1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+        List<Result> results = new ArrayList<>();
+        for (int n : sizes) {
+            for (String distribution : distributions) {
+                int[] keys = keys(distribution, n, 42);
+                for (String benchmark : benchmarks) {
+                    for (Subject subject : subjects()) {
+                        Result result = measure(subject, benchmark, distribution, keys);
+                        if (result != null) {
+                            System.out.println(result);
+                            results.add(result);
+                        }
+                    }
+                }
+            }
+        }
+        if (json != null) {
+            writeJson(results, json);
+        }
+    }
+
+    static Subject[] subjects() {
+        return new Subject[]{new FibonacciHeapSubject(), new PairingHeapSubject(), new TreeSetHeapSubject(),
+                new PriorityQueueSubject()};
+    }
+
+    /**
+     * @return n distinct keys in the given insertion order.
+     */
+    static int[] keys(String distribution, int n, long seed) {
+        Random random = new Random(seed);
+        int[] keys = new int[n];
+        switch (distribution) {
+            case "ascending":
+                for (int i = 0; i < n; i++) {
+                    keys[i] = 2 * i;
+                }
+                break;
+            case "descending":
+                for (int i = 0; i < n; i++) {
+                    keys[i] = 2 * (n - i);
+                }
+                break;
+            case "random":
+                for (int i = 0; i < n; i++) {
+                    keys[i] = 2 * i;
+                }
+                shuffle(keys, random);
+                break;
+            case "clustered":
+                // CLUSTERS dense runs of keys far apart from each other, inserted in random order.
+                for (int i = 0; i < n; i++) {
+                    keys[i] = (i % CLUSTERS) * (Integer.MAX_VALUE / CLUSTERS) + 2 * (i / CLUSTERS);
+                }
+                shuffle(keys, random);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown distribution " + distribution);
+        }
+        return keys;
+    }
+
+    static int min(int[] keys) {
+        int min = Integer.MAX_VALUE;
+        for (int key : keys) {
+            min = Math.min(min, key);
+        }
+        return min;
+    }
+
+    static void shuffle(int[] keys, Random random) {
+        for (int i = keys.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = keys[i];
+            keys[i] = keys[j];
+            keys[j] = tmp;
+        }
+    }
+
+    /**
+     * runs one benchmark twice to warm up and three times measured, and keeps the best time.
+     * Only the measured operations are timed, building the heap they work on is not.
+     *
+     * @return null if the subject does not support the benchmark at this size.
+     */
+    static Result measure(Subject subject, String benchmark, String distribution, int[] keys) {
+        int n = keys.length;
+        if (!subject.supports(benchmark, n)) {
+            return null;
+        }
+        long best = Long.MAX_VALUE;
+        long ops = 0;
+        for (int round = 0; round < 5; round++) {
+            subject.reset();
+            IntSupplier operations = prepare(subject, benchmark, keys);
+            long start = System.nanoTime();
+            ops = operations.getAsInt();
+            long elapsed = System.nanoTime() - start;
+            if (round >= 2) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        subject.reset();
+        return new Result(benchmark, subject.name(), distribution, keys.length, ops, best);
+    }
+
+    /**
+     * builds the heap that the benchmark works on, in the freshly reset subject.
+     *
+     * @return the operations to measure, which return how many operations they made.
+     */
+    static IntSupplier prepare(Subject subject, String benchmark, int[] keys) {
+        int n = keys.length;
+        switch (benchmark) {
+            case "insert":
+                return () -> {
+                    subject.insertAll(keys, 0, n);
+                    return n;
+                };
+            case "deleteMin":
+                subject.insertAll(keys, 0, n);
+                return () -> {
+                    for (int i = 0; i < n; i++) {
+                        subject.deleteMin();
+                    }
+                    return n;
+                };
+            case "decreaseKey":
+                subject.insertAll(keys, 0, n);
+                subject.consolidate();
+                // every key goes below the current minimum, so every non-root is cut and the cuts cascade
+                // through the marked parents; a decrease by 1 would keep the heap order and cut nothing.
+                int floor = min(keys) - 1;
+                return () -> {
+                    for (int i = 0; i < n; i++) {
+                        subject.decreaseKey(i, keys[i] - (floor - i));  // distinct new keys floor, floor-1, ...
+                    }
+                    return n;
+                };
+            case "delete":
+                subject.insertAll(keys, 0, n);
+                subject.consolidate();
+                return () -> {
+                    for (int i = 0; i < n; i += 2) {
+                        subject.delete(i);
+                    }
+                    return (n + 1) / 2;
+                };
+            case "meld":
+                subject.insertAll(keys, 0, n / 2);
+                Subject other = subject.fresh();
+                other.insertAll(keys, n / 2, n);
+                return () -> {
+                    subject.meld(other);
+                    subject.deleteMin();  // meld is lazy in a Fibonacci heap, charge the first consolidation to it
+                    return 1;
+                };
+            case "kMin":
+                int treeSize = Integer.highestOneBit(n);
+                subject.insertAll(keys, 0, treeSize);
+                subject.consolidate();  // 2^i nodes consolidate to a single binomial tree
+                return () -> {
+                    HeapBenchmark.sink = subject.kMin(Math.min(K, treeSize));
+                    return 1;
+                };
+            default:
+                throw new IllegalArgumentException("unknown benchmark " + benchmark);
+        }
+    }
+
+    /**
+     * public static Supplier&lt;IntSupplier&gt; preparer(String implementation, String benchmark, String distribution,
+     * int size)
+     * <p>
+     * The entry point of the JMH benchmarks (see jmh/benchmarks/HeapOperations.java). JMH does not accept
+     * benchmarks in the default package, so they call this by reflection, once per trial, and go through JDK
+     * types only.
+     *
+     * @return a supplier that resets the heap and prepares it for every call (see prepare), and returns the
+     * operations to measure.
+     * @throws IllegalArgumentException if the implementation does not support the benchmark at this size.
+     */
+    public static Supplier<IntSupplier> preparer(String implementation, String benchmark, String distribution,
+                                                 int size) {
+        for (Subject subject : subjects()) {
+            if (subject.name().equals(implementation)) {
+                if (!subject.supports(benchmark, size)) {
+                    throw new IllegalArgumentException(implementation + " does not support " + benchmark + " at size "
+                            + size);
+                }
+                int[] keys = keys(distribution, size, 42);
+                return () -> {
+                    subject.reset();
+                    return prepare(subject, benchmark, keys);
+                };
+            }
+        }
+        throw new IllegalArgumentException("unknown implementation " + implementation);
+    }
+
+    static void writeJson(List<Result> results, String path) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8))) {
+            out.println("[");
+            for (int i = 0; i < results.size(); i++) {
+                out.print("  " + results.get(i).toJson());
+                out.println(i + 1 < results.size() ? "," : "");
+            }
+            out.println("]");
+        }
+        System.out.println("wrote " + results.size() + " results to " + path);
+    }
+
+    static class Result {
+        final String benchmark, implementation, distribution;
+        final int size;
+        final long ops, nanos;
+
+        Result(String benchmark, String implementation, String distribution, int size, long ops, long nanos) {
+            this.benchmark = benchmark;
+            this.implementation = implementation;
+            this.distribution = distribution;
+            this.size = size;
+            this.ops = ops;
+            this.nanos = nanos;
+        }
+
+        double nanosPerOp() {
+            return (double) nanos / ops;
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT, "{\"benchmark\": \"%s\", \"implementation\": \"%s\", "
+                            + "\"distribution\": \"%s\", \"size\": %d, \"ops\": %d, \"nanos\": %d, \"nsPerOp\": %.2f}",
+                    benchmark, implementation, distribution, size, ops, nanos, nanosPerOp());
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-12s %-14s %-11s n=%-10d %14.1f ns/op",
+                    benchmark, implementation, distribution, size, nanosPerOp());
+        }
+    }
+
+    /**
+     * A heap under benchmark. Elements are addressed by their insertion index, which each subject
+     * maps to its own handle (a node, or the key itself). Every element is decreased at most once per round.
+     */
+    abstract static class Subject {
+        /**
+         * inserts a key below all others and deletes it, which consolidates a Fibonacci heap
+         * without losing any of the indexed elements.
+         */
+        void consolidate() {
+            insertUntracked(Integer.MIN_VALUE);
+            deleteMin();
+        }
+
+        abstract void insertUntracked(int key);
+
+        abstract String name();
+
+        abstract Subject fresh();
+
+        abstract void reset();
+
+        abstract void insertAll(int[] keys, int from, int to);
+
+        abstract void deleteMin();
+
+        abstract void decreaseKey(int index, int delta);
+
+        abstract void delete(int index);
+
+        abstract void meld(Subject other);
+
+        abstract int[] kMin(int k);
+
+        boolean supports(String benchmark, int n) {
+            return true;
+        }
+    }
+
+    /**
+     * A subject used through IntPriorityQueue, whose handles are kept by insertion index.
+     */
+    abstract static class QueueSubject<H> extends Subject {
+        IntPriorityQueue<H> queue = newQueue();
+        List<H> handles = new ArrayList<>();
+
+        abstract IntPriorityQueue<H> newQueue();
+
+        void reset() {
+            queue = newQueue();
+            handles = new ArrayList<>();
+        }
+
+        void insertAll(int[] keys, int from, int to) {
+            for (int i = from; i < to; i++) {
+                handles.add(queue.insert(keys[i]));
+            }
+        }
+
+        void insertUntracked(int key) {
+            queue.insert(key);
+        }
+
+        void deleteMin() {
+            queue.deleteMin();
+        }
+
+        void decreaseKey(int index, int delta) {
+            queue.decreaseKey(handles.get(index), delta);
+        }
+
+        void delete(int index) {
+            queue.delete(handles.get(index));
+        }
+    }
+
+    static class FibonacciHeapSubject extends QueueSubject<FibonacciHeap.HeapNode<Void>> {
+        FibonacciHeap<Void> heap;
+
+        IntPriorityQueue<FibonacciHeap.HeapNode<Void>> newQueue() {
+            heap = new FibonacciHeap<>();
+            return heap;
+        }
+
+        String name() {
+            return "FibonacciHeap";
+        }
+
+        Subject fresh() {
+            return new FibonacciHeapSubject();
+        }
+
+        void meld(Subject other) {
+            heap.meld(((FibonacciHeapSubject) other).heap);
+        }
+
+        int[] kMin(int k) {
+            return FibonacciHeap.kMin(heap, k);
+        }
+    }
+
+    static class PairingHeapSubject extends QueueSubject<PairingHeap.Node<Void>> {
+        PairingHeap<Void> heap;
+
+        IntPriorityQueue<PairingHeap.Node<Void>> newQueue() {
+            heap = new PairingHeap<>();
+            return heap;
+        }
+
+        String name() {
+            return "PairingHeap";
+        }
+
+        Subject fresh() {
+            return new PairingHeapSubject();
+        }
+
+        void meld(Subject other) {
+            heap.meld(((PairingHeapSubject) other).heap);
+        }
+
+        int[] kMin(int k) {
+            throw new UnsupportedOperationException("PairingHeap has no kMin");
+        }
+
+        @Override
+        boolean supports(String benchmark, int n) {
+            return !benchmark.equals("kMin");
+        }
+    }
+
+    static class TreeSetHeapSubject extends Subject {
+        Heap heap = new Heap();
+        int[] keys;
+
+        String name() {
+            return "Heap(TreeSet)";
+        }
+
+        Subject fresh() {
+            return new TreeSetHeapSubject();
+        }
+
+        void reset() {
+            heap = new Heap();
+        }
+
+        void insertAll(int[] keys, int from, int to) {
+            this.keys = keys;
+            for (int i = from; i < to; i++) {
+                heap.insert(keys[i]);
+            }
+        }
+
+        void insertUntracked(int key) {
+            heap.insert(key);
+        }
+
+        void deleteMin() {
+            heap.deleteMin();
+        }
+
+        void decreaseKey(int index, int delta) {
+            heap.delete(keys[index]);
+            heap.insert(keys[index] - delta);
+        }
+
+        void delete(int index) {
+            heap.delete(keys[index]);
+        }
+
+        void meld(Subject other) {
+            Heap heap2 = ((TreeSetHeapSubject) other).heap;
+            while (!heap2.isEmpty()) {
+                heap.insert(heap2.deleteMin());
+            }
+        }
+
+        int[] kMin(int k) {
+            // Heap offers no ordered iteration, so take the k minima out and put them back.
+            int[] res = new int[k];
+            for (int i = 0; i < k; i++) {
+                res[i] = heap.deleteMin();
+            }
+            for (int key : res) {
+                heap.insert(key);
+            }
+            return res;
+        }
+    }
+
+    static class PriorityQueueSubject extends Subject {
+        PriorityQueue<Integer> queue = new PriorityQueue<>();
+        int[] keys;
+
+        String name() {
+            return "PriorityQueue";
+        }
+
+        Subject fresh() {
+            return new PriorityQueueSubject();
+        }
+
+        void reset() {
+            queue = new PriorityQueue<>();
+        }
+
+        void insertAll(int[] keys, int from, int to) {
+            this.keys = keys;
+            for (int i = from; i < to; i++) {
+                queue.add(keys[i]);
+            }
+        }
+
+        void insertUntracked(int key) {
+            queue.add(key);
+        }
+
+        void deleteMin() {
+            queue.poll();
+        }
+
+        void decreaseKey(int index, int delta) {
+            queue.remove(keys[index]);
+            queue.add(keys[index] - delta);
+        }
+
+        void delete(int index) {
+            queue.remove(keys[index]);
+        }
+
+        void meld(Subject other) {
+            queue.addAll(((PriorityQueueSubject) other).queue);
+        }
+
+        int[] kMin(int k) {
+            PriorityQueue<Integer> copy = new PriorityQueue<>(queue);
+            int[] res = new int[k];
+            for (int i = 0; i < k; i++) {
+                res[i] = copy.poll();
+            }
+            return res;
+        }
+
+        @Override
+        boolean supports(String benchmark, int n) {
+            return n <= LINEAR_REMOVE_LIMIT || !(benchmark.equals("decreaseKey") || benchmark.equals("delete"));
+        }
+    }
+}
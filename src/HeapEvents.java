@@ -0,0 +1,78 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of FibonacciHeap.
+ * <p>
+ * All events are disabled by default. Enable them in a recording, for example
+ * <pre>
+ * java -XX:StartFlightRecording:filename=heap.jfr,settings=profile ...
+ * jfr configure +datastructures.FibonacciHeap.Consolidate#enabled=true ... (or Recording.enable(name))
+ * jfr print --events datastructures.FibonacciHeap.Consolidate heap.jfr
+ * </pre>
+ * or open the recording in JDK Mission Control.
+ * <p>
+ * The heap follows the usual JFR pattern: it creates the event, and only times it and fills it in when
+ * isEnabled and shouldCommit say that some recording wants it. While the events are disabled, the JIT removes
+ * the allocation and the checks are constant, so the cost does not depend on whether other recordings run.
+ */
+final class HeapEvents {
+    private HeapEvents() {
+    }
+
+    @Name("datastructures.FibonacciHeap.Consolidate")
+    @Label("Fibonacci Heap Consolidate")
+    @Description("Linking the root list into one tree per rank, after deleteMin, delete or pollMin")
+    @Category({"Data Structures", "Fibonacci Heap"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Consolidate extends Event {
+        @Label("Roots Before")
+        int rootsBefore;
+
+        @Label("Roots After")
+        int rootsAfter;
+
+        @Label("Links")
+        int links;
+
+        @Label("Heap Size")
+        int heapSize;
+    }
+
+    @Name("datastructures.FibonacciHeap.CascadingCut")
+    @Label("Fibonacci Heap Cascading Cut")
+    @Description("Cutting a node and its marked ancestors to the root list, in decreaseKey or delete")
+    @Category({"Data Structures", "Fibonacci Heap"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class CascadingCut extends Event {
+        @Label("Depth")
+        @Description("The number of cuts, 1 when the parent was not marked")
+        int depth;
+
+        @Label("Heap Size")
+        int heapSize;
+    }
+
+    @Name("datastructures.FibonacciHeap.Meld")
+    @Label("Fibonacci Heap Meld")
+    @Category({"Data Structures", "Fibonacci Heap"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Meld extends Event {
+        @Label("Size")
+        int size;
+
+        @Label("Melded Size")
+        int meldedSize;
+
+        @Label("Melded Trees")
+        int meldedTrees;
+    }
+}
@@ -0,0 +1,223 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HeapMetrics
+ * <p>
+ * Operation counters and latency histograms of a single heap, see FibonacciHeap.metrics() and
+ * ArrayFibonacciHeap.metrics().
+ * <p>
+ * The counters are LongAdders, so a monitoring thread can read them while the owner of the heap keeps
+ * updating them, and heaps owned by different threads (MultiQueue shards, for example) never write to the
+ * same counter. The heap adds its links and cuts once per operation rather than once per link or cut.
+ * Latencies are timed for one operation in every SAMPLE_PERIOD only, into power-of-two nanosecond buckets,
+ * so the metrics are cheap enough to stay on.
+ * <p>
+ * TOTAL_LINKS and TOTAL_CUTS aggregate the links and cuts of all heaps of both kinds
+ * (FibonacciHeap.totalLinks/totalCuts).
+ */
+public final class HeapMetrics {
+    public static final int SAMPLE_PERIOD = 64;
+    static final long NOT_SAMPLED = Long.MIN_VALUE;
+    static final LongAdder TOTAL_LINKS = new LongAdder();
+    static final LongAdder TOTAL_CUTS = new LongAdder();
+    // cuts made by a single decreaseKey/delete: 1 for a plain cut, more for every cascading step.
+    static final int MAX_CASCADE = 32;
+
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder deleteMins = new LongAdder();
+    private final LongAdder decreaseKeys = new LongAdder();
+    private final LongAdder deletes = new LongAdder();
+    private final LongAdder links = new LongAdder();
+    private final LongAdder cuts = new LongAdder();
+    private final AtomicLongArray cascadeDepths = new AtomicLongArray(MAX_CASCADE + 1);
+    private final Histogram rootListLengths = new Histogram();
+    private final Histogram insertLatency = new Histogram();
+    private final Histogram deleteMinLatency = new Histogram();
+    private final Histogram decreaseKeyLatency = new Histogram();
+    private int tick = 0;  // written by the heap's owner only
+
+    public long inserts() {
+        return inserts.sum();
+    }
+
+    public long deleteMins() {
+        return deleteMins.sum();
+    }
+
+    public long decreaseKeys() {
+        return decreaseKeys.sum();
+    }
+
+    public long deletes() {
+        return deletes.sum();
+    }
+
+    public long links() {
+        return links.sum();
+    }
+
+    public long cuts() {
+        return cuts.sum();
+    }
+
+    /**
+     * @return entry i is the number of decreaseKey/delete calls that made exactly i cuts
+     * (the last entry counts MAX_CASCADE cuts or more).
+     */
+    public long[] cascadeDepths() {
+        long[] res = new long[cascadeDepths.length()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = cascadeDepths.get(i);
+        }
+        return res;
+    }
+
+    /**
+     * @return the lengths of the root lists that deleteMin consolidated.
+     */
+    public Histogram rootListLengths() {
+        return rootListLengths;
+    }
+
+    public Histogram insertLatency() {
+        return insertLatency;
+    }
+
+    public Histogram deleteMinLatency() {
+        return deleteMinLatency;
+    }
+
+    public Histogram decreaseKeyLatency() {
+        return decreaseKeyLatency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "inserts=%d deleteMins=%d decreaseKeys=%d deletes=%d links=%d cuts=%d"
+                        + " rootList(p50=%d p99=%d) latency ns: insert(p50=%d p99=%d) deleteMin(p50=%d p99=%d)"
+                        + " decreaseKey(p50=%d p99=%d)",
+                inserts(), deleteMins(), decreaseKeys(), deletes(), links(), cuts(),
+                rootListLengths.percentile(0.5), rootListLengths.percentile(0.99),
+                insertLatency.percentile(0.5), insertLatency.percentile(0.99),
+                deleteMinLatency.percentile(0.5), deleteMinLatency.percentile(0.99),
+                decreaseKeyLatency.percentile(0.5), decreaseKeyLatency.percentile(0.99));
+    }
+
+    /**
+     * @return the start time of the operation if it is sampled, NOT_SAMPLED otherwise.
+     */
+    long start() {
+        return (++tick & (SAMPLE_PERIOD - 1)) == 0 ? System.nanoTime() : NOT_SAMPLED;
+    }
+
+    void insert(long start) {
+        inserts.increment();
+        record(insertLatency, start);
+    }
+
+    void insertAll(int count, int links) {
+        inserts.add(count);
+        links(links);
+    }
+
+    void deleteMin(long start) {
+        deleteMins.increment();
+        record(deleteMinLatency, start);
+    }
+
+    /**
+     * counts a batch of deleteMins that shared one consolidation (FibonacciHeap.pollMin).
+     */
+    void deleteMins(int count) {
+        deleteMins.add(count);
+    }
+
+    void consolidated(int rootListLength, int links) {
+        rootListLengths.add(rootListLength);
+        links(links);
+    }
+
+    /**
+     * counts the links of an insert or deleteMin that consolidates incrementally.
+     */
+    void incrementalLinks(int links) {
+        links(links);
+    }
+
+    void decreaseKey(long start, int cuts) {
+        decreaseKeys.increment();
+        cuts(cuts);
+        record(decreaseKeyLatency, start);
+    }
+
+    void delete(int cuts) {
+        deletes.increment();
+        cuts(cuts);
+    }
+
+    private void links(int count) {
+        if (count > 0) {
+            links.add(count);
+            TOTAL_LINKS.add(count);
+        }
+    }
+
+    /**
+     * counts the cuts made by one decreaseKey/delete.
+     */
+    private void cuts(int count) {
+        if (count > 0) {
+            cuts.add(count);
+            TOTAL_CUTS.add(count);
+        }
+        cascadeDepths.incrementAndGet(Math.min(count, MAX_CASCADE));
+    }
+
+    private static void record(Histogram histogram, long start) {
+        if (start != NOT_SAMPLED) {
+            histogram.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * A histogram of non-negative values in power-of-two buckets: bucket i counts the values v
+     * with 2^(i-1) &lt;= v &lt; 2^i (bucket 0 counts the zeros).
+     */
+    public static final class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+        void add(long value) {
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(Math.max(value, 0)));
+        }
+
+        public long count() {
+            long count = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                count += buckets.get(i);
+            }
+            return count;
+        }
+
+        public long bucket(int i) {
+            return buckets.get(i);
+        }
+
+        /**
+         * @return an upper bound (2^i - 1 for bucket i) of the value at the given quantile, 0 if empty.
+         */
+        public long percentile(double quantile) {
+            long count = count();
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank && seen > 0) {
+                    return i == 63 ? Long.MAX_VALUE : (1L << i) - 1;
+                }
+            }
+            return 0;
+        }
+    }
+}
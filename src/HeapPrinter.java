@@ -15,7 +15,7 @@ public class HeapPrinter {
         }
     }
 
-    static void printIndent(FibonacciHeap.HeapNode heapNode, ArrayList<Boolean> hasNexts) {
+    static void printIndent(FibonacciHeap.HeapNode<?> heapNode, ArrayList<Boolean> hasNexts) {
         int size = hasNexts.size();
         printIndentPrefix(hasNexts);
 
@@ -33,7 +33,7 @@ public class HeapPrinter {
         return r.toString();
     }
 
-    static void printIndentVerbose(FibonacciHeap.HeapNode heapNode, ArrayList<Boolean> hasNexts) {
+    static void printIndentVerbose(FibonacciHeap.HeapNode<?> heapNode, ArrayList<Boolean> hasNexts) {
         int size = hasNexts.size();
         if (heapNode == null) {
             printIndentPrefix(hasNexts);
@@ -41,8 +41,8 @@ public class HeapPrinter {
             return;
         }
 
-        Function<Supplier<FibonacciHeap.HeapNode>, String> keyify = (f) -> {
-            FibonacciHeap.HeapNode node = f.get();
+        Function<Supplier<FibonacciHeap.HeapNode<?>>, String> keyify = (f) -> {
+            FibonacciHeap.HeapNode<?> node = f.get();
             return node == null ? "(null)" : String.valueOf(node.getKey());
         };
         String title  = String.format(" Key: %d ", heapNode.getKey());
@@ -87,7 +87,7 @@ public class HeapPrinter {
         stream.format("%c   ╰%s╯%n", hasNext ? '│' : ' ', line);
     }
 
-    static void printHeapNode(FibonacciHeap.HeapNode heapNode, FibonacciHeap.HeapNode until, ArrayList<Boolean> hasNexts, boolean verbose) {
+    static void printHeapNode(FibonacciHeap.HeapNode<?> heapNode, FibonacciHeap.HeapNode<?> until, ArrayList<Boolean> hasNexts, boolean verbose) {
         if (heapNode == null || heapNode == until) {
             return;
         }
@@ -109,7 +109,7 @@ public class HeapPrinter {
         printHeapNode(heapNode.getNext(), until, hasNexts, verbose);
     }
 
-    public static void print(FibonacciHeap heap, boolean verbose) {
+    public static void print(FibonacciHeap<?> heap, boolean verbose) {
         if (heap == null) {
             stream.println("(null)");
             return;
@@ -126,7 +126,7 @@ public class HeapPrinter {
 
     public static void demo() {
         /* Build an example */
-        FibonacciHeap heap = new FibonacciHeap();
+        FibonacciHeap<Void> heap = new FibonacciHeap<>();
 
         heap.insert(20);
         heap.insert(8);
@@ -0,0 +1,211 @@
+import java.util.Arrays;
+
+/**
+ * IndexedDaryHeap
+ * <p>
+ * An implicit d-ary min-heap over integers with int handles, for decrease-key workloads that fit in memory
+ * and suffer from the cache misses of pointer-based heaps.
+ * <p>
+ * The heap is a pair of parallel arrays in heap order, keys and the handle stored at every position, so
+ * comparing the d children of a node reads one or two cache lines. A position index maps every handle to its
+ * position, which gives decreaseKey and delete by handle as in {@link FibonacciHeap}. Like in
+ * {@link ArrayFibonacciHeap}, the arrays grow by doubling and handles of deleted entries are recycled by later
+ * inserts, so a handle must not be used after its entry was deleted.
+ * <p>
+ * With d children per node the tree has log_d(n) levels: insert and decreaseKey take O(log_d(n)), deleteMin
+ * and delete take O(d*log_d(n)). d = 4 or 8 usually beats the binary heap (d = 2).
+ * <p>
+ * These bounds are worst case, not amortized: no operation restructures more than one root-to-leaf path, so
+ * there is no rare expensive call like FibonacciHeap's consolidation or PairingHeap's pairing pass. The only
+ * exception is the doubling of the arrays, so a heap constructed with an initialCapacity of its largest size
+ * never allocates. StrictFibonacciHeap has the better worst case for insert and decreaseKey, W.C O(1), at a
+ * higher constant factor and an allocation per insert (see LatencyBenchmark).
+ */
+public class IndexedDaryHeap {
+    /**
+     * the "null" handle.
+     */
+    public static final int NIL = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final int d;
+    private int[] keys;      // keys in heap order
+    private int[] handles;   // handle of the entry at every position
+    private int[] positions; // position of every live handle, or the next free handle for a deleted one
+    private int freeList = NIL;  // deleted handles, chained through positions[]
+    private int allocated = 0;   // number of handles ever handed out (live + free)
+    private int size = 0;
+
+    public IndexedDaryHeap(int d) {
+        this(d, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param d               the number of children of every node, at least 2.
+     * @param initialCapacity the number of entries to reserve room for.
+     */
+    public IndexedDaryHeap(int d, int initialCapacity) {
+        if (d < 2) {
+            throw new IllegalArgumentException("d must be at least 2: " + d);
+        }
+        this.d = d;
+        int capacity = Math.max(initialCapacity, 1);
+        keys = new int[capacity];
+        handles = new int[capacity];
+        positions = new int[capacity];
+    }
+
+    public int arity() {
+        return d;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getKey(int handle) {
+        return keys[positions[handle]];
+    }
+
+    /**
+     * public int findMin()
+     * <p>
+     * Returns the handle of the entry whose key is minimal, or NIL if the heap is empty.
+     * complexity O(1)
+     */
+    public int findMin() {
+        return size == 0 ? NIL : handles[0];
+    }
+
+    /**
+     * public int insert(int key)
+     * <p>
+     * Inserts the key and returns the handle of the new entry.
+     * complexity: O(log_d(n))
+     */
+    public int insert(int key) {
+        int handle = newHandle();
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * size);
+            handles = Arrays.copyOf(handles, 2 * size);
+        }
+        siftUp(size++, key, handle);
+        return handle;
+    }
+
+    /**
+     * public void deleteMin()
+     * <p>
+     * Deletes the entry whose key is minimal. Does nothing if the heap is empty.
+     * complexity: O(d*log_d(n))
+     */
+    public void deleteMin() {
+        if (size > 0) {
+            removeAt(0);
+        }
+    }
+
+    /**
+     * public void delete(int handle)
+     * <p>
+     * Deletes the entry of the handle, which must be live.
+     * complexity: O(d*log_d(n))
+     */
+    public void delete(int handle) {
+        removeAt(positions[handle]);
+    }
+
+    /**
+     * public void decreaseKey(int handle, int delta)
+     * <p>
+     * Decreases the key of the entry by a non-negative delta and moves it up.
+     * complexity: O(log_d(n))
+     */
+    public void decreaseKey(int handle, int delta) {
+        int i = positions[handle];
+        siftUp(i, keys[i] - delta, handle);
+    }
+
+    private int newHandle() {
+        if (freeList != NIL) {
+            int handle = freeList;
+            freeList = positions[handle];
+            return handle;
+        }
+        if (allocated == positions.length) {
+            positions = Arrays.copyOf(positions, 2 * allocated);
+        }
+        return allocated++;
+    }
+
+    /**
+     * removes the entry at position i, filling the hole with the last entry.
+     */
+    private void removeAt(int i) {
+        int handle = handles[i];
+        size -= 1;
+        if (i < size) {
+            int key = keys[size];
+            int last = handles[size];
+            if (i > 0 && key < keys[(i - 1) / d]) {
+                siftUp(i, key, last);
+            } else {
+                siftDown(i, key, last);
+            }
+        }
+        positions[handle] = freeList;
+        freeList = handle;
+    }
+
+    /**
+     * places (key, handle) at position i or above it, moving larger parents down into the hole.
+     */
+    private void siftUp(int i, int key, int handle) {
+        while (i > 0) {
+            int p = (i - 1) / d;
+            if (keys[p] <= key) {
+                break;
+            }
+            keys[i] = keys[p];
+            handles[i] = handles[p];
+            positions[handles[i]] = i;
+            i = p;
+        }
+        keys[i] = key;
+        handles[i] = handle;
+        positions[handle] = i;
+    }
+
+    /**
+     * places (key, handle) at position i or below it, moving the smallest child up into the hole.
+     */
+    private void siftDown(int i, int key, int handle) {
+        while (true) {
+            int c = d * i + 1;
+            if (c >= size) {
+                break;
+            }
+            int end = Math.min(c + d, size);
+            int best = c;
+            for (int j = c + 1; j < end; j++) {
+                if (keys[j] < keys[best]) {
+                    best = j;
+                }
+            }
+            if (keys[best] >= key) {
+                break;
+            }
+            keys[i] = keys[best];
+            handles[i] = handles[best];
+            positions[handles[i]] = i;
+            i = best;
+        }
+        keys[i] = key;
+        handles[i] = handle;
+        positions[handle] = i;
+    }
+}
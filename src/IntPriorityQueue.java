@@ -0,0 +1,51 @@
+/**
+ * IntPriorityQueue
+ * <p>
+ * A min-priority queue of int keys with handles: insert returns a handle of type H that stays valid until its
+ * entry is deleted, and decreaseKey and delete take it. Implemented by FibonacciHeap, PairingHeap and
+ * StrictFibonacciHeap, and by RadixHeap.asQueue(), so code written against this interface can swap one for another.
+ * Code that also needs a value per entry, such as ShortestPaths.dijkstra, takes an IntValueQueue.
+ * <p>
+ * Heap (the TreeSet baseline) identifies entries by their key and returns keys from findMin/deleteMin, so it
+ * has no handles to offer and stays outside of this interface.
+ *
+ * @param <H> the type of the handles.
+ */
+public interface IntPriorityQueue<H> {
+
+    boolean isEmpty();
+
+    int size();
+
+    /**
+     * inserts the key.
+     *
+     * @return the handle of the new entry.
+     */
+    H insert(int key);
+
+    /**
+     * @return the handle of an entry with the minimal key, or null if the queue is empty.
+     */
+    H findMin();
+
+    /**
+     * @return the current key of the entry.
+     */
+    int getKey(H handle);
+
+    /**
+     * deletes an entry with the minimal key. Does nothing if the queue is empty.
+     */
+    void deleteMin();
+
+    /**
+     * deletes the entry, which must belong to this queue.
+     */
+    void delete(H handle);
+
+    /**
+     * decreases the key of the entry by the non-negative delta.
+     */
+    void decreaseKey(H handle, int delta);
+}
@@ -0,0 +1,24 @@
+/**
+ * IntValueQueue
+ * <p>
+ * An IntPriorityQueue whose entries carry a value of type V, for code that needs to know which entry is the
+ * minimum, such as ShortestPaths.dijkstra with a vertex per entry. FibonacciHeap, PairingHeap and
+ * StrictFibonacciHeap keep the value in their nodes, and RadixHeap.asQueue() in an array indexed by handle.
+ *
+ * @param <H> the type of the handles.
+ * @param <V> the type of the values.
+ */
+public interface IntValueQueue<H, V> extends IntPriorityQueue<H> {
+
+    /**
+     * inserts the key with the value.
+     *
+     * @return the handle of the new entry.
+     */
+    H insert(int key, V value);
+
+    /**
+     * @return the value the entry was inserted with, null if it was inserted without one.
+     */
+    V getValue(H handle);
+}
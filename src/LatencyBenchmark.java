@@ -0,0 +1,183 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Tail latency of every heap operation in a dispatcher-like steady state.
+ * <p>
+ * Run with "java LatencyBenchmark [n] [steps]". The heap is filled with n jobs, then every step dispatches
+ * the most urgent job (deleteMin), schedules a new one (insert) and escalates a random waiting job
+ * (decreaseKey). Every single operation is timed, and the report gives p50, p99, p99.9, p99.99 and max per
+ * operation, since amortized bounds say nothing about the slowest call:
+ * <ul>
+ * <li>FibonacciHeap: deleteMin consolidates the whole root list, W.C O(n), and decreaseKey can cascade.</li>
+ * <li>FibonacciHeap with a consolidation budget: bounds the links per operation instead.</li>
+ * <li>PairingHeap: deleteMin pairs all the children of the root, W.C O(n).</li>
+ * <li>StrictFibonacciHeap: W.C O(1) insert and decreaseKey, and W.C O(log n) deleteMin.</li>
+ * <li>IndexedDaryHeap, preallocated: W.C O(log n) for every operation, and nothing is allocated.</li>
+ * </ul>
+ */
+public class LatencyBenchmark {
+    static final int MAX_DELTA = 1 << 10;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        System.out.printf("n = %,d, steps = %,d%n", n, steps);
+        for (Subject subject : subjects(n)) {
+            run(subject, n, steps / 10, 1);  // warm up
+            long[][] latencies = run(subject, n, steps, 2);
+            String[] operations = {"deleteMin", "insert", "decreaseKey"};
+            for (int op = 0; op < operations.length; op++) {
+                System.out.printf("%-28s %-12s %s%n", subject.name, operations[op],
+                        HeapBenchmark.percentiles(latencies[op]));
+            }
+        }
+    }
+
+    static Subject[] subjects(int n) {
+        return new Subject[]{
+                new QueueSubject<>("FibonacciHeap", n, FibonacciHeap::new),
+                new QueueSubject<>("FibonacciHeap budget=64", n, () -> {
+                    FibonacciHeap<Integer> heap = new FibonacciHeap<>();
+                    heap.setConsolidationBudget(64);
+                    return heap;
+                }),
+                new QueueSubject<>("PairingHeap", n, PairingHeap::new),
+                new QueueSubject<>("StrictFibonacciHeap", n, StrictFibonacciHeap::new),
+                new IndexedDaryHeapSubject(n, 4),
+        };
+    }
+
+    /**
+     * @return the latencies of the deleteMins, inserts and decreaseKeys, in this order.
+     */
+    static long[][] run(Subject subject, int n, int steps, long seed) {
+        Random random = new Random(seed);
+        subject.reset();
+        for (int job = 0; job < n; job++) {
+            subject.insert(job, random.nextInt(Integer.MAX_VALUE / 2));
+        }
+        long[][] latencies = new long[3][steps];
+        for (int i = 0; i < steps; i++) {
+            long start = System.nanoTime();
+            int job = subject.deleteMin();
+            latencies[0][i] = System.nanoTime() - start;
+            int key = random.nextInt(Integer.MAX_VALUE / 2);
+            start = System.nanoTime();
+            subject.insert(job, key);  // the dispatched job's slot is reused by the new one
+            latencies[1][i] = System.nanoTime() - start;
+            int escalated = random.nextInt(n);
+            int delta = random.nextInt(MAX_DELTA);
+            start = System.nanoTime();
+            subject.decreaseKey(escalated, delta);
+            latencies[2][i] = System.nanoTime() - start;
+        }
+        HeapBenchmark.sink = subject;
+        return latencies;
+    }
+
+    /**
+     * a heap holding one entry for each of n jobs, identified by their index.
+     */
+    abstract static class Subject {
+        final String name;
+        final int n;
+
+        Subject(String name, int n) {
+            this.name = name;
+            this.n = n;
+        }
+
+        abstract void reset();
+
+        abstract void insert(int job, int key);
+
+        /**
+         * @return the job whose entry was deleted.
+         */
+        abstract int deleteMin();
+
+        abstract void decreaseKey(int job, int delta);
+    }
+
+    /**
+     * a subject on any IntValueQueue, created by the factory on every reset. The value of an entry is its job.
+     */
+    static class QueueSubject<H> extends Subject {
+        final Supplier<? extends IntValueQueue<H, Integer>> factory;
+        final Integer[] jobs;  // boxed once, so the measured operations allocate no values
+        IntValueQueue<H, Integer> queue;
+        H[] handles;
+
+        QueueSubject(String name, int n, Supplier<? extends IntValueQueue<H, Integer>> factory) {
+            super(name, n);
+            this.factory = factory;
+            jobs = new Integer[n];
+            for (int job = 0; job < n; job++) {
+                jobs[job] = job;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void reset() {
+            queue = factory.get();
+            handles = (H[]) new Object[n];
+        }
+
+        void insert(int job, int key) {
+            handles[job] = queue.insert(key, jobs[job]);
+        }
+
+        int deleteMin() {
+            int job = queue.getValue(queue.findMin());
+            queue.deleteMin();
+            handles[job] = null;
+            return job;
+        }
+
+        void decreaseKey(int job, int delta) {
+            if (handles[job] != null) {
+                queue.decreaseKey(handles[job], delta);
+            }
+        }
+    }
+
+    static class IndexedDaryHeapSubject extends Subject {
+        final int d;
+        IndexedDaryHeap heap;
+        int[] handles;  // job -> handle, NIL while the job is not in the heap
+        int[] jobs;     // handle -> job
+
+        IndexedDaryHeapSubject(int n, int d) {
+            super("IndexedDaryHeap d=" + d, n);
+            this.d = d;
+        }
+
+        void reset() {
+            heap = new IndexedDaryHeap(d, n);
+            handles = new int[n];
+            Arrays.fill(handles, IndexedDaryHeap.NIL);
+            jobs = new int[n];
+        }
+
+        void insert(int job, int key) {
+            int handle = heap.insert(key);
+            handles[job] = handle;
+            jobs[handle] = job;
+        }
+
+        int deleteMin() {
+            int job = jobs[heap.findMin()];
+            heap.deleteMin();
+            handles[job] = IndexedDaryHeap.NIL;
+            return job;
+        }
+
+        void decreaseKey(int job, int delta) {
+            if (handles[job] != IndexedDaryHeap.NIL) {
+                heap.decreaseKey(handles[job], delta);
+            }
+        }
+    }
+}
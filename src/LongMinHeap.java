@@ -0,0 +1,69 @@
+import java.util.Arrays;
+
+/**
+ * A growable binary min-heap of primitive longs.
+ * <p>
+ * Used as the lazy-insertion baseline next to FibonacciHeap: instead of decreasing a key, the caller
+ * inserts another entry (for example priority &lt;&lt; 32 | vertex) and skips stale ones when they come out.
+ */
+class LongMinHeap {
+    private long[] heap;
+    private int size = 0;
+
+    LongMinHeap(int initialCapacity) {
+        heap = new long[Math.max(initialCapacity, 1)];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    long peek() {
+        return heap[0];
+    }
+
+    /**
+     * complexity: O(logn)
+     */
+    void add(long x) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, 2 * size);
+        }
+        int i = size++;
+        while (i > 0 && heap[(i - 1) >>> 1] > x) {
+            heap[i] = heap[(i - 1) >>> 1];
+            i = (i - 1) >>> 1;
+        }
+        heap[i] = x;
+    }
+
+    /**
+     * removes and returns the minimum. complexity: O(logn)
+     */
+    long poll() {
+        long res = heap[0];
+        long x = heap[--size];
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int c = 2 * i + 1;
+            if (c + 1 < size && heap[c + 1] < heap[c]) {
+                c += 1;
+            }
+            if (heap[c] >= x) {
+                break;
+            }
+            heap[i] = heap[c];
+            i = c;
+        }
+        heap[i] = x;
+        return res;
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.Arrays;
+
+/**
+ * Minimum spanning forest (Prim) of an undirected CsrGraph.
+ * <p>
+ * prim keeps a vertex -> HeapNode handle array keyed by the lightest known edge into the tree, and lowers
+ * it with FibonacciHeap.decreaseKey; the vertex is the value of its entry, boxed once per graph (see
+ * CsrGraph.vertices). primLazy is the binary-heap variant with lazy insertion.
+ * A disconnected graph yields a spanning tree per component, each rooted at its smallest vertex.
+ */
+public class MinimumSpanningTree {
+    public static final int ROOT = -1;
+
+    private final int[] parent;
+    private final int[] parentWeight;
+    private final long totalWeight;
+
+    private MinimumSpanningTree(int[] parent, int[] parentWeight) {
+        this.parent = parent;
+        this.parentWeight = parentWeight;
+        long total = 0;
+        for (int w : parentWeight) {
+            total += w;
+        }
+        this.totalWeight = total;
+    }
+
+    /**
+     * @return the parent of v in the tree, or ROOT.
+     */
+    public int parent(int v) {
+        return parent[v];
+    }
+
+    /**
+     * @return the weight of the edge from v to its parent, 0 for a root.
+     */
+    public int parentWeight(int v) {
+        return parentWeight[v];
+    }
+
+    public long totalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * complexity: O(m + n logn)
+     */
+    public static MinimumSpanningTree prim(CsrGraph g) {
+        int n = g.vertexCount();
+        int[] parent = new int[n];
+        int[] key = new int[n];
+        Arrays.fill(parent, ROOT);
+        boolean[] done = new boolean[n];
+        Integer[] vertices = g.vertices();
+        FibonacciHeap.HeapNode<Integer>[] handles = FibonacciHeap.newHandles(n);
+        FibonacciHeap<Integer> heap = new FibonacciHeap<>();
+        for (int root = 0; root < n; root++) {
+            if (done[root]) {
+                continue;
+            }
+            key[root] = 0;
+            handles[root] = heap.insert(0, vertices[root]);
+            while (!heap.isEmpty()) {
+                int v = heap.poll();
+                handles[v] = null;
+                done[v] = true;
+                for (int e = g.firstEdge(v); e < g.endEdge(v); e++) {
+                    int u = g.target(e);
+                    int w = g.weight(e);
+                    if (done[u]) {
+                        continue;
+                    }
+                    if (handles[u] == null) {
+                        key[u] = w;
+                        parent[u] = v;
+                        handles[u] = heap.insert(w, vertices[u]);
+                    } else if (w < key[u]) {
+                        heap.decreaseKey(handles[u], key[u] - w);
+                        key[u] = w;
+                        parent[u] = v;
+                    }
+                }
+            }
+        }
+        return new MinimumSpanningTree(parent, key);
+    }
+
+    /**
+     * Prim with a binary heap of (weight &lt;&lt; 32 | vertex) entries and lazy insertion.
+     * complexity: O(m logm)
+     */
+    public static MinimumSpanningTree primLazy(CsrGraph g) {
+        int n = g.vertexCount();
+        int[] parent = new int[n];
+        int[] key = new int[n];
+        Arrays.fill(parent, ROOT);
+        Arrays.fill(key, Integer.MAX_VALUE);
+        boolean[] done = new boolean[n];
+        LongMinHeap heap = new LongMinHeap(n);
+        for (int root = 0; root < n; root++) {
+            if (done[root]) {
+                continue;
+            }
+            key[root] = 0;
+            heap.add(root);
+            while (!heap.isEmpty()) {
+                int v = (int) heap.poll();
+                if (done[v]) {
+                    continue;
+                }
+                done[v] = true;
+                for (int e = g.firstEdge(v); e < g.endEdge(v); e++) {
+                    int u = g.target(e);
+                    int w = g.weight(e);
+                    if (!done[u] && w < key[u]) {
+                        key[u] = w;
+                        parent[u] = v;
+                        heap.add((long) w << 32 | u);
+                    }
+                }
+            }
+        }
+        return new MinimumSpanningTree(parent, key);
+    }
+}
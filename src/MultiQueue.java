@@ -0,0 +1,158 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * MultiQueue
+ * <p>
+ * A relaxed concurrent priority queue made of several FibonacciHeap shards, each behind its own lock.
+ * <p>
+ * insert puts the key into a random shard whose lock is free. poll samples two random shards and
+ * deletes the minimum of the one whose minimum is smaller, so it returns one of the smallest keys but
+ * not necessarily the smallest: the rank error grows with the number of shards and stays small on
+ * average (see MultiQueueBenchmark). With c shards per thread, threads rarely wait for each other.
+ * <p>
+ * The minimum key of every shard is published in minKeys, so poll can compare shards without locking them.
+ * Handles are not exposed: a key can not be decreased once inserted, and poll returns the key and value
+ * rather than the shard's node.
+ */
+public class MultiQueue<V> {
+    private static final long EMPTY = Long.MAX_VALUE;
+    private static final int SAMPLE_ATTEMPTS = 4;
+
+    private final FibonacciHeap<V>[] shards;
+    private final ReentrantLock[] locks;
+    private final AtomicLongArray minKeys;
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * creates a queue with two shards per available processor.
+     */
+    public MultiQueue() {
+        this(2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param shardCount the number of shards, at least 2. A common choice is 2 to 4 per thread.
+     */
+    @SuppressWarnings("unchecked")
+    public MultiQueue(int shardCount) {
+        if (shardCount < 2) {
+            throw new IllegalArgumentException("a MultiQueue needs at least 2 shards");
+        }
+        shards = (FibonacciHeap<V>[]) new FibonacciHeap<?>[shardCount];
+        locks = new ReentrantLock[shardCount];
+        minKeys = new AtomicLongArray(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new FibonacciHeap<>();
+            locks[i] = new ReentrantLock();
+            minKeys.set(i, EMPTY);
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @return the number of keys in the queue. Exact only when no other thread is changing it.
+     */
+    public int size() {
+        return size.intValue();
+    }
+
+    public boolean isEmpty() {
+        return size.sum() == 0;
+    }
+
+    /**
+     * inserts the key into a random shard whose lock is free.
+     */
+    public void insert(int key, V value) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(shards.length);
+        while (!locks[i].tryLock()) {
+            i = random.nextInt(shards.length);
+        }
+        try {
+            shards[i].insert(key, value);
+            publishMin(i);
+        } finally {
+            locks[i].unlock();
+        }
+        size.increment();
+    }
+
+    /**
+     * Deletes one of the smallest keys: the minimum of the better of two sampled shards.
+     *
+     * @return the deleted key and its value, or null if the queue was empty.
+     */
+    public Entry<V> poll() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < SAMPLE_ATTEMPTS; attempt++) {
+            int i = random.nextInt(shards.length);
+            int j = random.nextInt(shards.length);
+            int best = minKeys.get(j) < minKeys.get(i) ? j : i;
+            if (minKeys.get(best) == EMPTY) {
+                continue;
+            }
+            Entry<V> entry = tryPoll(best);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        // the samples were empty or busy: look at every shard before giving up.
+        for (int k = 0; k < shards.length; k++) {
+            if (minKeys.get(k) == EMPTY) {
+                continue;
+            }
+            locks[k].lock();
+            try {
+                Entry<V> entry = pollLocked(k);
+                if (entry != null) {
+                    return entry;
+                }
+            } finally {
+                locks[k].unlock();
+            }
+        }
+        return null;
+    }
+
+    private Entry<V> tryPoll(int i) {
+        if (!locks[i].tryLock()) {
+            return null;
+        }
+        try {
+            return pollLocked(i);
+        } finally {
+            locks[i].unlock();
+        }
+    }
+
+    private Entry<V> pollLocked(int i) {
+        FibonacciHeap<V> shard = shards[i];
+        FibonacciHeap.HeapNode<V> node = shard.findMin();
+        if (node == null) {
+            return null;
+        }
+        Entry<V> entry = new Entry<>(node.getKey(), node.getValue());
+        shard.deleteMin();
+        publishMin(i);
+        size.decrement();
+        return entry;
+    }
+
+    private void publishMin(int i) {
+        FibonacciHeap.HeapNode<V> min = shards[i].findMin();
+        minKeys.set(i, min == null ? EMPTY : min.getKey());
+    }
+
+    /**
+     * a key and its value, as deleted by poll. The shard's node stays inside the shard.
+     */
+    public record Entry<V>(int key, V value) {
+    }
+}
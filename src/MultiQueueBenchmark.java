@@ -0,0 +1,134 @@
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rank error and thread scaling of MultiQueue.
+ * <p>
+ * Run with "java MultiQueueBenchmark [maxThreads] [millisPerRun]".
+ * <ul>
+ * <li>rank error: the rank of each polled key among the keys in the queue (0 means the true minimum),
+ * measured with a Fenwick tree over the key range, for several shard counts.</li>
+ * <li>scaling: insert+poll pairs per second from 1 to maxThreads threads, for MultiQueue with
+ * 2 shards per thread and for a single FibonacciHeap behind one lock.</li>
+ * </ul>
+ */
+public class MultiQueueBenchmark {
+    static final int KEY_RANGE = 1 << 20;
+    static final int PREFILL = 1 << 16;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int millis = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        for (int shards : new int[]{2, 4, 8, 16, 32, 64, 128}) {
+            System.out.println(rankError(shards, 1_000_000));
+        }
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double multiQueue = throughput(new MultiQueue<>(2 * threads), threads, millis);
+            double locked = throughput(null, threads, millis);
+            System.out.printf(Locale.ROOT, "threads=%-3d MultiQueue %,14.0f ops/s   locked FibonacciHeap %,14.0f ops/s%n",
+                    threads, multiQueue, locked);
+        }
+    }
+
+    /**
+     * keeps PREFILL keys in the queue, replaces the polled key with a new random one, and
+     * reports the distribution of the ranks of the polled keys.
+     */
+    static String rankError(int shards, int polls) {
+        MultiQueue<Void> queue = new MultiQueue<>(shards);
+        int[] fenwick = new int[KEY_RANGE + 1];
+        Random random = new Random(shards);
+        for (int i = 0; i < PREFILL; i++) {
+            int key = random.nextInt(KEY_RANGE);
+            queue.insert(key, null);
+            add(fenwick, key, 1);
+        }
+        int[] ranks = new int[polls];
+        long sum = 0;
+        for (int i = 0; i < polls; i++) {
+            int key = queue.poll().key();
+            ranks[i] = countBelow(fenwick, key);
+            sum += ranks[i];
+            add(fenwick, key, -1);
+            // the new key is at least the polled one, as in a scheduler where time moves forward.
+            int next = key + random.nextInt(KEY_RANGE / 4);
+            next = next < KEY_RANGE ? next : random.nextInt(KEY_RANGE);
+            queue.insert(next, null);
+            add(fenwick, next, 1);
+        }
+        Arrays.sort(ranks);
+        return String.format(Locale.ROOT, "shards=%-4d rank error mean=%.2f p99=%d max=%d",
+                shards, (double) sum / polls, ranks[(int) (polls * 0.99)], ranks[polls - 1]);
+    }
+
+    static void add(int[] fenwick, int key, int delta) {
+        for (int i = key + 1; i < fenwick.length; i += i & -i) {
+            fenwick[i] += delta;
+        }
+    }
+
+    /**
+     * @return the number of keys smaller than key.
+     */
+    static int countBelow(int[] fenwick, int key) {
+        int count = 0;
+        for (int i = key; i > 0; i -= i & -i) {
+            count += fenwick[i];
+        }
+        return count;
+    }
+
+    /**
+     * @param queue the queue to measure, or null for a single FibonacciHeap guarded by one lock.
+     * @return insert+poll pairs per second over all threads.
+     */
+    static double throughput(MultiQueue<Void> queue, int threads, int millis) throws InterruptedException {
+        FibonacciHeap<Void> lockedHeap = new FibonacciHeap<>();
+        Random random = new Random(threads);
+        for (int i = 0; i < PREFILL; i++) {
+            int key = random.nextInt(KEY_RANGE);
+            if (queue != null) {
+                queue.insert(key, null);
+            } else {
+                lockedHeap.insert(key);
+            }
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder ops = new LongAdder();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom local = ThreadLocalRandom.current();
+                long count = 0;
+                while (!stop.get()) {
+                    int key = local.nextInt(KEY_RANGE);
+                    if (queue != null) {
+                        queue.insert(key, null);
+                        queue.poll();
+                    } else {
+                        synchronized (lockedHeap) {
+                            lockedHeap.insert(key);
+                            lockedHeap.deleteMin();
+                        }
+                    }
+                    count++;
+                }
+                ops.add(count);
+            });
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        Thread.sleep(millis);
+        stop.set(true);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return ops.sum() * 1e9 / (System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * PairingHeap
+ * <p>
+ * A pairing heap over integers: a single heap-ordered tree in which every node keeps a pointer to its leftmost
+ * child, its right sibling, and its left sibling (or its parent, for a leftmost child).
+ * <p>
+ * insert, meld and decreaseKey link one tree below another in O(1). deleteMin removes the root and merges its
+ * children with the two-pass pairing: link them in pairs from left to right, then fold the pairs into one tree
+ * from right to left. Both passes are loops, so no operation recurses.
+ * Amortized, deleteMin and delete take O(logn) and decreaseKey takes o(logn), and with no marks, ranks or root
+ * list to maintain, pairing heaps are often faster than Fibonacci heaps in practice (see HeapBenchmarkSuite
+ * and GraphBenchmark).
+ * <p>
+ * Like FibonacciHeap, every node can carry a value of type V.
+ */
+public class PairingHeap<V> implements IntValueQueue<PairingHeap.Node<V>, V> {
+    private Node<V> root;
+    private int size = 0;
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * complexity: O(1)
+     */
+    public Node<V> insert(int key) {
+        return insert(key, null);
+    }
+
+    /**
+     * inserts the key with the given value.
+     *
+     * @return the new node, which is the handle for decreaseKey and delete.
+     * complexity: O(1)
+     */
+    public Node<V> insert(int key, V value) {
+        Node<V> node = new Node<>(key, value);
+        root = root == null ? node : link(root, node);
+        size += 1;
+        return node;
+    }
+
+    /**
+     * complexity: O(1)
+     */
+    public Node<V> findMin() {
+        return root;
+    }
+
+    public int getKey(Node<V> node) {
+        return node.key;
+    }
+
+    public V getValue(Node<V> node) {
+        return node.value;
+    }
+
+    /**
+     * complexity: W.C O(n), amortized O(logn)
+     */
+    public void deleteMin() {
+        if (root == null) {
+            return;
+        }
+        Node<V> children = root.child;
+        root.child = null;
+        root = mergePairs(children);
+        size -= 1;
+    }
+
+    /**
+     * Deletes the minimum and returns its value, or null if the heap is empty.
+     * complexity: W.C O(n), amortized O(logn)
+     */
+    public V poll() {
+        if (root == null) {
+            return null;
+        }
+        V value = root.value;
+        deleteMin();
+        return value;
+    }
+
+    /**
+     * cuts the subtree of node, merges the children of node into one tree, and links it with the rest.
+     * complexity: W.C O(n), amortized O(logn)
+     */
+    public void delete(Node<V> node) {
+        if (node == root) {
+            deleteMin();
+            return;
+        }
+        detach(node);
+        Node<V> children = node.child;
+        node.child = null;
+        Node<V> merged = mergePairs(children);
+        if (merged != null) {
+            root = link(root, merged);
+        }
+        size -= 1;
+    }
+
+    /**
+     * cuts the subtree of node and links it with the root.
+     * complexity: O(1), amortized o(logn)
+     */
+    public void decreaseKey(Node<V> node, int delta) {
+        node.key -= delta;
+        if (node != root) {
+            detach(node);
+            root = link(root, node);
+        }
+    }
+
+    /**
+     * Melds heap2 into this heap, linking the two roots. heap2 must not be used afterwards.
+     * complexity: O(1)
+     */
+    public void meld(PairingHeap<V> heap2) {
+        if (heap2 == null || heap2.root == null) {
+            return;
+        }
+        root = root == null ? heap2.root : link(root, heap2.root);
+        size += heap2.size;
+        heap2.root = null;
+        heap2.size = 0;
+    }
+
+    /**
+     * removes the non-root node (with its subtree) from the list of its siblings.
+     */
+    private static <V> void detach(Node<V> node) {
+        if (node.prev.child == node) {
+            node.prev.child = node.next;  // node is the leftmost child, prev is its parent
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.next = null;
+        node.prev = null;
+    }
+
+    /**
+     * hangs the root with the larger key as the leftmost child of the other one.
+     *
+     * @return the root of the linked tree, with no siblings.
+     */
+    private static <V> Node<V> link(Node<V> x, Node<V> y) {
+        Node<V> parent, child;
+        if (y.key < x.key) {
+            parent = y;
+            child = x;
+        } else {
+            parent = x;
+            child = y;
+        }
+        child.next = parent.child;
+        if (parent.child != null) {
+            parent.child.prev = child;
+        }
+        child.prev = parent;
+        parent.child = child;
+        parent.next = null;
+        parent.prev = null;
+        return parent;
+    }
+
+    /**
+     * Two-pass pairing of a list of sibling trees.
+     * The first pass links the trees in pairs from left to right and chains the winners in reverse order, the
+     * second pass links them one by one into the rightmost.
+     *
+     * @return the root of the merged tree, or null if first is null.
+     */
+    private static <V> Node<V> mergePairs(Node<V> first) {
+        Node<V> pairs = null;
+        Node<V> x = first;
+        while (x != null) {
+            Node<V> y = x.next;
+            if (y == null) {
+                x.next = pairs;
+                pairs = x;
+                break;
+            }
+            Node<V> rest = y.next;
+            Node<V> pair = link(x, y);
+            pair.next = pairs;
+            pairs = pair;
+            x = rest;
+        }
+        if (pairs == null) {
+            return null;
+        }
+        Node<V> res = pairs;
+        pairs = pairs.next;
+        while (pairs != null) {
+            Node<V> next = pairs.next;
+            res = link(res, pairs);
+            pairs = next;
+        }
+        res.next = null;
+        res.prev = null;
+        return res;
+    }
+
+    /**
+     * public class Node
+     * <p>
+     * A node of the heap, which is also the handle of its entry.
+     */
+    public static class Node<V> {
+        private int key;
+        private V value;
+        private Node<V> child, next, prev;
+
+        private Node(int key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public int getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public void setValue(V value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+import java.util.Arrays;
+
+/**
+ * RadixHeap
+ * <p>
+ * A monotone min-heap over long keys (int keys widen to long) with int handles, for workloads in which the
+ * extracted minimum never decreases, such as Dijkstra with non-negative weights or timer queues.
+ * <p>
+ * The heap remembers the last minimum it found, last, and keeps every entry in the bucket of the highest bit
+ * in which its key differs from last: bucket 0 holds the keys equal to last and bucket i (1 &lt;= i &lt;= 64)
+ * the keys whose highest differing bit is i - 1. When bucket 0 runs empty, the lowest non-empty bucket is
+ * scanned for its minimum, last moves up to it, and the bucket's entries are redistributed into strictly lower
+ * buckets. An entry only ever moves down, so every entry is moved at most 64 times: insert and decreaseKey take
+ * O(1), deleteMin takes O(log C) amortized, where C is the largest difference between a key and last.
+ * <p>
+ * Monotone use is enforced: inserting a key, or decreasing a key to a value, smaller than last throws an
+ * IllegalArgumentException. last is the minimum found by the latest findMin or deleteMin, so it may still be in
+ * the heap; a key equal to it is always accepted.
+ * <p>
+ * Like {@link IndexedDaryHeap}, the entries live in arrays, and the handles of deleted entries are recycled by
+ * later inserts, so a handle must not be used after its entry was deleted.
+ */
+public class RadixHeap {
+    /**
+     * the "null" handle.
+     */
+    public static final int NIL = -1;
+    private static final int BUCKETS = 65;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final int[] heads = new int[BUCKETS];  // first handle of every bucket
+    private long[] keys;
+    private int[] next;     // next handle in the bucket, or the next free handle for a deleted one
+    private int[] prev;     // previous handle in the bucket, or NIL for the first
+    private byte[] buckets; // bucket of every live handle
+    private int freeList = NIL;
+    private int allocated = 0;
+    private int size = 0;
+    private long last = Long.MIN_VALUE;
+    private Queue queue;  // the view returned by asQueue
+
+    public RadixHeap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RadixHeap(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        keys = new long[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        buckets = new byte[capacity];
+        Arrays.fill(heads, NIL);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getKey(int handle) {
+        return keys[handle];
+    }
+
+    /**
+     * @return the minimum found by the latest findMin or deleteMin, below which no key may be inserted or
+     * decreased, or Long.MIN_VALUE if there was none yet.
+     */
+    public long lastMin() {
+        return last;
+    }
+
+    /**
+     * public int insert(long key)
+     * <p>
+     * Inserts the key and returns the handle of the new entry.
+     * complexity: O(1)
+     *
+     * @throws IllegalArgumentException if key is smaller than lastMin().
+     */
+    public int insert(long key) {
+        checkMonotone(key);
+        int handle = newHandle();
+        keys[handle] = key;
+        push(bucketOf(key), handle);
+        size += 1;
+        return handle;
+    }
+
+    /**
+     * public int findMin()
+     * <p>
+     * Returns the handle of an entry whose key is minimal, or NIL if the heap is empty.
+     * Moves last up to the minimum when bucket 0 is empty, so later inserts must not go below it.
+     * complexity: O(log C) amortized
+     */
+    public int findMin() {
+        if (size == 0) {
+            return NIL;
+        }
+        if (heads[0] == NIL) {
+            redistribute();
+        }
+        return heads[0];
+    }
+
+    /**
+     * public void deleteMin()
+     * <p>
+     * Deletes an entry whose key is minimal. Does nothing if the heap is empty.
+     * complexity: O(log C) amortized
+     */
+    public void deleteMin() {
+        int min = findMin();
+        if (min != NIL) {
+            remove(min);
+        }
+    }
+
+    /**
+     * public void delete(int handle)
+     * <p>
+     * Deletes the entry of the handle, which must be live.
+     * complexity: O(1)
+     */
+    public void delete(int handle) {
+        remove(handle);
+    }
+
+    /**
+     * public void decreaseKey(int handle, long delta)
+     * <p>
+     * Decreases the key of the entry by a non-negative delta, down to lastMin() at most.
+     * complexity: O(1)
+     *
+     * @throws IllegalArgumentException if the new key is smaller than lastMin().
+     */
+    public void decreaseKey(int handle, long delta) {
+        long key = keys[handle] - delta;
+        checkMonotone(key);
+        keys[handle] = key;
+        int bucket = bucketOf(key);
+        if (bucket != buckets[handle]) {
+            unlink(handle);
+            push(bucket, handle);
+        }
+    }
+
+    /**
+     * public &lt;V&gt; IntValueQueue&lt;Integer, V&gt; asQueue()
+     * <p>
+     * Returns this heap as an IntValueQueue over int keys, for code written against that interface, such as
+     * ShortestPaths.dijkstra. The view shares the entries and the monotone contract of the heap. It boxes each
+     * handle once, the first time the handle is used, and keeps the values in an array indexed by handle, so an
+     * entry inserted into the heap directly has no value in the view. There is one view per heap, so its callers
+     * must agree on V.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> IntValueQueue<Integer, V> asQueue() {
+        if (queue == null) {
+            queue = new Queue();
+        }
+        return (IntValueQueue<Integer, V>) queue;
+    }
+
+    private void checkMonotone(long key) {
+        if (key < last) {
+            throw new IllegalArgumentException("key " + key + " is below the last minimum " + last);
+        }
+    }
+
+    private int bucketOf(long key) {
+        return 64 - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    /**
+     * moves last up to the minimum of the lowest non-empty bucket and redistributes that bucket, whose
+     * entries all land in lower buckets, the minimum among them in bucket 0.
+     */
+    private void redistribute() {
+        int bucket = 1;
+        while (heads[bucket] == NIL) {
+            bucket += 1;
+        }
+        long min = Long.MAX_VALUE;
+        for (int h = heads[bucket]; h != NIL; h = next[h]) {
+            min = Math.min(min, keys[h]);
+        }
+        last = min;
+        int h = heads[bucket];
+        heads[bucket] = NIL;
+        while (h != NIL) {
+            int following = next[h];
+            push(bucketOf(keys[h]), h);
+            h = following;
+        }
+    }
+
+    private void push(int bucket, int handle) {
+        int head = heads[bucket];
+        next[handle] = head;
+        prev[handle] = NIL;
+        if (head != NIL) {
+            prev[head] = handle;
+        }
+        heads[bucket] = handle;
+        buckets[handle] = (byte) bucket;
+    }
+
+    private void unlink(int handle) {
+        if (prev[handle] == NIL) {
+            heads[buckets[handle]] = next[handle];
+        } else {
+            next[prev[handle]] = next[handle];
+        }
+        if (next[handle] != NIL) {
+            prev[next[handle]] = prev[handle];
+        }
+    }
+
+    private void remove(int handle) {
+        unlink(handle);
+        next[handle] = freeList;
+        freeList = handle;
+        size -= 1;
+    }
+
+    private int newHandle() {
+        if (freeList != NIL) {
+            int handle = freeList;
+            freeList = next[handle];
+            return handle;
+        }
+        if (allocated == keys.length) {
+            int capacity = 2 * allocated;
+            keys = Arrays.copyOf(keys, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            buckets = Arrays.copyOf(buckets, capacity);
+        }
+        return allocated++;
+    }
+
+    private final class Queue implements IntValueQueue<Integer, Object> {
+        private Integer[] boxed = new Integer[0];
+        private Object[] values = new Object[0];
+
+        public boolean isEmpty() {
+            return RadixHeap.this.isEmpty();
+        }
+
+        public int size() {
+            return RadixHeap.this.size();
+        }
+
+        public Integer insert(int key) {
+            return insert(key, null);
+        }
+
+        public Integer insert(int key, Object value) {
+            int handle = RadixHeap.this.insert(key);
+            Integer boxedHandle = box(handle);
+            values[handle] = value;
+            return boxedHandle;
+        }
+
+        public Integer findMin() {
+            int handle = RadixHeap.this.findMin();
+            return handle == NIL ? null : box(handle);
+        }
+
+        public int getKey(Integer handle) {
+            return (int) keys[handle];
+        }
+
+        public Object getValue(Integer handle) {
+            return values[handle];
+        }
+
+        public void deleteMin() {
+            int handle = RadixHeap.this.findMin();
+            if (handle != NIL) {
+                delete(handle);
+            }
+        }
+
+        public void delete(Integer handle) {
+            RadixHeap.this.delete(handle);
+            if (handle < values.length) {
+                values[handle] = null;  // the handle is recycled, and the value must not stay reachable
+            }
+        }
+
+        public void decreaseKey(Integer handle, int delta) {
+            RadixHeap.this.decreaseKey(handle, delta);
+        }
+
+        private Integer box(int handle) {
+            if (handle >= boxed.length) {
+                boxed = Arrays.copyOf(boxed, keys.length);
+                values = Arrays.copyOf(values, keys.length);
+            }
+            if (boxed[handle] == null) {
+                boxed[handle] = handle;
+            }
+            return boxed[handle];
+        }
+    }
+}
@@ -0,0 +1,113 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * RunMerger
+ * <p>
+ * A k-way merge of SortedRuns: a binary min-heap of the runs ordered by their heads. poll consumes the smallest
+ * head and restores the heap with a single sift-down of the same run (replace-top), instead of a deleteMin and
+ * an insert, so every merged int costs O(log k) comparisons and no allocation.
+ * Runs can be added while the merge is under way. Exhausted runs are closed, which deletes their files.
+ */
+final class RunMerger implements Closeable {
+    private SortedRun[] runs = new SortedRun[8];
+    private int count = 0;
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * @return the number of runs that are not exhausted.
+     */
+    public int runCount() {
+        return count;
+    }
+
+    /**
+     * adds the run to the merge, or closes it if it is empty.
+     * complexity: O(log k)
+     */
+    public void add(SortedRun run) throws IOException {
+        if (run.isEmpty()) {
+            run.close();
+            return;
+        }
+        if (count == runs.length) {
+            runs = Arrays.copyOf(runs, 2 * count);
+        }
+        int i = count++;
+        while (i > 0 && runs[(i - 1) / 2].head() > run.head()) {
+            runs[i] = runs[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        runs[i] = run;
+    }
+
+    /**
+     * @return the smallest head. The merger must not be empty.
+     */
+    public int peek() {
+        return runs[0].head();
+    }
+
+    /**
+     * consumes and returns the smallest head.
+     * complexity: O(log k)
+     */
+    public int poll() throws IOException {
+        SortedRun top = runs[0];
+        int key = top.head();
+        top.advance();
+        if (top.isEmpty()) {
+            top.close();
+            top = runs[--count];
+            runs[count] = null;
+            if (count == 0) {
+                return key;
+            }
+        }
+        siftDown(top);
+        return key;
+    }
+
+    /**
+     * closes every run that was not exhausted.
+     */
+    public void close() throws IOException {
+        IOException failure = null;
+        for (int i = 0; i < count; i++) {
+            try {
+                runs[i].close();
+            } catch (IOException e) {
+                failure = e;
+            }
+            runs[i] = null;
+        }
+        count = 0;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * places run at the top and moves it down to its place.
+     */
+    private void siftDown(SortedRun run) {
+        int head = run.head();
+        int i = 0;
+        while (2 * i + 1 < count) {
+            int c = 2 * i + 1;
+            if (c + 1 < count && runs[c + 1].head() < runs[c].head()) {
+                c += 1;
+            }
+            if (runs[c].head() >= head) {
+                break;
+            }
+            runs[i] = runs[c];
+            i = c;
+        }
+        runs[i] = run;
+    }
+}
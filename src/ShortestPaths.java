@@ -0,0 +1,103 @@
+import java.util.Arrays;
+
+/**
+ * Single-source shortest paths (Dijkstra) on a CsrGraph with non-negative int weights.
+ * <p>
+ * dijkstra runs on any IntValueQueue: it keeps a vertex -> handle array, lowers tentative distances with
+ * decreaseKey, and finds the vertex of the minimum from its value, one of the graph's preboxed vertices. On a FibonacciHeap that is O(m + n logn) in total,
+ * and on RadixHeap.asQueue() O(m + n log C), where C is the largest edge weight, since the extracted distances
+ * never decrease.
+ * dijkstraLazy is the usual binary-heap alternative that inserts a new entry instead of decreasing a key
+ * and skips the stale entries, for O(m logm).
+ * <p>
+ * Distances must fit in an int; unreachable vertices get UNREACHABLE.
+ */
+public class ShortestPaths {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private ShortestPaths() {
+    }
+
+    /**
+     * dijkstra on a FibonacciHeap.
+     *
+     * @return the distance from source to every vertex.
+     * @throws ArithmeticException if a distance overflows an int.
+     */
+    public static int[] dijkstra(CsrGraph g, int source) {
+        return dijkstra(g, source, new FibonacciHeap<Integer>());
+    }
+
+    /**
+     * Dijkstra on the given queue, which must be empty. Every vertex in the queue is an entry whose value is the
+     * vertex, boxed once per graph (see CsrGraph.vertices), so a search boxes nothing.
+     *
+     * @return the distance from source to every vertex.
+     * @throws ArithmeticException if a distance overflows an int.
+     */
+    public static <H> int[] dijkstra(CsrGraph g, int source, IntValueQueue<H, Integer> queue) {
+        int n = g.vertexCount();
+        Integer[] vertices = g.vertices();
+        int[] dist = new int[n];
+        Arrays.fill(dist, UNREACHABLE);
+        boolean[] done = new boolean[n];
+        @SuppressWarnings("unchecked")
+        H[] handles = (H[]) new Object[n];
+        dist[source] = 0;
+        handles[source] = queue.insert(0, vertices[source]);
+        while (!queue.isEmpty()) {
+            int v = queue.getValue(queue.findMin());
+            queue.deleteMin();
+            handles[v] = null;
+            done[v] = true;
+            for (int e = g.firstEdge(v); e < g.endEdge(v); e++) {
+                int u = g.target(e);
+                if (done[u]) {
+                    continue;
+                }
+                int d = Math.addExact(dist[v], g.weight(e));
+                if (d < dist[u]) {
+                    if (handles[u] == null) {
+                        handles[u] = queue.insert(d, vertices[u]);
+                    } else {
+                        queue.decreaseKey(handles[u], dist[u] - d);
+                    }
+                    dist[u] = d;
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * Dijkstra with a binary heap of (distance &lt;&lt; 32 | vertex) entries and lazy insertion.
+     *
+     * @return the distance from source to every vertex.
+     * @throws ArithmeticException if a distance overflows an int.
+     */
+    public static int[] dijkstraLazy(CsrGraph g, int source) {
+        int n = g.vertexCount();
+        int[] dist = new int[n];
+        Arrays.fill(dist, UNREACHABLE);
+        boolean[] done = new boolean[n];
+        LongMinHeap heap = new LongMinHeap(n);
+        dist[source] = 0;
+        heap.add(source);
+        while (!heap.isEmpty()) {
+            int v = (int) heap.poll();
+            if (done[v]) {
+                continue;  // a stale entry, v was settled with a smaller distance
+            }
+            done[v] = true;
+            for (int e = g.firstEdge(v); e < g.endEdge(v); e++) {
+                int u = g.target(e);
+                int d = Math.addExact(dist[v], g.weight(e));
+                if (!done[u] && d < dist[u]) {
+                    dist[u] = d;
+                    heap.add((long) d << 32 | u);
+                }
+            }
+        }
+        return dist;
+    }
+}
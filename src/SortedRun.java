@@ -0,0 +1,142 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * SortedRun
+ * <p>
+ * A temporary file of ascending ints (little-endian), written once through a Writer and then read back
+ * front to back through memory-mapped windows. Closing the run deletes its file.
+ * Used for the spilled runs of ExternalPriorityQueue and the runs of ExternalSort, merged by RunMerger.
+ */
+final class SortedRun implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long WINDOW = 1L << 28;  // bytes mapped at a time, a whole number of ints
+
+    private final Path file;
+    private final long length;
+    private long mapped = 0;      // bytes of the file mapped so far
+    private MappedByteBuffer window;
+    private int head;
+    private long remaining;
+
+    private SortedRun(Path file, long count) throws IOException {
+        this.file = file;
+        this.length = 4 * count;
+        this.remaining = count;
+        if (count > 0) {
+            head = read();
+        }
+    }
+
+    public boolean isEmpty() {
+        return remaining == 0;
+    }
+
+    /**
+     * @return the number of ints not consumed yet, the head included.
+     */
+    public long remaining() {
+        return remaining;
+    }
+
+    /**
+     * @return the smallest int not consumed yet. The run must not be empty.
+     */
+    public int head() {
+        return head;
+    }
+
+    /**
+     * consumes the head.
+     */
+    public void advance() throws IOException {
+        remaining -= 1;
+        if (remaining > 0) {
+            head = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (window == null || !window.hasRemaining()) {
+            // the channel is only open while mapping, so a merge of many runs holds no file descriptors.
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long windowLength = Math.min(WINDOW, length - mapped);
+                window = channel.map(FileChannel.MapMode.READ_ONLY, mapped, windowLength);
+                window.order(ByteOrder.LITTLE_ENDIAN);
+                mapped += windowLength;
+            }
+        }
+        return window.getInt();
+    }
+
+    /**
+     * closes and deletes the file of the run.
+     */
+    public void close() throws IOException {
+        window = null;
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * writes ascending ints to a new run file.
+     */
+    static final class Writer implements Closeable {
+        private final Path file;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long count = 0;
+        private boolean finished = false;
+
+        Writer(Path file) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+        }
+
+        /**
+         * appends the key, which must not be smaller than the previous one.
+         */
+        void add(int key) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putInt(key);
+            count += 1;
+        }
+
+        /**
+         * @return the written run, ready to be read from its smallest int.
+         */
+        SortedRun finish() throws IOException {
+            flush();
+            channel.close();
+            finished = true;
+            return new SortedRun(file, count);
+        }
+
+        /**
+         * abandons an unfinished run and deletes its file.
+         */
+        public void close() throws IOException {
+            if (!finished) {
+                channel.close();
+                Files.deleteIfExists(file);
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
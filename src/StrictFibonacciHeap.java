@@ -0,0 +1,924 @@
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StrictFibonacciHeap
+ * <p>
+ * A strict Fibonacci heap (Brodal, Lagogiannis and Tarjan, "Strict Fibonacci Heaps", STOC 2012): insert,
+ * findMin, meld and decreaseKey take O(1), and deleteMin and delete take O(log n), all in the worst case.
+ * FibonacciHeap and PairingHeap postpone their restructuring and pay for it in one long deleteMin. This heap
+ * restructures a bounded amount in every operation, so no single call is slow (see LatencyBenchmark).
+ * <p>
+ * The heap is a single tree whose root holds the minimum. Every other node is active or passive:
+ * <ul>
+ * <li>an active node has a rank, the number of its active children, and a loss, the number of active children
+ * it lost since it was linked. An active node with a passive parent is an active root, and has no loss.</li>
+ * <li>a passive node is linkable if all its children are passive. The root is passive, and its children are
+ * the active roots first, then the passive non-linkable nodes, then the linkable ones.</li>
+ * </ul>
+ * Three reductions keep the ranks and degrees small, each in O(1):
+ * <ul>
+ * <li>active root reduction: links two active roots of the same rank;</li>
+ * <li>root degree reduction: turns the three rightmost children of the root, if linkable, into one active root;</li>
+ * <li>loss reduction: moves a node of loss 2 below the root, or links two nodes of loss 1 and the same rank.</li>
+ * </ul>
+ * insert and meld do one active root reduction and one root degree reduction, decreaseKey one loss reduction,
+ * six active root reductions and four root degree reductions, and deleteMin as many as it can. This keeps the
+ * number of active roots and the total loss within R + 1, for R = 2*log(n) + 6, and with them the rank of every
+ * node. Every non-root node also waits in a queue. Every deleteMin moves up to two passive children of each of
+ * the first two nodes of the queue to the root, so the degrees keep up with the size of the heap as it shrinks.
+ * <p>
+ * The bookkeeping behind the O(1) bounds:
+ * <ul>
+ * <li>ranks are records in a list, so a rank changes by moving a pointer;</li>
+ * <li>every rank lists its active roots and its nodes of loss 1, and the ranks with two or more of either are
+ * listed too, so a pair to reduce is found without a search;</li>
+ * <li>all the active nodes of a heap share one activity record, so meld makes every node of the smaller heap
+ * passive by clearing a single flag.</li>
+ * </ul>
+ * Ties between equal keys are broken by insertion order, so the tree is strictly heap-ordered and no link can
+ * hang a node below its own descendant. A decreaseKey below the minimum swaps the entries of the node and the
+ * root, so a handle (Node) is an entry rather than a position in the tree.
+ * <p>
+ * The constant factors are high, and on throughput alone FibonacciHeap and PairingHeap are faster. Use this heap
+ * where the slowest operation matters more than the average one.
+ */
+public class StrictFibonacciHeap<V> implements IntValueQueue<StrictFibonacciHeap.Node<V>, V> {
+    // the fix list a node is in.
+    private static final byte NONE = 0, ACTIVE_ROOT = 1, LOSS_ONE = 2, LOSS_TWO = 3;
+    // insertion order, to break ties between equal keys. Shared by all heaps, since meld mixes their nodes.
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private Cell<V> root;
+    private int size = 0;
+    private Cell<V> rootPassive;  // the first passive child of the root, or null
+    private Cell<V> queue;        // the front of the queue of the non-root nodes, or null
+    private Activity activity = new Activity();
+    private Rank<V> ranks = new Rank<>(null);  // rank 0
+    private Rank<V> rootPairs;    // the ranks with two or more active roots
+    private Rank<V> lossPairs;    // the ranks with two or more nodes of loss 1
+    private Cell<V> lossTwo;      // the nodes with a loss of 2 or more
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * complexity: W.C O(1)
+     */
+    public Node<V> insert(int key) {
+        return insert(key, null);
+    }
+
+    /**
+     * inserts the key with the given value: a new linkable child of the root, which swaps entries with the root
+     * if its key is smaller, followed by one active root reduction and one root degree reduction.
+     *
+     * @return the new node, which is the handle for decreaseKey and delete.
+     * complexity: W.C O(1)
+     */
+    public Node<V> insert(int key, V value) {
+        Node<V> node = new Node<>(key, value, SEQUENCE.getAndIncrement());
+        Cell<V> x = new Cell<>(node);
+        size += 1;
+        if (root == null) {
+            root = x;
+            return node;
+        }
+        linkToRoot(x);
+        queue = joinQueues(queue, x);
+        if (less(x, root)) {
+            swapItems(x, root);
+        }
+        activeRootReduction();
+        rootDegreeReduction();
+        return node;
+    }
+
+    /**
+     * complexity: W.C O(1)
+     */
+    public Node<V> findMin() {
+        return root == null ? null : root.item;
+    }
+
+    public int getKey(Node<V> node) {
+        return node.key;
+    }
+
+    public V getValue(Node<V> node) {
+        return node.value;
+    }
+
+    /**
+     * Deletes the minimum. The child of the root with the smallest key becomes the root, and adopts the other
+     * children. Then the first two nodes of the queue pass passive children to the root, and the reductions
+     * run until none applies.
+     * complexity: W.C O(log n)
+     */
+    public void deleteMin() {
+        if (root == null) {
+            return;
+        }
+        Cell<V> old = root;
+        old.item.cell = null;
+        size -= 1;
+        if (old.child == null) {
+            root = null;
+            return;
+        }
+        Cell<V> y = old.child;
+        for (Cell<V> c = y.right; c != old.child; c = c.right) {
+            if (less(c, y)) {
+                y = c;
+            }
+        }
+        queue = dequeue(queue, y);
+        removeChild(old, y);
+        if (active(y)) {
+            unfile(y);
+            y.activity = null;
+        }
+        // the children of y and the other children of the old root, active roots first, then passive
+        // non-linkable nodes, then linkable ones.
+        Cell<V>[] zones = newZones();
+        adopt(y, y.child, zones);
+        adopt(y, old.child, zones);
+        y.child = join(join(zones[0], zones[1]), zones[2]);
+        rootPassive = zones[1] != null ? zones[1] : zones[2];
+        root = y;
+        old.child = null;
+        old.item = null;
+        for (int i = 0; i < 2 && queue != null; i++) {
+            Cell<V> x = queue;
+            queue = x.qNext;  // x moves to the back
+            for (int j = 0; j < 2 && x.child != null && !active(x.child.left); j++) {
+                Cell<V> z = x.child.left;
+                removeChild(x, z);
+                linkToRoot(z);
+            }
+        }
+        while (lossReduction()) {
+            // every loss reduction lowers the total loss
+        }
+        while (activeRootReduction() || rootDegreeReduction()) {
+            // a root degree reduction adds an active root, and an active root reduction may add a root child
+        }
+    }
+
+    /**
+     * Deletes the minimum and returns its value, or null if the heap is empty.
+     * complexity: W.C O(log n)
+     */
+    public V poll() {
+        if (root == null) {
+            return null;
+        }
+        V value = root.item.value;
+        deleteMin();
+        return value;
+    }
+
+    /**
+     * cuts the node to the root, swaps their entries, and deletes the minimum.
+     * complexity: W.C O(log n)
+     */
+    public void delete(Node<V> node) {
+        Cell<V> x = node.cell;
+        if (x != root) {
+            moveToRoot(x);
+            swapItems(x, root);
+        }
+        deleteMin();
+    }
+
+    /**
+     * Decreases the key by the non-negative delta. If the node is now smaller than its parent, it is cut and
+     * linked to the root, and swaps entries with the root if it is smaller than the root. Then one loss
+     * reduction, six active root reductions and four root degree reductions pay for the cut.
+     * complexity: W.C O(1)
+     */
+    public void decreaseKey(Node<V> node, int delta) {
+        node.key -= delta;
+        Cell<V> x = node.cell;
+        if (x == root || !less(x, x.parent)) {
+            return;
+        }
+        moveToRoot(x);
+        if (less(x, root)) {
+            swapItems(x, root);
+        }
+        lossReduction();
+        for (int i = 0; i < 6; i++) {
+            activeRootReduction();
+        }
+        for (int i = 0; i < 4; i++) {
+            rootDegreeReduction();
+        }
+    }
+
+    /**
+     * Melds heap2 into this heap. The nodes of the smaller heap all become passive, the root with the larger
+     * key becomes a child of the other one, and the queues are concatenated. heap2 is left empty.
+     * complexity: W.C O(1)
+     */
+    public void meld(StrictFibonacciHeap<V> heap2) {
+        if (heap2 == null || heap2 == this || heap2.root == null) {
+            return;
+        }
+        StrictFibonacciHeap<V> small = size < heap2.size ? this : heap2;
+        StrictFibonacciHeap<V> large = small == this ? heap2 : this;
+        Cell<V> winner = null, loser = null, winnerPassive = null;
+        if (small.root != null) {
+            small.activity.active = false;
+            if (less(small.root, large.root)) {
+                winner = small.root;
+                loser = large.root;
+                winnerPassive = winner.child;  // all its children are passive and linkable now
+            } else {
+                winner = large.root;
+                loser = small.root;
+                winnerPassive = large.rootPassive;
+            }
+        }
+        Cell<V> meldedQueue = loser == null ? large.queue : joinQueues(joinQueues(small.queue, loser), large.queue);
+        root = winner != null ? winner : large.root;
+        rootPassive = winner != null ? winnerPassive : large.rootPassive;
+        queue = meldedQueue;
+        size = small.size + large.size;
+        activity = large.activity;
+        ranks = large.ranks;
+        rootPairs = large.rootPairs;
+        lossPairs = large.lossPairs;
+        lossTwo = large.lossTwo;
+        heap2.root = null;
+        heap2.size = 0;
+        heap2.rootPassive = null;
+        heap2.queue = null;
+        heap2.activity = new Activity();
+        heap2.ranks = new Rank<>(null);
+        heap2.rootPairs = null;
+        heap2.lossPairs = null;
+        heap2.lossTwo = null;
+        if (loser != null) {
+            linkToRoot(loser);
+            activeRootReduction();
+            rootDegreeReduction();
+        }
+    }
+
+    /**
+     * cuts the non-root x and links it to the root. An active x becomes an active root with no loss.
+     */
+    private void moveToRoot(Cell<V> x) {
+        boolean isActive = active(x);
+        if (isActive) {
+            unfile(x);
+        }
+        cut(x);
+        linkToRoot(x);
+        if (isActive) {
+            x.loss = 0;
+            file(x);
+        }
+    }
+
+    /**
+     * links two active roots of the same rank: the larger one becomes the leftmost child of the smaller one,
+     * which then passes its rightmost child to the root if it is passive.
+     *
+     * @return false if no two active roots have the same rank.
+     */
+    private boolean activeRootReduction() {
+        if (rootPairs == null) {
+            return false;
+        }
+        Cell<V> x = rootPairs.activeRoots, y = x.fixNext;
+        if (less(y, x)) {
+            Cell<V> tmp = x;
+            x = y;
+            y = tmp;
+        }
+        unfile(x);
+        unfile(y);
+        cut(y);
+        addLeftmost(x, y);
+        x.rank = next(x.rank);
+        file(x);
+        file(y);
+        Cell<V> z = x.child.left;
+        if (!active(z)) {
+            removeChild(x, z);
+            linkToRoot(z);
+        }
+        return true;
+    }
+
+    /**
+     * turns the three rightmost children of the root, if they are passive and linkable, into an active root of
+     * rank 1: the smallest one, with the middle one as its active child, which has the largest as its child.
+     *
+     * @return false if the three rightmost children of the root are not all linkable.
+     */
+    private boolean rootDegreeReduction() {
+        Cell<V> first = root.child;
+        if (first == null) {
+            return false;
+        }
+        Cell<V> x = first.left, y = x.left, z = y.left;
+        if (z == x || !linkable(x) || !linkable(y) || !linkable(z)) {
+            return false;
+        }
+        removeChild(root, x);
+        removeChild(root, y);
+        removeChild(root, z);
+        Cell<V> tmp;
+        if (less(y, x)) {
+            tmp = x;
+            x = y;
+            y = tmp;
+        }
+        if (less(z, x)) {
+            tmp = x;
+            x = z;
+            z = tmp;
+        }
+        if (less(z, y)) {
+            tmp = y;
+            y = z;
+            z = tmp;
+        }
+        activate(x);
+        activate(y);
+        addRightmost(y, z);
+        addLeftmost(x, y);
+        x.rank = next(ranks);
+        linkToRoot(x);
+        file(x);
+        file(y);
+        return true;
+    }
+
+    /**
+     * moves a node of loss 2 or more to the root, or links the larger of two nodes of loss 1 and the same rank
+     * below the smaller one, clearing both losses. Either way the total loss goes down.
+     *
+     * @return false if neither applies.
+     */
+    private boolean lossReduction() {
+        if (lossTwo != null) {
+            moveToRoot(lossTwo);
+            return true;
+        }
+        if (lossPairs == null) {
+            return false;
+        }
+        Cell<V> x = lossPairs.lossOnes, y = x.fixNext;
+        if (less(y, x)) {
+            Cell<V> tmp = x;
+            x = y;
+            y = tmp;
+        }
+        unfile(y);
+        if (y.parent == x) {
+            // linking y again would lower the rank plus loss of x: y only moves to the left and drops its loss
+            removeChild(x, y);
+            addLeftmost(x, y);
+            y.loss = 0;
+            file(y);
+            return true;
+        }
+        cut(y);
+        unfile(x);
+        addLeftmost(x, y);
+        x.rank = next(x.rank);
+        x.loss = 0;
+        y.loss = 0;
+        file(x);
+        file(y);
+        return true;
+    }
+
+    /**
+     * cuts the non-root x from its parent. An active parent loses an active child: its rank goes down, and
+     * unless it is an active root its loss goes up. A passive child of the root that loses its last active
+     * child becomes linkable, and moves to the linkable end of the children of the root.
+     */
+    private void cut(Cell<V> x) {
+        Cell<V> p = x.parent;
+        removeChild(p, x);
+        if (!active(x)) {
+            return;
+        }
+        if (active(p)) {
+            unfile(p);
+            p.rank = p.rank.prev;
+            if (active(p.parent)) {
+                p.loss += 1;
+            }
+            file(p);
+        } else if (p.parent == root && linkable(p)) {
+            removeChild(root, p);
+            linkToRoot(p);
+        }
+    }
+
+    /**
+     * makes x a child of the root, in the part of the children its kind belongs to.
+     */
+    private void linkToRoot(Cell<V> x) {
+        if (active(x)) {
+            addLeftmost(root, x);
+        } else if (linkable(x)) {
+            addRightmost(root, x);
+            if (rootPassive == null) {
+                rootPassive = x;
+            }
+        } else {
+            if (rootPassive == null) {
+                addRightmost(root, x);
+            } else {
+                x.parent = root;
+                insertBefore(rootPassive, x);
+                if (root.child == rootPassive) {
+                    root.child = x;
+                }
+            }
+            rootPassive = x;
+        }
+    }
+
+    /**
+     * moves the ring of children starting at first to the new root y, sorted into zones: active roots, passive
+     * non-linkable nodes and linkable nodes. The active ones lose their loss, since their parent is passive.
+     */
+    private void adopt(Cell<V> y, Cell<V> first, Cell<V>[] zones) {
+        if (first == null) {
+            return;
+        }
+        Cell<V> c = first;
+        do {
+            Cell<V> next = c.right;
+            c.parent = y;
+            if (active(c)) {
+                unfile(c);
+                c.loss = 0;
+                file(c);
+                zones[0] = join(zones[0], ring(c));
+            } else {
+                zones[linkable(c) ? 2 : 1] = join(zones[linkable(c) ? 2 : 1], ring(c));
+            }
+            c = next;
+        } while (c != first);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Cell<V>[] newZones() {
+        return (Cell<V>[]) new Cell<?>[3];
+    }
+
+    private void activate(Cell<V> x) {
+        x.activity = activity;
+        x.rank = ranks;
+        x.loss = 0;
+        x.list = NONE;
+    }
+
+    private boolean active(Cell<V> x) {
+        return x.activity != null && x.activity.active;
+    }
+
+    /**
+     * @return true if x is passive and all its children are. Active children come first, so checking the
+     * leftmost one is enough.
+     */
+    private boolean linkable(Cell<V> x) {
+        return !active(x) && (x.child == null || !active(x.child));
+    }
+
+    /**
+     * @return true if a comes before b: a smaller key, or an equal key inserted earlier.
+     */
+    private static <V> boolean less(Cell<V> a, Cell<V> b) {
+        return a.item.key < b.item.key || (a.item.key == b.item.key && a.item.seq < b.item.seq);
+    }
+
+    private static <V> void swapItems(Cell<V> a, Cell<V> b) {
+        Node<V> tmp = a.item;
+        a.item = b.item;
+        b.item = tmp;
+        a.item.cell = a;
+        b.item.cell = b;
+    }
+
+    private static <V> Rank<V> next(Rank<V> rank) {
+        if (rank.next == null) {
+            rank.next = new Rank<>(rank);
+        }
+        return rank.next;
+    }
+
+    // children are circular lists through left and right, and parent.child is the leftmost.
+
+    private static <V> void addLeftmost(Cell<V> parent, Cell<V> x) {
+        addRightmost(parent, x);
+        parent.child = x;
+    }
+
+    private static <V> void addRightmost(Cell<V> parent, Cell<V> x) {
+        x.parent = parent;
+        if (parent.child == null) {
+            x.left = x;
+            x.right = x;
+            parent.child = x;
+        } else {
+            insertBefore(parent.child, x);
+        }
+    }
+
+    private static <V> void insertBefore(Cell<V> at, Cell<V> x) {
+        x.right = at;
+        x.left = at.left;
+        at.left.right = x;
+        at.left = x;
+    }
+
+    private void removeChild(Cell<V> parent, Cell<V> x) {
+        if (x == rootPassive) {
+            rootPassive = x.right == parent.child ? null : x.right;
+        }
+        if (x.right == x) {
+            parent.child = null;
+        } else {
+            x.left.right = x.right;
+            x.right.left = x.left;
+            if (parent.child == x) {
+                parent.child = x.right;
+            }
+        }
+        x.left = x;
+        x.right = x;
+        x.parent = null;
+    }
+
+    private static <V> Cell<V> ring(Cell<V> x) {
+        x.left = x;
+        x.right = x;
+        return x;
+    }
+
+    /**
+     * @return the ring of siblings a followed by the ring b.
+     */
+    private static <V> Cell<V> join(Cell<V> a, Cell<V> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b != null) {
+            Cell<V> aLast = a.left, bLast = b.left;
+            aLast.right = b;
+            b.left = aLast;
+            bLast.right = a;
+            a.left = bLast;
+        }
+        return a;
+    }
+
+    // the queue is a circular list through qPrev and qNext, from its front.
+
+    /**
+     * @return the queue a followed by the queue b. A node that is in no queue counts as a queue of its own.
+     */
+    private static <V> Cell<V> joinQueues(Cell<V> a, Cell<V> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b != null) {
+            Cell<V> aLast = a.qPrev, bLast = b.qPrev;
+            aLast.qNext = b;
+            b.qPrev = aLast;
+            bLast.qNext = a;
+            a.qPrev = bLast;
+        }
+        return a;
+    }
+
+    private static <V> Cell<V> dequeue(Cell<V> queue, Cell<V> x) {
+        if (x.qNext == x) {
+            return null;
+        }
+        x.qPrev.qNext = x.qNext;
+        x.qNext.qPrev = x.qPrev;
+        Cell<V> front = queue == x ? x.qNext : queue;
+        x.qNext = x;
+        x.qPrev = x;
+        return front;
+    }
+
+    // the fix lists: every active root is listed at its rank, and so is every other active node of loss 1.
+    // Nodes of loss 2 or more have a list of their own.
+
+    /**
+     * lists the active node x by its kind, rank and loss.
+     */
+    private void file(Cell<V> x) {
+        Rank<V> rank = x.rank;
+        if (!active(x.parent)) {
+            x.list = ACTIVE_ROOT;
+            x.filed = rank;
+            rank.activeRoots = push(rank.activeRoots, x);
+            if (++rank.activeRootCount == 2) {
+                rootPairs = pushRootPair(rootPairs, rank);
+            }
+        } else if (x.loss == 1) {
+            x.list = LOSS_ONE;
+            x.filed = rank;
+            rank.lossOnes = push(rank.lossOnes, x);
+            if (++rank.lossOneCount == 2) {
+                lossPairs = pushLossPair(lossPairs, rank);
+            }
+        } else if (x.loss > 1) {
+            x.list = LOSS_TWO;
+            lossTwo = push(lossTwo, x);
+        } else {
+            x.list = NONE;
+        }
+    }
+
+    /**
+     * removes x from the fix list it is in, if any. Call it before x changes kind, rank or loss.
+     */
+    private void unfile(Cell<V> x) {
+        Rank<V> rank = x.filed;
+        switch (x.list) {
+            case ACTIVE_ROOT:
+                rank.activeRoots = remove(rank.activeRoots, x);
+                if (--rank.activeRootCount == 1) {
+                    rootPairs = removeRootPair(rootPairs, rank);
+                }
+                break;
+            case LOSS_ONE:
+                rank.lossOnes = remove(rank.lossOnes, x);
+                if (--rank.lossOneCount == 1) {
+                    lossPairs = removeLossPair(lossPairs, rank);
+                }
+                break;
+            case LOSS_TWO:
+                lossTwo = remove(lossTwo, x);
+                break;
+            default:
+                break;
+        }
+        x.list = NONE;
+        x.filed = null;
+    }
+
+    private static <V> Cell<V> push(Cell<V> head, Cell<V> x) {
+        if (head == null) {
+            x.fixNext = x;
+            x.fixPrev = x;
+        } else {
+            x.fixNext = head;
+            x.fixPrev = head.fixPrev;
+            head.fixPrev.fixNext = x;
+            head.fixPrev = x;
+        }
+        return x;
+    }
+
+    private static <V> Cell<V> remove(Cell<V> head, Cell<V> x) {
+        Cell<V> next = x.fixNext, prev = x.fixPrev;
+        x.fixNext = null;
+        x.fixPrev = null;
+        if (next == x) {
+            return null;
+        }
+        prev.fixNext = next;
+        next.fixPrev = prev;
+        return head == x ? next : head;
+    }
+
+    private static <V> Rank<V> pushRootPair(Rank<V> head, Rank<V> rank) {
+        if (head == null) {
+            rank.nextRootPair = rank;
+            rank.prevRootPair = rank;
+        } else {
+            rank.nextRootPair = head;
+            rank.prevRootPair = head.prevRootPair;
+            head.prevRootPair.nextRootPair = rank;
+            head.prevRootPair = rank;
+        }
+        return rank;
+    }
+
+    private static <V> Rank<V> removeRootPair(Rank<V> head, Rank<V> rank) {
+        Rank<V> next = rank.nextRootPair;
+        rank.prevRootPair.nextRootPair = next;
+        next.prevRootPair = rank.prevRootPair;
+        rank.nextRootPair = null;
+        rank.prevRootPair = null;
+        return next == rank ? null : head == rank ? next : head;
+    }
+
+    private static <V> Rank<V> pushLossPair(Rank<V> head, Rank<V> rank) {
+        if (head == null) {
+            rank.nextLossPair = rank;
+            rank.prevLossPair = rank;
+        } else {
+            rank.nextLossPair = head;
+            rank.prevLossPair = head.prevLossPair;
+            head.prevLossPair.nextLossPair = rank;
+            head.prevLossPair = rank;
+        }
+        return rank;
+    }
+
+    private static <V> Rank<V> removeLossPair(Rank<V> head, Rank<V> rank) {
+        Rank<V> next = rank.nextLossPair;
+        rank.prevLossPair.nextLossPair = next;
+        next.prevLossPair = rank.prevLossPair;
+        rank.nextLossPair = null;
+        rank.prevLossPair = null;
+        return next == rank ? null : head == rank ? next : head;
+    }
+
+    /**
+     * checks the structure of the heap and the invariants behind its bounds, and throws an IllegalStateException
+     * on the first violation. Used by FibonacciHeapVariantsTester.
+     * complexity: O(n)
+     */
+    void verify() {
+        if (root == null) {
+            check(size == 0 && queue == null && rootPairs == null && lossPairs == null && lossTwo == null, "empty");
+            return;
+        }
+        check(root.parent == null && !active(root), "root");
+        int bound = 2 * log2(size) + 6;
+        int cells = 0, activeRoots = 0, totalLoss = 0, lossTwos = 0;
+        ArrayDeque<Cell<V>> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Cell<V> x = stack.pop();
+            cells += 1;
+            check(x.item.cell == x, "entry");
+            int degree = 0, activeChildren = 0, zone = 0;
+            Cell<V> firstPassive = null;
+            for (Cell<V> c = x.child; c != null; c = c.right == x.child ? null : c.right) {
+                check(c.parent == x && c.right.left == c && !less(c, x), "children");
+                degree += 1;
+                int kind = active(c) ? 0 : linkable(c) ? 2 : 1;
+                if (kind > 0 && firstPassive == null) {
+                    firstPassive = c;
+                }
+                check(kind == 0 ? zone == 0 : x != root || kind >= zone, "order of the children");
+                zone = kind;
+                activeChildren += kind == 0 ? 1 : 0;
+                stack.push(c);
+            }
+            if (x == root) {
+                check(rootPassive == firstPassive, "first passive child of the root");
+            }
+            check(degree <= 2 * bound + 4, "degree " + degree);
+            if (!active(x)) {
+                continue;
+            }
+            check(x.activity == activity && x.rank.value == activeChildren && x.rank.value <= bound, "rank");
+            // the i-th rightmost active child has rank + loss >= i - 1
+            int i = activeChildren;
+            for (Cell<V> c = x.child; i > 0; c = c.right, i--) {
+                check(c.rank.value + c.loss >= i - 1, "rank of a child");
+            }
+            if (!active(x.parent)) {
+                activeRoots += 1;
+                check(x.loss == 0 && x.list == ACTIVE_ROOT && x.filed == x.rank, "active root");
+            } else {
+                totalLoss += x.loss;
+                lossTwos += x.loss > 1 ? 1 : 0;
+                check(x.list == (x.loss == 0 ? NONE : x.loss == 1 ? LOSS_ONE : LOSS_TWO), "loss");
+                check(x.loss != 1 || x.filed == x.rank, "loss one");
+            }
+        }
+        check(cells == size, "size");
+        check(activeRoots <= bound + 1, "number of active roots " + activeRoots);
+        check(totalLoss <= bound + 1, "total loss " + totalLoss);
+        int queued = 0;
+        for (Cell<V> x = queue; x != null; x = x.qNext == queue ? null : x.qNext) {
+            check(x != root && x.qNext.qPrev == x, "queue");
+            queued += 1;
+        }
+        check(queued == size - 1, "queue length");
+        int filedRoots = 0, pairs = 0;
+        for (Rank<V> rank = ranks; rank != null; rank = rank.next) {
+            filedRoots += count(rank.activeRoots);
+            check(count(rank.activeRoots) == rank.activeRootCount, "active roots of a rank");
+            check(count(rank.lossOnes) == rank.lossOneCount, "loss ones of a rank");
+            check((rank.activeRootCount >= 2) == (rank.nextRootPair != null), "root pairs");
+            check((rank.lossOneCount >= 2) == (rank.nextLossPair != null), "loss pairs");
+            pairs += rank.activeRootCount >= 2 ? 1 : 0;
+        }
+        check(filedRoots == activeRoots && count(lossTwo) == lossTwos, "fix lists");
+        int listed = 0;
+        for (Rank<V> rank = rootPairs; rank != null; rank = rank.nextRootPair) {
+            listed += 1;
+            if (rank.nextRootPair == rootPairs) {
+                break;
+            }
+        }
+        check(listed == pairs, "root pair list");
+    }
+
+    private static <V> int count(Cell<V> head) {
+        int count = 0;
+        for (Cell<V> x = head; x != null; x = x.fixNext == head ? null : x.fixNext) {
+            count += 1;
+        }
+        return count;
+    }
+
+    private static int log2(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n);
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            throw new IllegalStateException("StrictFibonacciHeap: bad " + what);
+        }
+    }
+
+    /**
+     * an entry of the heap, and its handle for decreaseKey and delete.
+     */
+    public static class Node<V> {
+        private final long seq;
+        private int key;
+        private V value;
+        private Cell<V> cell;  // null once deleted
+
+        private Node(int key, V value, long seq) {
+            this.key = key;
+            this.value = value;
+            this.seq = seq;
+        }
+
+        public int getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public void setValue(V value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * a node of the tree. Its entry can move to another node (see swapItems).
+     */
+    private static final class Cell<V> {
+        Node<V> item;
+        Cell<V> parent, child, left, right;  // siblings form a ring, and child is the leftmost
+        Cell<V> qPrev, qNext;
+        Cell<V> fixPrev, fixNext;
+        Activity activity;  // null for a passive node that was never active
+        Rank<V> rank;
+        Rank<V> filed;      // the rank x was filed at, if it is listed by rank
+        int loss;
+        byte list = NONE;
+
+        Cell(Node<V> item) {
+            this.item = item;
+            item.cell = this;
+            left = this;
+            right = this;
+            qPrev = this;
+            qNext = this;
+        }
+    }
+
+    /**
+     * the flag shared by the active nodes of a heap.
+     */
+    private static final class Activity {
+        boolean active = true;
+    }
+
+    private static final class Rank<V> {
+        final Rank<V> prev;
+        final int value;
+        Rank<V> next;
+        Cell<V> activeRoots, lossOnes;
+        int activeRootCount, lossOneCount;
+        Rank<V> prevRootPair, nextRootPair, prevLossPair, nextLossPair;
+
+        Rank(Rank<V> prev) {
+            this.prev = prev;
+            value = prev == null ? 0 : prev.value + 1;
+        }
+    }
+}
@@ -134,19 +134,24 @@ public class TesterFibHeaps2021a {
 
     }
 
-    static void fillInc(FibonacciHeap H, int start, int stop) {
+    @SuppressWarnings("unchecked")
+    static FibonacciHeap.HeapNode<Void>[] newNodes(int n) {
+        return (FibonacciHeap.HeapNode<Void>[]) new FibonacciHeap.HeapNode<?>[n];
+    }
+
+    static void fillInc(FibonacciHeap<Void> H, int start, int stop) {
         fillInOrder(H, start, stop - start + 1, 1);
     }
-    static void fillDec(FibonacciHeap H, int start, int stop) {
+    static void fillDec(FibonacciHeap<Void> H, int start, int stop) {
         fillInOrder(H, stop, stop - start + 1, -1);
     }
-    static void fillInOrder(FibonacciHeap H, int startValue, int countItems, int stepSize) {
+    static void fillInOrder(FibonacciHeap<Void> H, int startValue, int countItems, int stepSize) {
         for (int i=0;i<countItems;i++) {
             H.insert(startValue + i*stepSize);
         }
     }
 
-    static boolean test_depletion(FibonacciHeap H, int minValue, int nItems, int iterations, boolean checkEmpty) {
+    static boolean test_depletion(FibonacciHeap<Void> H, int minValue, int nItems, int iterations, boolean checkEmpty) {
         for (int i=0; i < iterations; i++) {
             if (H.findMin().getKey() != minValue+i || H.size() != nItems-i) {
                 // System.out.println("" + H.findMin().getKey() + ":" + (minValue+i) + ":" + H.size() + ":"+ (nItems-i));
@@ -169,7 +174,7 @@ public class TesterFibHeaps2021a {
     }
 
     /** Adds a new item and deletes it. Could insert an arbitrary item, but then key-uniqueness is not guaranteed. */
-    static void triggerConsolidation(FibonacciHeap H) {
+    static void triggerConsolidation(FibonacciHeap<Void> H) {
         if (H.isEmpty()) return;
         H.insert(H.findMin().getKey() - 1);
         H.deleteMin();
@@ -178,7 +183,7 @@ public class TesterFibHeaps2021a {
     public static class SimpleTests {
 
         int testInit() {
-            FibonacciHeap H = new FibonacciHeap();
+            FibonacciHeap<Void> H = new FibonacciHeap<>();
             int[] counters = {0,0};
 
             update_counters(H.findMin() == null, counters);
@@ -187,7 +192,7 @@ public class TesterFibHeaps2021a {
         }
 
         int testEmpty() {
-            FibonacciHeap H = new FibonacciHeap();
+            FibonacciHeap<Void> H = new FibonacciHeap<>();
             int[] counters = {0,0};
 
             update_counters(H.isEmpty(),counters);
@@ -204,7 +209,7 @@ public class TesterFibHeaps2021a {
 
         int testInsert() {
             // Note: We didn't define 'H.getFirst()' or anything like that, so testing that cannot be part of our test.
-            FibonacciHeap H = new FibonacciHeap();
+            FibonacciHeap<Void> H = new FibonacciHeap<>();
             int[] counters = {0,0};
             H.insert(8);
             update_counters(H.findMin().getKey() == 8 , counters);
@@ -226,7 +231,7 @@ public class TesterFibHeaps2021a {
             };
 
             for (int items=0; items<=11; items++) {
-                FibonacciHeap H = new FibonacciHeap();
+                FibonacciHeap<Void> H = new FibonacciHeap<>();
 
                 for (int i=1; i <= items; i++) { H.insert(i); }
                 H.deleteMin();
@@ -243,10 +248,10 @@ public class TesterFibHeaps2021a {
         }
 
         int testPotential() {
-            FibonacciHeap H = new FibonacciHeap();
+            FibonacciHeap<Void> H = new FibonacciHeap<>();
             int[] counters = {0,0};
             int size = 16;
-            FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[size+1];
+            FibonacciHeap.HeapNode<Void>[] nodes = newNodes(size+1);
 
             boolean block_fine = true;
             for (int i=0;i<=size;i++) {
@@ -286,11 +291,11 @@ public class TesterFibHeaps2021a {
             int[] ranksFor31 = {1,1,1,1,1};
             int[] ranksFor10consolidatedand22singles = {22,1,0,1};
 
-            FibonacciHeap H,H2;
+            FibonacciHeap<Void> H,H2;
 
             // Non-empty melding.
-            H = new FibonacciHeap();
-            H2 = new FibonacciHeap();
+            H = new FibonacciHeap<>();
+            H2 = new FibonacciHeap<>();
 
             fillInOrder(H,1,size10,2);
             fillInOrder(H2,2,size22,2);
@@ -314,12 +319,12 @@ public class TesterFibHeaps2021a {
             update_counters(H.size() == size10 + size22 - 1 && cmp_arrays(H.countersRep(), ranksFor31) , counters);
 
             // Multiple melds.
-            H = new FibonacciHeap();
-            H2 = new FibonacciHeap();
+            H = new FibonacciHeap<>();
+            H2 = new FibonacciHeap<>();
             fillInOrder(H2,2,size10,2);
             triggerConsolidation(H2);
             H.meld(H2);
-            H2 = new FibonacciHeap();
+            H2 = new FibonacciHeap<>();
             fillInOrder(H2,100,size22,2);
             H.meld(H2);
             update_counters(H.size() == size10 + size22 && cmp_arrays(H.countersRep(), ranksFor10consolidatedand22singles) , counters);
@@ -335,11 +340,11 @@ public class TesterFibHeaps2021a {
             int[] ranksFor10singles = {10};
             int[] ranksFor10 = {0,1,0,1};
 
-            FibonacciHeap H,H2;
+            FibonacciHeap<Void> H,H2;
 
             // Empty meld: heap2.
-            H = new FibonacciHeap();
-            H2 = new FibonacciHeap();
+            H = new FibonacciHeap<>();
+            H2 = new FibonacciHeap<>();
 
             fillInOrder(H,1,size10,2);
             update_counters((H.size() == size10) && cmp_arrays(H.countersRep() , ranksFor10singles) , counters);
@@ -353,8 +358,8 @@ public class TesterFibHeaps2021a {
 
 
             // Empty meld: this.
-            H = new FibonacciHeap();
-            H2 = new FibonacciHeap();
+            H = new FibonacciHeap<>();
+            H2 = new FibonacciHeap<>();
 
             fillInOrder(H2,1,size10,2);
             update_counters((H2.size() == size10) && cmp_arrays(H2.countersRep(), ranksFor10singles), counters);
@@ -368,9 +373,9 @@ public class TesterFibHeaps2021a {
 
         int testDecreaseKey() {
             int[] counters = {0,0};
-            FibonacciHeap H = new FibonacciHeap();
+            FibonacciHeap<Void> H = new FibonacciHeap<>();
             int nItems = 16;
-            FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[nItems+1];
+            FibonacciHeap.HeapNode<Void>[] nodes = newNodes(nItems+1);
             for (int i=1;i<=nItems;i++) {
                 nodes[i] = H.insert(i);
             }
@@ -404,15 +409,15 @@ public class TesterFibHeaps2021a {
             int[] counters = {0,0};
 
             {  // single node delete (equivalent to delete min).
-                FibonacciHeap H = new FibonacciHeap();
-                FibonacciHeap.HeapNode node = H.insert(1);
+                FibonacciHeap<Void> H = new FibonacciHeap<>();
+                FibonacciHeap.HeapNode<Void> node = H.insert(1);
                 update_counters(H.size() == 1 , counters);
                 H.delete(node);
                 update_counters(H.size() == 0 , counters);
             }
             {  // delete a few non-min, and a some effectively-min nodes.
-                FibonacciHeap H = new FibonacciHeap();
-                FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[5];
+                FibonacciHeap<Void> H = new FibonacciHeap<>();
+                FibonacciHeap.HeapNode<Void>[] nodes = newNodes(5);
                 for (int i=0;i<nodes.length;i++) {
                     nodes[i] = H.insert(i);
                 }
@@ -432,7 +437,7 @@ public class TesterFibHeaps2021a {
 
         int testSize() {
             int[] counters = {0,0};
-            FibonacciHeap H = new FibonacciHeap();
+            FibonacciHeap<Void> H = new FibonacciHeap<>();
             int n=10;
             update_counters(H.size() == 0 , counters);
             for (int i=1; i<=n;i++) {
@@ -449,7 +454,7 @@ public class TesterFibHeaps2021a {
         int testKMin() {
             // Because we formally defined the function to work only when 0 < k < size(H),
             // We do not test for k=size(H) or k=0, which also implicitly exclude size(H)<2.
-            FibonacciHeap H;
+            FibonacciHeap<Void> H;
             int[] counters = {0,0};
 
             int[][] test_cases = {
@@ -460,7 +465,7 @@ public class TesterFibHeaps2021a {
             };
 
             for (int c=0;c<test_cases.length; c++) {
-                H = new FibonacciHeap();
+                H = new FibonacciHeap<>();
                 boolean is_case_good = true; // Unless determined otherwise.
                 for (int i=0;i<test_cases[c].length; i++) {
                     H.insert(test_cases[c][i]);
@@ -482,7 +487,7 @@ public class TesterFibHeaps2021a {
 
         int testLinks() {
             int[] counters = {0,0};
-            FibonacciHeap H = new FibonacciHeap();
+            FibonacciHeap<Void> H = new FibonacciHeap<>();
 
             // We can't reset the counter, so save the initial values for base-line.
             int links_baseline = FibonacciHeap.totalLinks();
@@ -508,12 +513,12 @@ public class TesterFibHeaps2021a {
 
         int testCuts() {
             int[] counters = {0,0};
-            FibonacciHeap H = new FibonacciHeap();
+            FibonacciHeap<Void> H = new FibonacciHeap<>();
 
             // We can't reset the counter, so save the initial values for base-line.
             int cuts_baseline = FibonacciHeap.totalCuts();
 
-            FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[16];
+            FibonacciHeap.HeapNode<Void>[] nodes = newNodes(16);
             for (int i=0;i<nodes.length;i++) {
                 nodes[i] = H.insert(i);
             }
@@ -554,7 +559,7 @@ public class TesterFibHeaps2021a {
             5) Then it depletes the heap using 'deleteMin'.
 			*/
             int[] counters = {0,0};
-            FibonacciHeap H = new FibonacciHeap();
+            FibonacciHeap<Void> H = new FibonacciHeap<>();
 
             fillInc(H, 0,999);
             fillDec(H, 4000,4999);
@@ -581,12 +586,12 @@ public class TesterFibHeaps2021a {
 			4) Finally, the test depletes the heap using 'deleteMin'.
 			*/
             int[] counters = {0,0};
-            FibonacciHeap H = new FibonacciHeap();
+            FibonacciHeap<Void> H = new FibonacciHeap<>();
 
             fillInc(H, 1000,1999);
             fillDec(H, 3000,3999);
 
-            FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[1000];
+            FibonacciHeap.HeapNode<Void>[] nodes = newNodes(1000);
 
             for (int i = 2000; i < 3000; i++) {
                 nodes[i-2000] = H.insert(i);
@@ -610,7 +615,7 @@ public class TesterFibHeaps2021a {
             3) Finally, it checks the validity of isEmpty.
 			*/
             int[] counters = {0,0};
-            FibonacciHeap H = new FibonacciHeap();
+            FibonacciHeap<Void> H = new FibonacciHeap<>();
             fillInOrder(H, 1000,1000,1); // increasing
             fillInOrder(H, 7999,1000,-1);  // reversed
 
@@ -646,7 +651,7 @@ public class TesterFibHeaps2021a {
 			4) Then repeat step 1, this time consolidate B1. Then repeat step-2, and check that in the end all items are singletons. 
 			*/
             int[] counters = {0,0};
-            FibonacciHeap H = new FibonacciHeap();
+            FibonacciHeap<Void> H = new FibonacciHeap<>();
             boolean isBlockOk;
 
             int[] forest = {1025};
@@ -655,7 +660,7 @@ public class TesterFibHeaps2021a {
             int valueOffset = 1234;
             int decreaseSize = 99999;
 
-            FibonacciHeap.HeapNode[] nodes = new FibonacciHeap.HeapNode[blockSize];
+            FibonacciHeap.HeapNode<Void>[] nodes = newNodes(blockSize);
             for (int i=0;i<blockSize;i++) {
                 nodes[i] = H.insert(valueOffset + i);
             }